@@ -0,0 +1,84 @@
+package com.campusmarket.config;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Redis value serializer that writes JSON or Smile (Jackson's binary JSON) and reads both.
+ * <p>
+ * Smile payloads start with the {@code :)\n} header, which no JSON document can, so values written
+ * before a format switch stay readable and the format can be changed (or rolled back) without
+ * flushing Redis. Both formats keep default typing, so cached DTOs deserialize to their own classes.
+ */
+public class DualFormatRedisSerializer implements RedisSerializer<Object> {
+
+    public enum Format {
+        JSON,
+        SMILE;
+
+        public static Format from(String value) {
+            return value == null ? SMILE : valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final Format writeFormat;
+
+    public DualFormatRedisSerializer(ObjectMapper objectMapper, Format writeFormat) {
+        this.jsonMapper = withDefaultTyping(objectMapper.copy());
+        ObjectMapper smile = new ObjectMapper(SmileFactory.builder()
+                // Share repeated strings such as type ids and enum names across list elements.
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+        smile.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.smileMapper = withDefaultTyping(smile);
+        this.writeFormat = writeFormat;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return (writeFormat == Format.SMILE ? smileMapper : jsonMapper).writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write Redis value: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return (isSmile(bytes) ? smileMapper : jsonMapper).readValue(bytes, Object.class);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not read Redis value: " + ex.getMessage(), ex);
+        }
+    }
+
+    static boolean isSmile(byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == ':' && bytes[1] == ')' && bytes[2] == '\n';
+    }
+
+    private static ObjectMapper withDefaultTyping(ObjectMapper mapper) {
+        mapper.findAndRegisterModules();
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+}
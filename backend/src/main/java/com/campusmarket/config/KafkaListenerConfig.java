@@ -1,33 +1,81 @@
 package com.campusmarket.config;
 
+import com.campusmarket.messaging.RawRecordProducer;
+import com.campusmarket.messaging.RetryTopics;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonLoggingErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.listener.RetryListener;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Configuration
 public class KafkaListenerConfig {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaListenerConfig.class);
 
+    /**
+     * Parks a record the main listeners could not process on its failed-record topic, or dead-letters it,
+     * without holding up the partition. Records that failed to deserialize still carry their raw bytes
+     * and go out through the byte[] template.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer eventRetryRecoverer(KafkaTemplate<Object, Object> kafkaTemplate,
+                                                             RawRecordProducer rawRecordProducer,
+                                                             RetryTopics retryTopics) {
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, rawRecordProducer.template());
+        templates.put(Object.class, kafkaTemplate);
+        return new DeadLetterPublishingRecoverer(templates, retryTopics::destination);
+    }
+
+    /**
+     * Spring Kafka's non-blocking retry for the failed-record topics: the listener on
+     * {@code <topic>-failed} tries a record once more, then each {@code -retry-<delay>} tier waits
+     * out its backoff before the next attempt, and the last failure lands in {@code <topic>-failed.DLT}.
+     * It is attached there rather than to the main topics because retry topics only support
+     * single-record listeners and most main listeners take batches. The dead-letter topics are
+     * drained by {@code DeadLetterReplayService}, so the framework's logging DLT consumer is not started.
+     */
+    @Bean
+    public RetryTopicConfiguration eventRetryTopics(KafkaTemplate<Object, Object> kafkaTemplate,
+                                                    RetryTopics retryTopics,
+                                                    @Value("${app.kafka.retry.attempts:4}") int attempts,
+                                                    @Value("${app.kafka.retry.initial-delay-ms:1000}") long initialDelayMillis,
+                                                    @Value("${app.kafka.retry.multiplier:10}") double multiplier,
+                                                    @Value("${app.kafka.retry.max-delay-ms:60000}") long maxDelayMillis,
+                                                    @Value("${app.kafka.partitions:3}") int partitions) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(retryTopics.failedTopics())
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelayMillis, multiplier, maxDelayMillis)
+                .dltSuffix(RetryTopics.DLT_SUFFIX)
+                .autoStartDltHandler(false)
+                // Same partition count as the failed-record topic, since records keep their partition.
+                .autoCreateTopicsWith(partitions, (short) 1)
+                .create(kafkaTemplate);
+    }
+
     @Bean
-    public DefaultErrorHandler kafkaErrorHandler(KafkaTemplate<Object, Object> kafkaTemplate) {
-        FixedBackOff backOff = new FixedBackOff(1_000L, 2L);
-        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
-                kafkaTemplate,
-                (record, ex) -> new TopicPartition(record.topic() + ".DLT", record.partition())
-        );
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+    public DefaultErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer eventRetryRecoverer) {
+        // No in-place retries: waiting happens on the retry topics, so the partition keeps moving.
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(eventRetryRecoverer, new FixedBackOff(0L, 0L));
         errorHandler.setRetryListeners(new RetryListener() {
             @Override
             public void failedDelivery(ConsumerRecord<?, ?> record, Exception ex, int deliveryAttempt) {
@@ -45,11 +93,57 @@ public class KafkaListenerConfig {
     public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
             ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
             ConsumerFactory<Object, Object> consumerFactory,
-            DefaultErrorHandler kafkaErrorHandler) {
+            DefaultErrorHandler kafkaErrorHandler,
+            @Value("${app.kafka.partitions:3}") int partitions) {
         ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         configurer.configure(factory, consumerFactory);
+        // One consumer per partition of the topics created in KafkaTopicConfig; more would sit idle.
+        factory.setConcurrency(partitions);
         factory.setCommonErrorHandler(kafkaErrorHandler);
         return factory;
     }
+
+    /**
+     * Delivers each poll as a list, for listeners that merge work across records.
+     */
+    @Bean(name = "batchKafkaListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DefaultErrorHandler kafkaErrorHandler,
+            @Value("${app.kafka.partitions:3}") int partitions) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setConcurrency(partitions);
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(kafkaErrorHandler);
+        return factory;
+    }
+
+    /**
+     * Broadcast consumers that every instance runs over all partitions, e.g. near-cache invalidation.
+     * Partitions are assigned manually and offsets are never committed, so no consumer group is left
+     * on the broker when an instance goes away; a restart simply resumes from the latest offset.
+     * Failures are only logged: retrying or dead-lettering an invalidation would re-run the shared
+     * side effects of the main consumer group.
+     */
+    @Bean(name = "broadcastKafkaListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> broadcastKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setConcurrency(1);
+        factory.setBatchListener(true);
+        // Nothing ever acknowledges, so nothing is ever committed.
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAssignmentCommitOption(ContainerProperties.AssignmentCommitOption.NEVER);
+        CommonLoggingErrorHandler errorHandler = new CommonLoggingErrorHandler();
+        errorHandler.setAckAfterHandle(false);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
 }
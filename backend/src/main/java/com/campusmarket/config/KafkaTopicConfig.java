@@ -1,10 +1,12 @@
 package com.campusmarket.config;
 
+import com.campusmarket.messaging.RetryTopics;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
 
 @Configuration
 public class KafkaTopicConfig {
@@ -18,10 +20,19 @@ public class KafkaTopicConfig {
     @Value("${app.kafka.chat-topic:chat-events}")
     private String chatTopicName;
 
+    @Value("${app.kafka.flash-sale-order-topic:flash-sale-order-events}")
+    private String flashSaleOrderTopicName;
+
+    /**
+     * Shared with {@link KafkaListenerConfig}, which runs one consumer thread per partition.
+     */
+    @Value("${app.kafka.partitions:3}")
+    private int partitions;
+
     @Bean
     public NewTopic orderEventsTopic() {
         return TopicBuilder.name(orderTopicName)
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -29,24 +40,36 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic goodsEventsTopic() {
         return TopicBuilder.name(goodsTopicName)
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
 
     @Bean
-    public NewTopic goodsEventsDltTopic() {
-        return TopicBuilder.name(goodsTopicName + ".DLT")
-                .partitions(3)
+    public NewTopic chatEventsTopic() {
+        return TopicBuilder.name(chatTopicName)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
 
     @Bean
-    public NewTopic chatEventsTopic() {
-        return TopicBuilder.name(chatTopicName)
-                .partitions(3)
+    public NewTopic flashSaleOrderEventsTopic() {
+        return TopicBuilder.name(flashSaleOrderTopicName)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
+
+    /**
+     * Failed-record topic of every event topic, partitioned like the topic itself since a failed record
+     * is republished to the same partition number. Its retry tiers and dead-letter topic are created by
+     * the retry topic configuration in {@link KafkaListenerConfig}.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics failedRecordTopics(RetryTopics retryTopics) {
+        return new KafkaAdmin.NewTopics(retryTopics.failedTopics().stream()
+                .map(topic -> TopicBuilder.name(topic).partitions(partitions).replicas(1).build())
+                .toArray(NewTopic[]::new));
+    }
 }
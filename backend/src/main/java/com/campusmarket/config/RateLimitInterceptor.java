@@ -0,0 +1,59 @@
+package com.campusmarket.config;
+
+import com.campusmarket.entity.User;
+import com.campusmarket.service.RateLimitPolicy;
+import com.campusmarket.service.impl.RedisRateLimiter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Enforces {@link RateLimited} on controller methods. Runs after the security filter chain, so the
+ * authenticated user is available as the limit key.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RedisRateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RedisRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = ((HandlerMethod) handler).getMethodAnnotation(RateLimited.class);
+        if (rateLimited != null) {
+            RateLimitPolicy policy = rateLimited.value();
+            rateLimiter.acquire(policy, resolveKey(policy, request));
+        }
+        return true;
+    }
+
+    private String resolveKey(RateLimitPolicy policy, HttpServletRequest request) {
+        if (policy.getKeyType() == RateLimitPolicy.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof User) {
+                return "user:" + ((User) authentication.getPrincipal()).getId();
+            }
+        }
+        return "ip:" + resolveClientIp(request);
+    }
+
+    private String resolveClientIp(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwarded)) {
+            return forwarded.split(",")[0].trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
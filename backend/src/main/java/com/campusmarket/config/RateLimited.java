@@ -0,0 +1,21 @@
+package com.campusmarket.config;
+
+import com.campusmarket.service.RateLimitPolicy;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Apply a {@link RateLimitPolicy} to a controller method. Enforced by {@link RateLimitInterceptor} before
+ * the handler runs; over-limit requests get 429 with {@code Retry-After}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    RateLimitPolicy value();
+}
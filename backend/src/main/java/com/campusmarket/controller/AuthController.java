@@ -1,5 +1,6 @@
 package com.campusmarket.controller;
 
+import com.campusmarket.config.RateLimited;
 import com.campusmarket.dto.AuthRequest;
 import com.campusmarket.dto.AuthResponse;
 import com.campusmarket.dto.RegisterRequest;
@@ -7,6 +8,7 @@ import com.campusmarket.dto.UserProfileResponse;
 import com.campusmarket.entity.User;
 import com.campusmarket.security.jwt.JwtTokenProvider;
 import com.campusmarket.service.LoginSessionService;
+import com.campusmarket.service.RateLimitPolicy;
 import com.campusmarket.service.UserService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -42,6 +44,7 @@ public class AuthController {
     }
 
     @PostMapping("/login")
+    @RateLimited(RateLimitPolicy.LOGIN)
     public AuthResponse login(@RequestBody @Validated AuthRequest request,
                               HttpServletRequest servletRequest) {
         AuthResponse response = userService.login(request);
@@ -1,6 +1,8 @@
 package com.campusmarket.controller;
 
+import com.campusmarket.config.RateLimited;
 import com.campusmarket.service.ChatMessageService;
+import com.campusmarket.service.RateLimitPolicy;
 import com.campusmarket.websocket.dto.ChatConversation;
 import com.campusmarket.websocket.dto.ChatMessage;
 import com.campusmarket.websocket.dto.ChatPayload;
@@ -44,6 +46,7 @@ public class ChatControllerRest {
     }
 
     @PostMapping("/messages")
+    @RateLimited(RateLimitPolicy.CHAT_SEND)
     @ResponseStatus(HttpStatus.CREATED)
     public ChatMessage sendMessage(@AuthenticationPrincipal com.campusmarket.entity.User user,
                                    @Valid @RequestBody ChatPayload payload) {
@@ -1,15 +1,19 @@
 package com.campusmarket.controller;
 
+import com.campusmarket.config.RateLimited;
 import com.campusmarket.dto.FlashSaleItemCreateRequest;
 import com.campusmarket.dto.FlashSaleItemResponse;
+import com.campusmarket.dto.FlashSaleOrderStatusResponse;
 import com.campusmarket.dto.FlashSalePurchaseRequest;
 import com.campusmarket.entity.User;
 import com.campusmarket.service.FlashSaleService;
+import com.campusmarket.service.RateLimitPolicy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -41,12 +45,20 @@ public class FlashSaleController {
     }
 
     @PostMapping("/purchase")
+    @RateLimited(RateLimitPolicy.FLASH_SALE_PURCHASE)
     public ResponseEntity<Map<String, Object>> purchase(@AuthenticationPrincipal User currentUser,
                                                         @RequestBody @Validated FlashSalePurchaseRequest request) {
         Long orderId = flashSaleService.attemptPurchase(currentUser.getId(), request.getFlashSaleItemId());
         Map<String, Object> result = new HashMap<>();
         result.put("orderId", orderId);
+        result.put("status", "PREPARING");
         result.put("message", "抢购成功，正在创建订单");
         return ResponseEntity.ok(result);
     }
+
+    @GetMapping("/items/{itemId}/order")
+    public FlashSaleOrderStatusResponse orderStatus(@AuthenticationPrincipal User currentUser,
+                                                    @PathVariable Long itemId) {
+        return flashSaleService.getOrderStatus(currentUser.getId(), itemId);
+    }
 }
@@ -2,15 +2,18 @@ package com.campusmarket.controller;
 
 import com.campusmarket.dto.GoodsCreateRequest;
 import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsPageResponse;
 import com.campusmarket.dto.GoodsResponse;
 import com.campusmarket.dto.GoodsReviewRequest;
+import com.campusmarket.dto.GoodsSearchResponse;
 import com.campusmarket.dto.GoodsUpdateRequest;
 import com.campusmarket.dto.HotGoodsItemResponse;
 import com.campusmarket.entity.Goods;
 import com.campusmarket.entity.GoodsStatus;
 import com.campusmarket.entity.User;
-import com.campusmarket.messaging.GoodsEventPublisher;
+import com.campusmarket.messaging.GoodsViewAggregator;
 
+import com.campusmarket.service.GoodsSearchService;
 import com.campusmarket.service.GoodsService;
 import com.campusmarket.service.HotGoodsService;
 import org.springframework.http.HttpStatus;
@@ -37,29 +40,57 @@ public class GoodsController {
 
     private final GoodsService goodsService;
     private final HotGoodsService hotGoodsService;
-    private final GoodsEventPublisher goodsEventPublisher;
+    private final GoodsSearchService goodsSearchService;
+    private final GoodsViewAggregator goodsViewAggregator;
 
     public GoodsController(GoodsService goodsService,
                            HotGoodsService hotGoodsService,
-                           GoodsEventPublisher goodsEventPublisher) {
+                           GoodsSearchService goodsSearchService,
+                           GoodsViewAggregator goodsViewAggregator) {
         this.goodsService = goodsService;
         this.hotGoodsService = hotGoodsService;
-        this.goodsEventPublisher = goodsEventPublisher;
+        this.goodsSearchService = goodsSearchService;
+        this.goodsViewAggregator = goodsViewAggregator;
     }
 
     @GetMapping
-    public List<GoodsResponse> listGoods(@RequestParam(required = false) String category,
-                                         @RequestParam(required = false) BigDecimal minPrice,
-                                         @RequestParam(required = false) BigDecimal maxPrice,
-                                         @RequestParam(required = false) String keyword) {
+    public GoodsPageResponse listGoods(@RequestParam(required = false) String category,
+                                       @RequestParam(required = false) BigDecimal minPrice,
+                                       @RequestParam(required = false) BigDecimal maxPrice,
+                                       @RequestParam(required = false) String keyword,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer size) {
         GoodsFilterRequest request = new GoodsFilterRequest();
         request.setCategory(category);
         request.setMinPrice(minPrice);
         request.setMaxPrice(maxPrice);
         request.setKeyword(keyword);
+        request.setCursor(cursor);
+        request.setSize(size);
         return goodsService.listGoods(request);
     }
 
+    @GetMapping("/search")
+    public GoodsSearchResponse searchGoods(@RequestParam String keyword,
+                                           @RequestParam(required = false) String category,
+                                           @RequestParam(required = false) BigDecimal minPrice,
+                                           @RequestParam(required = false) BigDecimal maxPrice,
+                                           @RequestParam(defaultValue = "0") int offset,
+                                           @RequestParam(required = false) Integer size) {
+        GoodsFilterRequest request = new GoodsFilterRequest();
+        request.setCategory(category);
+        request.setMinPrice(minPrice);
+        request.setMaxPrice(maxPrice);
+        request.setKeyword(keyword);
+        return goodsSearchService.search(request, offset, size);
+    }
+
+    @GetMapping("/suggestions")
+    public List<String> suggestGoods(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "8") int limit) {
+        return goodsSearchService.suggest(prefix, limit);
+    }
+
     @GetMapping("/{id}")
     public GoodsResponse getGoods(@PathVariable Long id,
                                   @AuthenticationPrincipal User user) {
@@ -133,13 +164,11 @@ public class GoodsController {
 
     @PostMapping("/{id}/view")
     @ResponseStatus(HttpStatus.ACCEPTED)
-    public void recordView(@PathVariable Long id,
-                           @AuthenticationPrincipal User user) {
+    public void recordView(@PathVariable Long id) {
         try {
             Goods goods = goodsService.getGoodsEntity(id);
             if (GoodsStatus.APPROVED.name().equals(goods.getStatus())) {
-                Long viewerId = user == null ? null : user.getId();
-                goodsEventPublisher.publishGoodsViewed(id, goods.getSellerId(), viewerId);
+                goodsViewAggregator.recordView(id, goods.getSellerId());
             }
         } catch (IllegalArgumentException ignored) {
         }
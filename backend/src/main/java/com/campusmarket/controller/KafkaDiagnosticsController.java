@@ -1,13 +1,19 @@
 package com.campusmarket.controller;
 
+import com.campusmarket.dto.DeadLetterReplayResponse;
 import com.campusmarket.dto.KafkaTestRequest;
 import com.campusmarket.dto.KafkaTestResponse;
+import com.campusmarket.service.DeadLetterReplayService;
 import com.campusmarket.service.KafkaDiagnosticsService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
@@ -18,9 +24,12 @@ import javax.validation.Valid;
 public class KafkaDiagnosticsController {
 
     private final KafkaDiagnosticsService kafkaDiagnosticsService;
+    private final DeadLetterReplayService deadLetterReplayService;
 
-    public KafkaDiagnosticsController(KafkaDiagnosticsService kafkaDiagnosticsService) {
+    public KafkaDiagnosticsController(KafkaDiagnosticsService kafkaDiagnosticsService,
+                                      DeadLetterReplayService deadLetterReplayService) {
         this.kafkaDiagnosticsService = kafkaDiagnosticsService;
+        this.deadLetterReplayService = deadLetterReplayService;
     }
 
     @PostMapping("/order-events")
@@ -28,4 +37,24 @@ public class KafkaDiagnosticsController {
         KafkaTestResponse response = kafkaDiagnosticsService.publishOrderEvent(request);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Republish dead letters of an event topic (e.g. {@code goods-events}) to that topic, throttled.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/dlt/{topic}/replay")
+    public ResponseEntity<DeadLetterReplayResponse> replayDeadLetters(@PathVariable String topic,
+                                                                      @RequestParam(defaultValue = "100") int limit,
+                                                                      @RequestParam(defaultValue = "50") int ratePerSecond) {
+        DeadLetterReplayResponse response = deadLetterReplayService.startReplay(topic, limit, ratePerSecond);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/dlt/replay")
+    public ResponseEntity<DeadLetterReplayResponse> currentDeadLetterReplay() {
+        return deadLetterReplayService.currentReplay()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
 }
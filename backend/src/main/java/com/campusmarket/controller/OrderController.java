@@ -1,10 +1,14 @@
 package com.campusmarket.controller;
 
+import com.campusmarket.config.RateLimited;
 import com.campusmarket.dto.OrderCreateRequest;
+import com.campusmarket.dto.OrderPageResponse;
 import com.campusmarket.dto.OrderResponse;
 import com.campusmarket.dto.OrderUpdateStatusRequest;
+import com.campusmarket.entity.OrderRole;
 import com.campusmarket.entity.User;
 import com.campusmarket.service.OrderService;
+import com.campusmarket.service.RateLimitPolicy;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -14,10 +18,9 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
@@ -30,6 +33,7 @@ public class OrderController {
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN','STUDENT')")
+    @RateLimited(RateLimitPolicy.ORDER_CREATE)
     public OrderResponse createOrder(@RequestBody @Validated OrderCreateRequest request,
                                      @AuthenticationPrincipal User user) {
         return orderService.createOrder(user.getId(), request);
@@ -37,8 +41,11 @@ public class OrderController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','STUDENT')")
-    public List<OrderResponse> listOrders(@AuthenticationPrincipal User user) {
-        return orderService.listOrders(user.getId());
+    public OrderPageResponse listOrders(@RequestParam(required = false) String role,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size,
+                                        @AuthenticationPrincipal User user) {
+        return orderService.listOrders(user.getId(), OrderRole.from(role), cursor, size);
     }
 
     @PatchMapping("/{orderId}")
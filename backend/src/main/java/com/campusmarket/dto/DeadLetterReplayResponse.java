@@ -0,0 +1,91 @@
+package com.campusmarket.dto;
+
+import java.time.LocalDateTime;
+
+public class DeadLetterReplayResponse {
+
+    private String topic;
+    private String deadLetterTopic;
+    private String state;
+    private int limit;
+    private int ratePerSecond;
+    private long replayed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public DeadLetterReplayResponse() {
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    public void setDeadLetterTopic(String deadLetterTopic) {
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(int ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(long replayed) {
+        this.replayed = replayed;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -1,6 +1,7 @@
 package com.campusmarket.dto;
 
 import javax.validation.constraints.Future;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -26,6 +27,13 @@ public class FlashSaleItemCreateRequest {
     @Min(value = 1, message = "库存至少为1")
     private Integer totalStock;
 
+    /**
+     * Number of Redis sub-counters the stock is split into; defaults to 1 when omitted.
+     */
+    @Min(value = 1, message = "库存分片数至少为1")
+    @Max(value = 64, message = "库存分片数不能超过64")
+    private Integer stockShards;
+
     @NotNull(message = "开始时间不能为空")
     @Future(message = "开始时间必须晚于当前时间")
     private LocalDateTime startTime;
@@ -73,6 +81,14 @@ public class FlashSaleItemCreateRequest {
         this.totalStock = totalStock;
     }
 
+    public Integer getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(Integer stockShards) {
+        this.stockShards = stockShards;
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -0,0 +1,41 @@
+package com.campusmarket.dto;
+
+public class FlashSaleOrderStatusResponse {
+
+    private Long orderId;
+    private Long flashSaleItemId;
+    private String status;
+
+    public FlashSaleOrderStatusResponse() {
+    }
+
+    public FlashSaleOrderStatusResponse(Long orderId, Long flashSaleItemId, String status) {
+        this.orderId = orderId;
+        this.flashSaleItemId = flashSaleItemId;
+        this.status = status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getFlashSaleItemId() {
+        return flashSaleItemId;
+    }
+
+    public void setFlashSaleItemId(Long flashSaleItemId) {
+        this.flashSaleItemId = flashSaleItemId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
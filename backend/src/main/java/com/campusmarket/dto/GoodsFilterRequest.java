@@ -7,6 +7,8 @@ public class GoodsFilterRequest {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private String keyword;
+    private String cursor;
+    private Integer size;
 
     public String getCategory() {
         return category;
@@ -39,4 +41,20 @@ public class GoodsFilterRequest {
     public void setKeyword(String keyword) {
         this.keyword = keyword;
     }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
 }
@@ -0,0 +1,43 @@
+package com.campusmarket.dto;
+
+import java.util.List;
+
+public class GoodsPageResponse {
+
+    private List<GoodsResponse> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public GoodsPageResponse() {
+    }
+
+    public GoodsPageResponse(List<GoodsResponse> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<GoodsResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<GoodsResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,55 @@
+package com.campusmarket.dto;
+
+/**
+ * One keyword search result. Highlight fields are HTML-escaped text in which matched terms are
+ * wrapped in {@code <em>} tags.
+ */
+public class GoodsSearchHitResponse {
+
+    private GoodsResponse goods;
+    private double score;
+    private String titleHighlight;
+    private String descriptionHighlight;
+
+    public GoodsSearchHitResponse() {
+    }
+
+    public GoodsSearchHitResponse(GoodsResponse goods, double score, String titleHighlight, String descriptionHighlight) {
+        this.goods = goods;
+        this.score = score;
+        this.titleHighlight = titleHighlight;
+        this.descriptionHighlight = descriptionHighlight;
+    }
+
+    public GoodsResponse getGoods() {
+        return goods;
+    }
+
+    public void setGoods(GoodsResponse goods) {
+        this.goods = goods;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public String getTitleHighlight() {
+        return titleHighlight;
+    }
+
+    public void setTitleHighlight(String titleHighlight) {
+        this.titleHighlight = titleHighlight;
+    }
+
+    public String getDescriptionHighlight() {
+        return descriptionHighlight;
+    }
+
+    public void setDescriptionHighlight(String descriptionHighlight) {
+        this.descriptionHighlight = descriptionHighlight;
+    }
+}
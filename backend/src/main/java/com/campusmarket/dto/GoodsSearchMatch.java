@@ -0,0 +1,34 @@
+package com.campusmarket.dto;
+
+/**
+ * A goods id matched by a keyword search together with its relevance rank.
+ */
+public class GoodsSearchMatch {
+
+    private Long goodsId;
+    private double rank;
+
+    public GoodsSearchMatch() {
+    }
+
+    public GoodsSearchMatch(Long goodsId, double rank) {
+        this.goodsId = goodsId;
+        this.rank = rank;
+    }
+
+    public Long getGoodsId() {
+        return goodsId;
+    }
+
+    public void setGoodsId(Long goodsId) {
+        this.goodsId = goodsId;
+    }
+
+    public double getRank() {
+        return rank;
+    }
+
+    public void setRank(double rank) {
+        this.rank = rank;
+    }
+}
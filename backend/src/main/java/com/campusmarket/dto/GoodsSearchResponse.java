@@ -0,0 +1,43 @@
+package com.campusmarket.dto;
+
+import java.util.List;
+
+public class GoodsSearchResponse {
+
+    private List<GoodsSearchHitResponse> items;
+    private Integer nextOffset;
+    private boolean hasMore;
+
+    public GoodsSearchResponse() {
+    }
+
+    public GoodsSearchResponse(List<GoodsSearchHitResponse> items, Integer nextOffset, boolean hasMore) {
+        this.items = items;
+        this.nextOffset = nextOffset;
+        this.hasMore = hasMore;
+    }
+
+    public List<GoodsSearchHitResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<GoodsSearchHitResponse> items) {
+        this.items = items;
+    }
+
+    public Integer getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(Integer nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
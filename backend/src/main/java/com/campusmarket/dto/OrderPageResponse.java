@@ -0,0 +1,43 @@
+package com.campusmarket.dto;
+
+import java.util.List;
+
+public class OrderPageResponse {
+
+    private List<OrderResponse> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public OrderPageResponse() {
+    }
+
+    public OrderPageResponse(List<OrderResponse> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<OrderResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -18,6 +18,7 @@ public class FlashSaleItem implements Serializable {
     private BigDecimal originalPrice;
     private BigDecimal flashPrice;
     private Integer totalStock;
+    private Integer stockShards;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String status;
@@ -72,6 +73,14 @@ public class FlashSaleItem implements Serializable {
         this.totalStock = totalStock;
     }
 
+    public Integer getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(Integer stockShards) {
+        this.stockShards = stockShards;
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 @TableName("flash_sale_order")
 public class FlashSaleOrder implements Serializable {
 
-    @TableId(type = IdType.AUTO)
+    @TableId(type = IdType.INPUT)
     private Long id;
     private Long flashSaleItemId;
     private Long userId;
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -28,6 +29,8 @@ public class Goods implements Serializable {
     private Boolean deleted;
     private String status;
     private LocalDateTime publishedAt;
+    @Version
+    private Integer version;
 
     public Long getId() {
         return id;
@@ -124,4 +127,12 @@ public class Goods implements Serializable {
     public void setPublishedAt(LocalDateTime publishedAt) {
         this.publishedAt = publishedAt;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
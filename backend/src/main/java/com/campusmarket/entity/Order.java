@@ -16,6 +16,15 @@ public class Order implements Serializable {
     private Long goodsId;
     private Long buyerId;
     private OrderStatus status;
+    /**
+     * Read-model columns copied from the goods and users rows when the order is placed, so the order
+     * list needs no joins. Goods title and cover are refreshed on goods updates; nicknames are immutable.
+     */
+    private Long sellerId;
+    private String goodsTitle;
+    private String goodsCoverImageUrl;
+    private String buyerNickname;
+    private String sellerNickname;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -51,6 +60,46 @@ public class Order implements Serializable {
         this.status = status;
     }
 
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(Long sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public String getGoodsTitle() {
+        return goodsTitle;
+    }
+
+    public void setGoodsTitle(String goodsTitle) {
+        this.goodsTitle = goodsTitle;
+    }
+
+    public String getGoodsCoverImageUrl() {
+        return goodsCoverImageUrl;
+    }
+
+    public void setGoodsCoverImageUrl(String goodsCoverImageUrl) {
+        this.goodsCoverImageUrl = goodsCoverImageUrl;
+    }
+
+    public String getBuyerNickname() {
+        return buyerNickname;
+    }
+
+    public void setBuyerNickname(String buyerNickname) {
+        this.buyerNickname = buyerNickname;
+    }
+
+    public String getSellerNickname() {
+        return sellerNickname;
+    }
+
+    public void setSellerNickname(String sellerNickname) {
+        this.sellerNickname = sellerNickname;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,22 @@
+package com.campusmarket.entity;
+
+import java.util.Locale;
+
+/**
+ * Side of an order the current user is listing orders for.
+ */
+public enum OrderRole {
+    BUYER,
+    SELLER;
+
+    public static OrderRole from(String value) {
+        if (value == null || value.isBlank()) {
+            return BUYER;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported order role: " + value);
+        }
+    }
+}
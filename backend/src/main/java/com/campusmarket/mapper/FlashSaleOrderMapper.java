@@ -2,8 +2,38 @@ package com.campusmarket.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.campusmarket.entity.FlashSaleOrder;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface FlashSaleOrderMapper extends BaseMapper<FlashSaleOrder> {
+
+    @Insert({
+            "<script>",
+            "INSERT INTO flash_sale_order (id, flash_sale_item_id, user_id, status, created_at, updated_at) VALUES ",
+            "<foreach collection='orders' item='o' separator=','>",
+            "(#{o.id}, #{o.flashSaleItemId}, #{o.userId}, #{o.status}, #{o.createdAt}, #{o.updatedAt})",
+            "</foreach>",
+            " ON CONFLICT DO NOTHING",
+            "</script>"
+    })
+    int insertBatchIgnoreExisting(@Param("orders") List<FlashSaleOrder> orders);
+
+    @Update({
+            "<script>",
+            "UPDATE flash_sale_order SET status = #{to}, updated_at = #{updatedAt}",
+            " WHERE status = #{from} AND id IN ",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"
+    })
+    int updateStatusBatch(@Param("ids") Collection<Long> ids,
+                          @Param("from") String from,
+                          @Param("to") String to,
+                          @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -1,9 +1,134 @@
 package com.campusmarket.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsSearchMatch;
 import com.campusmarket.entity.Goods;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Mapper
 public interface GoodsMapper extends BaseMapper<Goods> {
+
+    String LISTED = " WHERE status = 'APPROVED' AND is_sold = FALSE AND is_deleted = FALSE AND quantity &gt; 0";
+
+    String FILTERS = "<if test='filter != null'>"
+            + "<if test='filter.category != null and filter.category != \"\"'> AND category = #{filter.category}</if>"
+            + "<if test='filter.minPrice != null'> AND price &gt;= #{filter.minPrice}</if>"
+            + "<if test='filter.maxPrice != null'> AND price &lt;= #{filter.maxPrice}</if>"
+            + "</if>";
+
+    String RETURNING_ROW = " RETURNING id, title, description, category, price, quantity, cover_image_url,"
+            + " seller_id, is_sold AS sold, is_deleted AS deleted, status, published_at, version";
+
+    /**
+     * Weighted search document: title (A), category (B), description (C).
+     */
+    String SEARCH_DOCUMENT = "setweight(to_tsvector('simple', coalesce(title, '')), 'A')"
+            + " || setweight(to_tsvector('simple', coalesce(category, '')), 'B')"
+            + " || setweight(to_tsvector('simple', coalesce(description, '')), 'C')";
+
+    /**
+     * One page of listed goods ordered by (published_at, id) descending, strictly after the cursor
+     * when given. Only list-card columns are read; {@code description} is cut to a short excerpt.
+     * The keyword filter is a substring match served by the trigram index on {@code title}.
+     */
+    @Select({
+            "<script>",
+            "SELECT id, title, LEFT(description, 120) AS description, category, price, quantity, cover_image_url,",
+            " seller_id, is_sold AS sold, is_deleted AS deleted, status, published_at",
+            " FROM goods",
+            LISTED,
+            FILTERS,
+            "<if test='filter != null and filter.keyword != null and filter.keyword != \"\"'>",
+            " AND title ILIKE CONCAT('%', #{filter.keyword}, '%')",
+            "</if>",
+            "<if test='cursorPublishedAt != null'> AND (published_at, id) &lt; (#{cursorPublishedAt}, #{cursorId})</if>",
+            " ORDER BY published_at DESC, id DESC",
+            " LIMIT #{limit}",
+            "</script>"
+    })
+    List<Goods> selectListedPage(@Param("filter") GoodsFilterRequest filter,
+                                 @Param("cursorPublishedAt") LocalDateTime cursorPublishedAt,
+                                 @Param("cursorId") Long cursorId,
+                                 @Param("limit") int limit);
+
+    /**
+     * Listed goods matching {@code query} either as full-text terms or as a fuzzy word match on the
+     * title, ranked by cover density plus title word similarity.
+     */
+    @Select({
+            "<script>",
+            "SELECT id AS goods_id, ts_rank_cd(search_document, q, 32) + word_similarity(#{query}, title) AS rank",
+            " FROM goods, websearch_to_tsquery('simple', #{query}) q",
+            LISTED,
+            FILTERS,
+            " AND (search_document @@ q OR #{query} &lt;% title)",
+            " ORDER BY rank DESC, id DESC",
+            " LIMIT #{limit} OFFSET #{offset}",
+            "</script>"
+    })
+    List<GoodsSearchMatch> searchListed(@Param("filter") GoodsFilterRequest filter,
+                                        @Param("query") String query,
+                                        @Param("offset") int offset,
+                                        @Param("limit") int limit);
+
+    /**
+     * Titles of listed goods that start with, or contain a word starting with, the LIKE-escaped prefix.
+     */
+    @Select({
+            "<script>",
+            "SELECT title FROM goods",
+            LISTED,
+            " AND (title ILIKE CONCAT(#{prefix}, '%') OR title ILIKE CONCAT('% ', #{prefix}, '%'))",
+            " GROUP BY title",
+            " ORDER BY MAX(published_at) DESC",
+            " LIMIT #{limit}",
+            "</script>"
+    })
+    List<String> selectTitleSuggestions(@Param("prefix") String prefix, @Param("limit") int limit);
+
+    /**
+     * Take {@code amount} units of an approved, not deleted item in one statement; {@code is_sold} is
+     * derived from the remaining quantity. Returns the updated row, or null when no row qualified
+     * (unknown id, not on sale, or fewer than {@code amount} units left).
+     */
+    @Select("UPDATE goods SET quantity = quantity - #{amount}, is_sold = (quantity - #{amount} <= 0),"
+            + " version = version + 1"
+            + " WHERE id = #{id} AND quantity >= #{amount} AND status = 'APPROVED' AND is_deleted = FALSE"
+            + RETURNING_ROW)
+    @Options(flushCache = Options.FlushCachePolicy.TRUE, useCache = false)
+    Goods decrementStock(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Give back {@code amount} units, e.g. for a canceled order. Returns the updated row, or null for an unknown id.
+     */
+    @Select("UPDATE goods SET quantity = quantity + #{amount}, is_sold = (quantity + #{amount} <= 0),"
+            + " version = version + 1"
+            + " WHERE id = #{id}"
+            + RETURNING_ROW)
+    @Options(flushCache = Options.FlushCachePolicy.TRUE, useCache = false)
+    Goods incrementStock(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Next batch of goods ids after {@code afterId} in id order, including sold and deleted rows.
+     */
+    @Select("SELECT id FROM goods WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Update("UPDATE goods SET search_document = " + SEARCH_DOCUMENT + " WHERE id = #{id}")
+    int refreshSearchDocument(@Param("id") Long id);
+
+    @Update("UPDATE goods SET search_document = NULL WHERE id = #{id}")
+    int clearSearchDocument(@Param("id") Long id);
+
+    @Update("UPDATE goods SET search_document = " + SEARCH_DOCUMENT
+            + " WHERE search_document IS NULL AND status = 'APPROVED' AND is_deleted = FALSE")
+    int backfillSearchDocuments();
 }
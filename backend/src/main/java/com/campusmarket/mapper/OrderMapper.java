@@ -2,8 +2,80 @@ package com.campusmarket.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.campusmarket.entity.Order;
+import com.campusmarket.entity.OrderStatus;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface OrderMapper extends BaseMapper<Order> {
+
+    /**
+     * One page of a user's orders as buyer or seller, ordered by (created_at, id) descending and strictly
+     * after the cursor when given. Served by {@code idx_orders_buyer_created_id} / {@code idx_orders_seller_created_id}.
+     */
+    @Select({
+            "<script>",
+            "SELECT id, goods_id, buyer_id, seller_id, status, goods_title, goods_cover_image_url,",
+            " buyer_nickname, seller_nickname, created_at, updated_at",
+            " FROM orders WHERE",
+            "<choose>",
+            "<when test='seller'> seller_id = #{userId}</when>",
+            "<otherwise> buyer_id = #{userId}</otherwise>",
+            "</choose>",
+            "<if test='cursorCreatedAt != null'> AND (created_at, id) &lt; (#{cursorCreatedAt}, #{cursorId})</if>",
+            " ORDER BY created_at DESC, id DESC",
+            " LIMIT #{limit}",
+            "</script>"
+    })
+    List<Order> selectPageForUser(@Param("userId") Long userId,
+                                  @Param("seller") boolean seller,
+                                  @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                  @Param("cursorId") Long cursorId,
+                                  @Param("limit") int limit);
+
+    /**
+     * Move an order to {@code target} only if it is still in {@code expected}; returns the rows updated.
+     */
+    @Update("UPDATE orders SET status = #{target}, updated_at = #{updatedAt} WHERE id = #{id} AND status = #{expected}")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("expected") OrderStatus expected,
+                              @Param("target") OrderStatus target,
+                              @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Cancel those of {@code ids} that are still unpaid, in one statement. Returns the canceled rows.
+     */
+    @Select({
+            "<script>",
+            "UPDATE orders SET status = 'CANCELED', updated_at = #{now}",
+            " WHERE status = 'PENDING_PAYMENT' AND id IN",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            " RETURNING id, goods_id, buyer_id, seller_id, status, goods_title, goods_cover_image_url,",
+            " buyer_nickname, seller_nickname, created_at, updated_at",
+            "</script>"
+    })
+    @Options(flushCache = Options.FlushCachePolicy.TRUE, useCache = false)
+    List<Order> cancelUnpaid(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Next batch of unpaid orders after {@code afterId} in id order; only id and created_at are read.
+     */
+    @Select("SELECT id, created_at FROM orders WHERE status = 'PENDING_PAYMENT' AND id > #{afterId}"
+            + " ORDER BY id LIMIT #{limit}")
+    List<Order> selectUnpaidAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Copy the current title and cover of a goods row onto its orders.
+     */
+    @Update("UPDATE orders o SET goods_title = g.title, goods_cover_image_url = g.cover_image_url"
+            + " FROM goods g WHERE g.id = #{goodsId} AND o.goods_id = g.id"
+            + " AND (o.goods_title IS DISTINCT FROM g.title OR o.goods_cover_image_url IS DISTINCT FROM g.cover_image_url)")
+    int refreshGoodsSnapshot(@Param("goodsId") Long goodsId);
 }
@@ -0,0 +1,49 @@
+package com.campusmarket.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.campusmarket.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface OutboxEventMapper extends BaseMapper<OutboxEvent> {
+
+    /**
+     * Take the relay lock for the rest of the current transaction; false if another instance holds it.
+     */
+    @Select("SELECT pg_try_advisory_xact_lock(#{lockId})")
+    boolean tryRelayLock(@Param("lockId") long lockId);
+
+    /**
+     * The oldest {@code limit} events in the order they were written.
+     */
+    @Select("SELECT id, topic, message_key, payload_type, payload, created_at, attempts FROM event_outbox"
+            + " ORDER BY id LIMIT #{limit}")
+    List<OutboxEvent> selectOldest(@Param("limit") int limit);
+
+    /**
+     * Count one more permanent send failure for each of the events.
+     */
+    @Update({
+            "<script>",
+            "UPDATE event_outbox SET attempts = attempts + 1 WHERE id IN ",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"
+    })
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copy an event that failed for the last time into {@code event_outbox_dead}; the caller deletes it.
+     */
+    @Insert("INSERT INTO event_outbox_dead"
+            + " (id, topic, message_key, payload_type, payload, created_at, attempts, last_error)"
+            + " SELECT id, topic, message_key, payload_type, payload, created_at, attempts + 1, #{lastError}"
+            + " FROM event_outbox WHERE id = #{id} ON CONFLICT (id) DO NOTHING")
+    int copyToDeadLetter(@Param("id") long id, @Param("lastError") String lastError);
+}
@@ -0,0 +1,159 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.messaging.EventSchemaRegistry.EventSchema;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Binary encoding of Kafka events: a zero magic byte, the 4-byte schema id from
+ * {@link EventSchemaRegistry}, then the event's field values as a Smile (Jackson's binary JSON) array in
+ * schema order. Field names and the type header are left out, and timestamps are written as numeric
+ * arrays rather than ISO strings.
+ * <p>
+ * JSON records start with {@code '{'}, so the first byte tells the two formats apart and a topic can
+ * switch format while both kinds of record are on it.
+ */
+public final class BinaryEventCodec {
+
+    static final byte MAGIC = 0;
+    static final int HEADER_LENGTH = 1 + Integer.BYTES;
+
+    private final EventSchemaRegistry registry;
+    private final ObjectMapper smileMapper;
+
+    public BinaryEventCodec(EventSchemaRegistry registry) {
+        this.registry = registry;
+        this.smileMapper = new ObjectMapper(SmileFactory.builder()
+                // The magic byte already identifies the format.
+                .disable(SmileGenerator.Feature.WRITE_HEADER)
+                .disable(SmileParser.Feature.REQUIRE_HEADER)
+                .build())
+                .registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Whether records for {@code topic} are written in binary: it is listed, or is the failed-record
+     * topic, a retry tier or the dead-letter topic of a listed topic.
+     */
+    public static boolean isBinaryTopic(Collection<String> binaryTopics, String topic) {
+        if (topic == null) {
+            return false;
+        }
+        for (String binary : binaryTopics) {
+            if (topic.equals(binary) || topic.startsWith(binary + RetryTopics.FAILED_SUFFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH && data[0] == MAGIC;
+    }
+
+    /**
+     * Whether {@code type} has a schema and can be written in binary.
+     */
+    public boolean supports(Class<?> type) {
+        return registry.forType(type) != null;
+    }
+
+    public byte[] encode(Object event) {
+        EventSchema schema = registry.forType(event.getClass());
+        if (schema == null) {
+            throw new SerializationException("No event schema for " + event.getClass().getName());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        out.write(MAGIC);
+        out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(schema.id()).array());
+        try (JsonGenerator generator = smileMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            int pendingNulls = 0;
+            for (PropertyDescriptor property : schema.properties()) {
+                Object value = property.getReadMethod().invoke(event);
+                if (value == null) {
+                    // Written only when a value follows; trailing nulls read back the same when left out.
+                    pendingNulls++;
+                    continue;
+                }
+                for (; pendingNulls > 0; pendingNulls--) {
+                    generator.writeNull();
+                }
+                generator.writeObject(value);
+            }
+            generator.writeEndArray();
+        } catch (IOException | ReflectiveOperationException ex) {
+            throw new SerializationException("Could not encode " + event.getClass().getSimpleName(), ex);
+        }
+        return out.toByteArray();
+    }
+
+    public Object decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary event record");
+        }
+        int schemaId = ByteBuffer.wrap(data, 1, Integer.BYTES).getInt();
+        EventSchema schema = registry.forId(schemaId);
+        if (schema == null) {
+            throw new SerializationException("Unknown event schema id " + schemaId);
+        }
+        List<PropertyDescriptor> properties = schema.properties();
+        try (JsonParser parser = smileMapper.getFactory().createParser(data, HEADER_LENGTH, data.length - HEADER_LENGTH)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new SerializationException("Malformed " + schema.type().getSimpleName() + " record");
+            }
+            Object event = BeanUtils.instantiateClass(schema.type());
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (index < properties.size() && parser.currentToken() != JsonToken.VALUE_NULL) {
+                    PropertyDescriptor property = properties.get(index);
+                    property.getWriteMethod().invoke(event, parser.readValueAs(property.getPropertyType()));
+                } else {
+                    // Values past the known fields come from a newer schema and are ignored.
+                    parser.skipChildren();
+                }
+                index++;
+            }
+            return event;
+        } catch (IOException | ReflectiveOperationException | BeanInstantiationException ex) {
+            throw new SerializationException("Could not decode " + schema.type().getSimpleName(), ex);
+        }
+    }
+
+    /**
+     * The binary topic list from a comma-separated string or a list, as Kafka client configs carry it.
+     */
+    public static Set<String> parseTopics(Object value) {
+        if (value == null) {
+            return Set.of();
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream()
+                    .map(topic -> String.valueOf(topic).trim())
+                    .filter(topic -> !topic.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+        return parseTopics(Arrays.asList(value.toString().split(",")));
+    }
+}
@@ -1,33 +1,67 @@
 package com.campusmarket.messaging;
 
 import com.campusmarket.service.impl.ChatEventProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Component
 public class ChatEventListener {
 
     private static final Logger log = LoggerFactory.getLogger(ChatEventListener.class);
 
     private final ChatEventProcessor chatEventProcessor;
+    private final DeadLetterPublishingRecoverer eventRetryRecoverer;
 
-    public ChatEventListener(ChatEventProcessor chatEventProcessor) {
+    public ChatEventListener(ChatEventProcessor chatEventProcessor,
+                             DeadLetterPublishingRecoverer eventRetryRecoverer) {
         this.chatEventProcessor = chatEventProcessor;
+        this.eventRetryRecoverer = eventRetryRecoverer;
     }
 
     @KafkaListener(
             topics = "${app.kafka.chat-topic:chat-events}",
-            groupId = "${spring.kafka.consumer.group-id}-chat"
+            groupId = "${spring.kafka.consumer.group-id}-chat",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handleChatEvents(List<ConsumerRecord<String, ChatEvent>> records) {
+        log.debug("Received {} chat events", records.size());
+        int undeserializable = RetryTopics.firstUndeserializable(records);
+        List<ConsumerRecord<String, ChatEvent>> batch =
+                undeserializable < 0 ? records : records.subList(0, undeserializable);
+        Map<Long, RuntimeException> failures = chatEventProcessor.handleBatch(
+                batch.stream().map(ConsumerRecord::value).collect(Collectors.toList()));
+        for (ConsumerRecord<String, ChatEvent> record : batch) {
+            RuntimeException failure = failures.get(record.value().getMessageId());
+            if (failure != null) {
+                eventRetryRecoverer.accept(record, failure);
+            }
+        }
+        if (undeserializable >= 0) {
+            throw new BatchListenerFailedException("Chat event could not be deserialized", undeserializable);
+        }
+    }
+
+    /**
+     * Chat events the batch above could not apply, one at a time; throws so the retry topics move the
+     * record on to its next tier.
+     */
+    @KafkaListener(
+            topics = "${app.kafka.chat-topic:chat-events}" + RetryTopics.FAILED_SUFFIX,
+            groupId = "${spring.kafka.consumer.group-id}-chat-retry"
     )
-    public void handleChatEvent(ChatEvent event) {
-        log.info("Received chat event: type={}, messageId={}, sender={}, receiver={}, preview={}",
-                event.getEventType(),
-                event.getMessageId(),
-                event.getSenderId(),
-                event.getReceiverId(),
-                event.getContentPreview());
-        chatEventProcessor.handle(event);
+    public void retry(ChatEvent event) {
+        RuntimeException failure = chatEventProcessor.handleBatch(List.of(event)).get(event.getMessageId());
+        if (failure != null) {
+            throw failure;
+        }
     }
 }
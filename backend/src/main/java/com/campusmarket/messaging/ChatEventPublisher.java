@@ -1,24 +1,22 @@
 package com.campusmarket.messaging;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 
+/**
+ * Records chat events in the {@link EventOutbox}; callers must be inside the transaction that stores the message.
+ */
 @Component
 public class ChatEventPublisher {
 
-    private static final Logger log = LoggerFactory.getLogger(ChatEventPublisher.class);
-
-    private final KafkaTemplate<String, ChatEvent> kafkaTemplate;
+    private final EventOutbox outbox;
     private final String chatTopic;
 
-    public ChatEventPublisher(KafkaTemplate<String, ChatEvent> kafkaTemplate,
+    public ChatEventPublisher(EventOutbox outbox,
                               @Value("${app.kafka.chat-topic:chat-events}") String chatTopic) {
-        this.kafkaTemplate = kafkaTemplate;
+        this.outbox = outbox;
         this.chatTopic = chatTopic;
     }
 
@@ -36,16 +34,6 @@ public class ChatEventPublisher {
                 contentPreview,
                 LocalDateTime.now()
         );
-        String key = messageId == null ? null : messageId.toString();
-        kafkaTemplate.send(chatTopic, key, event)
-                .addCallback(result -> {
-                            if (log.isDebugEnabled() && result != null) {
-                                log.debug("Published chat event: messageId={}, partition={}, offset={}",
-                                        event.getMessageId(),
-                                        result.getRecordMetadata().partition(),
-                                        result.getRecordMetadata().offset());
-                            }
-                        },
-                        throwable -> log.warn("Failed to publish chat event: {}", event, throwable));
+        outbox.append(chatTopic, messageId, event);
     }
 }
@@ -0,0 +1,46 @@
+package com.campusmarket.messaging;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer that reads both event formats: {@link BinaryEventCodec} records, whose type
+ * comes from the schema id in the payload, and JSON records, whose type comes from the
+ * {@code __TypeId__} header. JSON reading takes the usual {@code spring.json.*} settings.
+ */
+public class DualFormatEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private final BinaryEventCodec codec;
+
+    public DualFormatEventDeserializer() {
+        this(new BinaryEventCodec(EventSchemaRegistry.shared()));
+    }
+
+    DualFormatEventDeserializer(BinaryEventCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return BinaryEventCodec.isBinary(data) ? codec.decode(data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return BinaryEventCodec.isBinary(data) ? codec.decode(data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
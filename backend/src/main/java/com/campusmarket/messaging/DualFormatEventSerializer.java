@@ -0,0 +1,55 @@
+package com.campusmarket.messaging;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kafka value serializer that writes events in the {@link BinaryEventCodec} format on the topics listed
+ * in {@value #BINARY_TOPICS_CONFIG}, and as JSON with type headers everywhere else. Consumers read both
+ * through {@link DualFormatEventDeserializer}, so a topic is migrated by listing it once every consumer
+ * runs the dual reader, and rolled back by removing it.
+ */
+public class DualFormatEventSerializer implements Serializer<Object> {
+
+    public static final String BINARY_TOPICS_CONFIG = "campusmarket.kafka.binary-topics";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final BinaryEventCodec codec;
+    private Set<String> binaryTopics = Set.of();
+
+    public DualFormatEventSerializer() {
+        this(new BinaryEventCodec(EventSchemaRegistry.shared()));
+    }
+
+    DualFormatEventSerializer(BinaryEventCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        binaryTopics = BinaryEventCodec.parseTopics(configs.get(BINARY_TOPICS_CONFIG));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data != null && BinaryEventCodec.isBinaryTopic(binaryTopics, topic) && codec.supports(data.getClass())) {
+            return codec.encode(data);
+        }
+        return headers == null ? jsonSerializer.serialize(topic, data) : jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.entity.OutboxEvent;
+import com.campusmarket.mapper.OutboxEventMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes domain events to the {@code event_outbox} table inside the caller's transaction, so an event
+ * exists exactly when the change it describes commits. {@link OutboxRelay} sends them to Kafka.
+ */
+@Component
+public class EventOutbox {
+
+    /**
+     * Same mapper configuration as spring-kafka's {@code JsonSerializer}, so relayed payloads are
+     * byte-for-byte what the publishers used to send.
+     */
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+    private final OutboxEventMapper outboxEventMapper;
+
+    public EventOutbox(OutboxEventMapper outboxEventMapper) {
+        this.outboxEventMapper = outboxEventMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String topic, Long key, Object event) {
+        OutboxEvent row = new OutboxEvent();
+        row.setTopic(topic);
+        row.setMessageKey(key == null ? null : key.toString());
+        row.setPayloadType(event.getClass().getName());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize event " + event, ex);
+        }
+        row.setCreatedAt(LocalDateTime.now());
+        outboxEventMapper.insert(row);
+    }
+}
@@ -0,0 +1,177 @@
+package com.campusmarket.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Local schema registry built from the event JSON Schemas in {@code classpath:schemas/}.
+ * <p>
+ * Each schema's {@code title} names its event class in this package and yields a stable 32-bit schema
+ * id (CRC32 of the title). Binary records carry that id instead of a {@code __TypeId__} header, and
+ * carry field values by position in the order of the schema's {@code properties}, without names. That
+ * order is therefore part of the wire format: new fields are appended at the end, where readers on the
+ * older schema ignore them and readers on the newer one see them as null in older records, and fields
+ * are never removed or reordered. At load time the schema and its class must declare the same
+ * properties, so neither can change without the other.
+ */
+public final class EventSchemaRegistry {
+
+    static final String SCHEMA_LOCATION = "classpath*:schemas/*.json";
+
+    private static volatile EventSchemaRegistry shared;
+
+    private final Map<Integer, EventSchema> schemasById;
+    private final Map<Class<?>, EventSchema> schemasByClass;
+
+    EventSchemaRegistry(Collection<EventSchema> schemas) {
+        Map<Integer, EventSchema> byId = new HashMap<>();
+        Map<Class<?>, EventSchema> byClass = new HashMap<>();
+        for (EventSchema schema : schemas) {
+            EventSchema previous = byId.put(schema.id(), schema);
+            if (previous != null) {
+                throw new IllegalStateException("Schema id collision between " + previous.type().getName()
+                        + " and " + schema.type().getName());
+            }
+            byClass.put(schema.type(), schema);
+        }
+        this.schemasById = Collections.unmodifiableMap(byId);
+        this.schemasByClass = Collections.unmodifiableMap(byClass);
+    }
+
+    /**
+     * The registry of the schemas on the classpath, loaded once. Kafka instantiates serializers itself,
+     * so they share this instance rather than receiving a bean.
+     */
+    public static EventSchemaRegistry shared() {
+        EventSchemaRegistry registry = shared;
+        if (registry == null) {
+            synchronized (EventSchemaRegistry.class) {
+                registry = shared;
+                if (registry == null) {
+                    registry = load(SCHEMA_LOCATION);
+                    shared = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    static EventSchemaRegistry load(String locationPattern) {
+        ObjectMapper mapper = new ObjectMapper();
+        List<EventSchema> schemas = new ArrayList<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locationPattern)) {
+                JsonNode schema;
+                try (InputStream in = resource.getInputStream()) {
+                    schema = mapper.readTree(in);
+                }
+                String title = schema.path("title").asText(null);
+                if (title == null) {
+                    throw new IllegalStateException("Event schema " + resource.getFilename() + " has no title");
+                }
+                List<String> fields = new ArrayList<>();
+                schema.path("properties").fieldNames().forEachRemaining(fields::add);
+                Class<?> type = eventClass(title);
+                schemas.add(new EventSchema(schemaId(title), type, properties(resource.getFilename(), fields, type)));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load event schemas from " + locationPattern, ex);
+        }
+        return new EventSchemaRegistry(schemas);
+    }
+
+    public EventSchema forType(Class<?> type) {
+        return schemasByClass.get(type);
+    }
+
+    public EventSchema forId(int schemaId) {
+        return schemasById.get(schemaId);
+    }
+
+    public Collection<Class<?>> types() {
+        return schemasByClass.keySet();
+    }
+
+    static int schemaId(String title) {
+        CRC32 crc = new CRC32();
+        crc.update(title.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private static Class<?> eventClass(String title) {
+        String name = EventSchemaRegistry.class.getPackageName() + "." + title;
+        try {
+            return ClassUtils.forName(name, EventSchemaRegistry.class.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("No event class " + name + " for schema " + title, ex);
+        }
+    }
+
+    /**
+     * The class's properties in schema order; the schema and the class must declare the same ones.
+     */
+    private static List<PropertyDescriptor> properties(String file, List<String> fields, Class<?> type) {
+        Set<String> declared = new LinkedHashSet<>();
+        for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(type)) {
+            if (property.getReadMethod() != null && property.getWriteMethod() != null) {
+                declared.add(property.getName());
+            }
+        }
+        if (!declared.equals(new LinkedHashSet<>(fields))) {
+            throw new IllegalStateException("Schema " + file + " declares " + fields + " but "
+                    + type.getSimpleName() + " has " + declared);
+        }
+        List<PropertyDescriptor> properties = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            properties.add(BeanUtils.getPropertyDescriptor(type, field));
+        }
+        return properties;
+    }
+
+    /**
+     * One event schema: its id, event class and the class's properties in wire order.
+     */
+    public static final class EventSchema {
+
+        private final int id;
+        private final Class<?> type;
+        private final List<PropertyDescriptor> properties;
+
+        EventSchema(int id, Class<?> type, List<PropertyDescriptor> properties) {
+            this.id = id;
+            this.type = type;
+            this.properties = List.copyOf(properties);
+        }
+
+        public int id() {
+            return id;
+        }
+
+        public Class<?> type() {
+            return type;
+        }
+
+        public List<PropertyDescriptor> properties() {
+            return properties;
+        }
+    }
+}
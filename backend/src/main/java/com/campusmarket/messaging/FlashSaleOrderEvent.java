@@ -0,0 +1,67 @@
+package com.campusmarket.messaging;
+
+import java.time.LocalDateTime;
+
+public class FlashSaleOrderEvent {
+
+    private FlashSaleOrderEventType eventType;
+    private Long orderId;
+    private Long flashSaleItemId;
+    private Long userId;
+    private LocalDateTime eventTime;
+
+    public FlashSaleOrderEvent() {
+    }
+
+    public FlashSaleOrderEvent(FlashSaleOrderEventType eventType,
+                               Long orderId,
+                               Long flashSaleItemId,
+                               Long userId,
+                               LocalDateTime eventTime) {
+        this.eventType = eventType;
+        this.orderId = orderId;
+        this.flashSaleItemId = flashSaleItemId;
+        this.userId = userId;
+        this.eventTime = eventTime;
+    }
+
+    public FlashSaleOrderEventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(FlashSaleOrderEventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getFlashSaleItemId() {
+        return flashSaleItemId;
+    }
+
+    public void setFlashSaleItemId(Long flashSaleItemId) {
+        this.flashSaleItemId = flashSaleItemId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getEventTime() {
+        return eventTime;
+    }
+
+    public void setEventTime(LocalDateTime eventTime) {
+        this.eventTime = eventTime;
+    }
+}
@@ -0,0 +1,55 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.service.impl.FlashSaleOrderEventProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class FlashSaleOrderEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleOrderEventListener.class);
+
+    private final FlashSaleOrderEventProcessor flashSaleOrderEventProcessor;
+
+    public FlashSaleOrderEventListener(FlashSaleOrderEventProcessor flashSaleOrderEventProcessor) {
+        this.flashSaleOrderEventProcessor = flashSaleOrderEventProcessor;
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.flash-sale-order-topic:flash-sale-order-events}",
+            groupId = "${spring.kafka.consumer.group-id}-flash-sale",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handleFlashSaleOrderEvents(List<ConsumerRecord<String, FlashSaleOrderEvent>> records) {
+        log.debug("Received {} flash sale order events", records.size());
+        int undeserializable = RetryTopics.firstUndeserializable(records);
+        List<ConsumerRecord<String, FlashSaleOrderEvent>> batch =
+                undeserializable < 0 ? records : records.subList(0, undeserializable);
+        // A failed insert fails the whole batch; the error handler parks each record on the failed-record
+        // topic, where the idempotent insert makes the already-confirmed ones no-ops.
+        flashSaleOrderEventProcessor.handleBatch(
+                batch.stream().map(ConsumerRecord::value).collect(Collectors.toList()));
+        if (undeserializable >= 0) {
+            throw new BatchListenerFailedException("Flash sale order event could not be deserialized",
+                    undeserializable);
+        }
+    }
+
+    /**
+     * Flash sale order events of a failed batch, one at a time.
+     */
+    @KafkaListener(
+            topics = "${app.kafka.flash-sale-order-topic:flash-sale-order-events}" + RetryTopics.FAILED_SUFFIX,
+            groupId = "${spring.kafka.consumer.group-id}-flash-sale-retry"
+    )
+    public void retry(FlashSaleOrderEvent event) {
+        flashSaleOrderEventProcessor.handleBatch(List.of(event));
+    }
+}
@@ -0,0 +1,56 @@
+package com.campusmarket.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.time.LocalDateTime;
+
+@Component
+public class FlashSaleOrderEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleOrderEventPublisher.class);
+
+    private final KafkaTemplate<String, FlashSaleOrderEvent> kafkaTemplate;
+    private final String flashSaleOrderTopic;
+
+    public FlashSaleOrderEventPublisher(KafkaTemplate<String, FlashSaleOrderEvent> kafkaTemplate,
+                                        @Value("${app.kafka.flash-sale-order-topic:flash-sale-order-events}")
+                                        String flashSaleOrderTopic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.flashSaleOrderTopic = flashSaleOrderTopic;
+    }
+
+    /**
+     * Publish a reservation that still has to be materialised into {@code flash_sale_order}.
+     * Callers attach their own failure callback to the returned future to give the stock back.
+     */
+    public ListenableFuture<SendResult<String, FlashSaleOrderEvent>> publishOrderReserved(Long orderId,
+                                                                                        Long flashSaleItemId,
+                                                                                        Long userId) {
+        FlashSaleOrderEvent event = new FlashSaleOrderEvent(
+                FlashSaleOrderEventType.FLASH_SALE_ORDER_RESERVED,
+                orderId,
+                flashSaleItemId,
+                userId,
+                LocalDateTime.now()
+        );
+        String key = orderId == null ? null : orderId.toString();
+        ListenableFuture<SendResult<String, FlashSaleOrderEvent>> future =
+                kafkaTemplate.send(flashSaleOrderTopic, key, event);
+        future.addCallback(result -> {
+                    if (log.isDebugEnabled() && result != null) {
+                        log.debug("Published flash sale order event: orderId={}, partition={}, offset={}",
+                                event.getOrderId(),
+                                result.getRecordMetadata().partition(),
+                                result.getRecordMetadata().offset());
+                    }
+                },
+                throwable -> log.warn("Failed to publish flash sale order event: orderId={}", orderId, throwable));
+        return future;
+    }
+}
@@ -0,0 +1,5 @@
+package com.campusmarket.messaging;
+
+public enum FlashSaleOrderEventType {
+    FLASH_SALE_ORDER_RESERVED
+}
@@ -10,7 +10,13 @@ public class GoodsEvent {
     private Long actorId;
     private String currentStatus;
     private Integer quantity;
+    private String category;
     private String note;
+    /**
+     * Views collapsed into a {@code GOODS_VIEWED} event; absent on events from older producers, which
+     * carried one view each.
+     */
+    private Long viewCount;
     private LocalDateTime eventTime;
 
     public GoodsEvent() {
@@ -82,6 +88,14 @@ public class GoodsEvent {
         this.quantity = quantity;
     }
 
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
     public String getNote() {
         return note;
     }
@@ -90,6 +104,14 @@ public class GoodsEvent {
         this.note = note;
     }
 
+    public Long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Long viewCount) {
+        this.viewCount = viewCount;
+    }
+
     public LocalDateTime getEventTime() {
         return eventTime;
     }
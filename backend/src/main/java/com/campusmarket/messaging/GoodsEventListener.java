@@ -1,33 +1,86 @@
 package com.campusmarket.messaging;
 
 import com.campusmarket.service.impl.GoodsEventProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Component
 public class GoodsEventListener {
 
     private static final Logger log = LoggerFactory.getLogger(GoodsEventListener.class);
 
     private final GoodsEventProcessor goodsEventProcessor;
+    private final DeadLetterPublishingRecoverer eventRetryRecoverer;
 
-    public GoodsEventListener(GoodsEventProcessor goodsEventProcessor) {
+    public GoodsEventListener(GoodsEventProcessor goodsEventProcessor,
+                              DeadLetterPublishingRecoverer eventRetryRecoverer) {
         this.goodsEventProcessor = goodsEventProcessor;
+        this.eventRetryRecoverer = eventRetryRecoverer;
     }
 
     @KafkaListener(
             topics = "${app.kafka.goods-topic:goods-events}",
-            groupId = "${spring.kafka.consumer.group-id}-goods"
+            groupId = "${spring.kafka.consumer.group-id}-goods",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handleGoodsEvents(List<ConsumerRecord<String, GoodsEvent>> records) {
+        log.debug("Received {} goods events", records.size());
+        int undeserializable = RetryTopics.firstUndeserializable(records);
+        List<ConsumerRecord<String, GoodsEvent>> batch =
+                undeserializable < 0 ? records : records.subList(0, undeserializable);
+        Map<Long, RuntimeException> failures = goodsEventProcessor.handleBatch(
+                batch.stream().map(ConsumerRecord::value).collect(Collectors.toList()));
+        for (ConsumerRecord<String, GoodsEvent> record : batch) {
+            RuntimeException failure = failures.get(record.value().getGoodsId());
+            if (failure != null && record.value().getEventType() != GoodsEventType.GOODS_VIEWED) {
+                eventRetryRecoverer.accept(record, failure);
+            }
+        }
+        if (undeserializable >= 0) {
+            // Dead-letters that record; the ones after it are redelivered.
+            throw new BatchListenerFailedException("Goods event could not be deserialized", undeserializable);
+        }
+    }
+
+    /**
+     * Goods events the batch above could not apply, one at a time; throws so the retry topics move the
+     * record on to its next tier.
+     */
+    @KafkaListener(
+            topics = "${app.kafka.goods-topic:goods-events}" + RetryTopics.FAILED_SUFFIX,
+            groupId = "${spring.kafka.consumer.group-id}-goods-retry"
+    )
+    public void retry(GoodsEvent event) {
+        RuntimeException failure = goodsEventProcessor.handleBatch(List.of(event)).get(event.getGoodsId());
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Broadcast subscription: every instance reads every partition so it can drop its own near-cache
+     * entries. The group id only names the instance in logs and metrics; see
+     * {@code broadcastKafkaListenerContainerFactory} for why nothing is committed under it.
+     */
+    @KafkaListener(
+            groupId = "${spring.kafka.consumer.group-id}-goods-near-cache-${app.instance-id}",
+            topicPartitions = @TopicPartition(
+                    topic = "${app.kafka.goods-topic:goods-events}",
+                    partitions = "#{'0-' + (${app.kafka.partitions:3} - 1)}"),
+            properties = "auto.offset.reset=latest",
+            containerFactory = "broadcastKafkaListenerContainerFactory"
     )
-    public void handleGoodsEvent(GoodsEvent event) {
-        log.info("Received goods event: type={}, goodsId={}, sellerId={}, actor={}, note={}",
-                event.getEventType(),
-                event.getGoodsId(),
-                event.getSellerId(),
-                event.getActorId(),
-                event.getNote());
-        goodsEventProcessor.handle(event);
+    public void invalidateNearCache(List<GoodsEvent> events) {
+        goodsEventProcessor.invalidateNearCache(events);
     }
 }
@@ -10,17 +10,24 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
+/**
+ * Goods lifecycle events go through the {@link EventOutbox} and need the caller's transaction. Views are
+ * not tied to a database change and are sent to Kafka directly.
+ */
 @Component
 public class GoodsEventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(GoodsEventPublisher.class);
 
     private final KafkaTemplate<String, GoodsEvent> kafkaTemplate;
+    private final EventOutbox outbox;
     private final String goodsTopic;
 
     public GoodsEventPublisher(KafkaTemplate<String, GoodsEvent> kafkaTemplate,
+                               EventOutbox outbox,
                                @Value("${app.kafka.goods-topic:goods-events}") String goodsTopic) {
         this.kafkaTemplate = kafkaTemplate;
+        this.outbox = outbox;
         this.goodsTopic = goodsTopic;
     }
 
@@ -44,17 +51,21 @@ public class GoodsEventPublisher {
         sendEvent(goods, actorId, GoodsEventType.GOODS_MARKED_SOLD, "Goods marked sold=" + goods.getSold());
     }
 
-    public void publishGoodsViewed(Long goodsId, Long sellerId, Long viewerId) {
+    /**
+     * One event for all views of a goods in a {@link GoodsViewAggregator} window.
+     */
+    public void publishGoodsViewed(Long goodsId, Long sellerId, long viewCount) {
         GoodsEvent event = new GoodsEvent(
                 GoodsEventType.GOODS_VIEWED,
                 goodsId,
                 sellerId,
-                viewerId,
+                null,
                 null,
                 null,
                 "Goods viewed",
                 LocalDateTime.now()
         );
+        event.setViewCount(viewCount);
         send(goodsId, event);
     }
 
@@ -72,7 +83,8 @@ public class GoodsEventPublisher {
                 Optional.ofNullable(note).orElse(type.name()),
                 LocalDateTime.now()
         );
-        send(goods.getId(), event);
+        event.setCategory(goods.getCategory());
+        outbox.append(goodsTopic, goods.getId(), event);
     }
 
     private void send(Long key, GoodsEvent event) {
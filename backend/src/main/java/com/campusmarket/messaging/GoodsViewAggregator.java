@@ -0,0 +1,90 @@
+package com.campusmarket.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses page views into one {@code GOODS_VIEWED} event per goods per tumbling window.
+ * <p>
+ * Views are the bulk of {@code goods-events} traffic and consumers only ever sum them, so each window
+ * publishes the per-goods count instead of one record per view: a goods viewed 500 times in a window
+ * costs one record. Counts are held in memory for at most {@code window-ms}; views still pending when
+ * the process is killed outright are lost, which is acceptable for a popularity signal.
+ */
+@Component
+public class GoodsViewAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(GoodsViewAggregator.class);
+
+    private final GoodsEventPublisher goodsEventPublisher;
+    private final ConcurrentHashMap<Long, PendingViews> pending = new ConcurrentHashMap<>();
+    private final Counter recorded;
+    private final Counter published;
+
+    public GoodsViewAggregator(GoodsEventPublisher goodsEventPublisher, MeterRegistry meterRegistry) {
+        this.goodsEventPublisher = goodsEventPublisher;
+        this.recorded = stageCounter(meterRegistry, "recorded");
+        this.published = stageCounter(meterRegistry, "published");
+    }
+
+    public void recordView(Long goodsId, Long sellerId) {
+        if (goodsId == null) {
+            return;
+        }
+        pending.compute(goodsId, (id, views) -> {
+            PendingViews updated = views == null ? new PendingViews(sellerId) : views;
+            updated.count++;
+            return updated;
+        });
+        recorded.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.goods-views.window-ms:5000}")
+    public synchronized void flush() {
+        int events = 0;
+        for (Long goodsId : pending.keySet()) {
+            // Counts only change inside compute(), so the removed entry is final; a view recorded after
+            // this starts the goods' entry for the next window.
+            PendingViews views = pending.remove(goodsId);
+            if (views == null) {
+                continue;
+            }
+            try {
+                goodsEventPublisher.publishGoodsViewed(goodsId, views.sellerId, views.count);
+                events++;
+            } catch (RuntimeException ex) {
+                log.warn("Failed to publish {} views of goods {}", views.count, goodsId, ex);
+            }
+        }
+        published.increment(events);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static Counter stageCounter(MeterRegistry registry, String stage) {
+        return Counter.builder("goods.views.aggregated")
+                .description("Goods page views recorded, and GOODS_VIEWED events published for them per window")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private static final class PendingViews {
+
+        private final Long sellerId;
+        private long count;
+
+        private PendingViews(Long sellerId) {
+            this.sellerId = sellerId;
+        }
+    }
+}
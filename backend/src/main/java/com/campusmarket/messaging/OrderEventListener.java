@@ -15,4 +15,16 @@ public class OrderEventListener {
         log.info("Received order event: type={}, orderId={}, status={}, note={}",
                 event.getEventType(), event.getOrderId(), event.getCurrentStatus(), event.getNote());
     }
+
+    /**
+     * Order events that failed on the main topic; throws so the retry topics move the record on to its
+     * next tier.
+     */
+    @KafkaListener(
+            topics = "${app.kafka.order-topic:order-events}" + RetryTopics.FAILED_SUFFIX,
+            groupId = "${spring.kafka.consumer.group-id}-retry"
+    )
+    public void retry(OrderEvent event) {
+        handleOrderEvent(event);
+    }
 }
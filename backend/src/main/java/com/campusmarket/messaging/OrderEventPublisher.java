@@ -3,27 +3,25 @@ package com.campusmarket.messaging;
 import com.campusmarket.entity.Order;
 import com.campusmarket.entity.OrderStatus;
 import com.campusmarket.service.DistributedIdGenerator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 
+/**
+ * Records order events in the {@link EventOutbox}; callers must be inside the transaction that changes the order.
+ */
 @Component
 public class OrderEventPublisher {
 
-    private static final Logger log = LoggerFactory.getLogger(OrderEventPublisher.class);
-
-    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final EventOutbox outbox;
     private final String orderTopic;
     private final DistributedIdGenerator idGenerator;
 
-    public OrderEventPublisher(KafkaTemplate<String, OrderEvent> kafkaTemplate,
+    public OrderEventPublisher(EventOutbox outbox,
                                @Value("${app.kafka.order-topic:order-events}") String orderTopic,
                                DistributedIdGenerator idGenerator) {
-        this.kafkaTemplate = kafkaTemplate;
+        this.outbox = outbox;
         this.orderTopic = orderTopic;
         this.idGenerator = idGenerator;
     }
@@ -42,7 +40,7 @@ public class OrderEventPublisher {
                 null,
                 LocalDateTime.now()
         );
-        sendEvent(order.getId(), event);
+        outbox.append(orderTopic, order.getId(), event);
     }
 
     public void publishOrderStatusChanged(Order order, OrderStatus previousStatus) {
@@ -59,16 +57,7 @@ public class OrderEventPublisher {
                 statusAsString(previousStatus),
                 LocalDateTime.now()
         );
-        sendEvent(order.getId(), event);
-    }
-
-    private void sendEvent(Long key, OrderEvent event) {
-        try {
-            kafkaTemplate.send(orderTopic, key == null ? null : key.toString(), event);
-            log.debug("Published order event: {}", event);
-        } catch (Exception ex) {
-            log.warn("Failed to publish order event {}", event, ex);
-        }
+        outbox.append(orderTopic, order.getId(), event);
     }
 
     private String statusAsString(OrderStatus status) {
@@ -0,0 +1,331 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.entity.OutboxEvent;
+import com.campusmarket.mapper.OutboxEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code event_outbox} into Kafka.
+ * <p>
+ * Each pass runs in one transaction holding a Postgres advisory lock, so a single instance relays at a
+ * time and events leave in the order they were written. Events of one aggregate share a key and hence a
+ * partition, and the idempotent producer keeps them in send order. A batch is sent asynchronously,
+ * awaited, and the acknowledged rows are deleted; failed rows stay and are retried on the next pass, so
+ * delivery is at least once. Once a row fails, later rows with the same key are kept too, even if Kafka
+ * acknowledged them, so the aggregate's events are re-sent behind it in order.
+ * <p>
+ * A row rejected for good (too large, not serializable, not authorized) counts an attempt; after
+ * {@code app.outbox.max-attempts} it is moved to {@code event_outbox_dead} so it stops blocking its key.
+ * Retriable errors such as timeouts are not counted, so a broker outage never dead-letters anything.
+ * <p>
+ * Payloads are stored as JSON. Events for topics listed in {@code app.kafka.binary-topics} are re-encoded
+ * with {@link BinaryEventCodec} on the way out, so the outbox table does not depend on the wire format.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final long RELAY_LOCK_ID = 0x6f7574626f78L;
+    /**
+     * Full batches drained back to back before yielding to the next scheduled pass.
+     */
+    private static final int MAX_BATCHES_PER_PASS = 20;
+    private static final long MIN_SEND_TIMEOUT_MILLIS = 1_000;
+    private static final int LINGER_MILLIS = 5;
+
+    private final OutboxEventMapper outboxEventMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long sendTimeoutMillis;
+    private final Set<String> binaryTopics;
+    private final BinaryEventCodec codec;
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    private final Timer lag;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+
+    @Autowired
+    public OutboxRelay(OutboxEventMapper outboxEventMapper,
+                       TransactionTemplate transactionTemplate,
+                       KafkaProperties kafkaProperties,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.enabled:true}") boolean enabled,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.send-timeout-ms:10000}") long sendTimeoutMillis,
+                       @Value("${app.outbox.max-attempts:5}") int maxAttempts,
+                       @Value("${app.kafka.binary-topics:}") Set<String> binaryTopics) {
+        this(outboxEventMapper, transactionTemplate,
+                new KafkaTemplate<>(producerFactory(kafkaProperties, sendTimeoutMillis)),
+                meterRegistry, enabled, batchSize, sendTimeoutMillis, maxAttempts, binaryTopics,
+                new BinaryEventCodec(EventSchemaRegistry.shared()));
+    }
+
+    OutboxRelay(OutboxEventMapper outboxEventMapper,
+                TransactionTemplate transactionTemplate,
+                KafkaTemplate<String, byte[]> kafkaTemplate,
+                MeterRegistry meterRegistry,
+                boolean enabled,
+                int batchSize,
+                long sendTimeoutMillis,
+                int maxAttempts,
+                Set<String> binaryTopics,
+                BinaryEventCodec codec) {
+        this.outboxEventMapper = outboxEventMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.sendTimeoutMillis = Math.max(MIN_SEND_TIMEOUT_MILLIS, sendTimeoutMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.binaryTopics = BinaryEventCodec.parseTopics(binaryTopics);
+        this.codec = codec;
+
+        this.lag = Timer.builder("outbox.relay.lag")
+                .description("Time from an event being written to the outbox to Kafka acknowledging it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.published = outcomeCounter(meterRegistry, "published");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.deadLettered = outcomeCounter(meterRegistry, "dead_lettered");
+        Gauge.builder("outbox.relay.oldest_pending", oldestPendingMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest event seen in the outbox on the last relay pass")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_PASS; i++) {
+                Boolean full = transactionTemplate.execute(status -> relayBatch());
+                if (!Boolean.TRUE.equals(full)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Outbox relay pass failed", ex);
+        }
+    }
+
+    /**
+     * Send one batch and delete what Kafka acknowledged.
+     *
+     * @return whether a full batch went out cleanly, meaning more may be waiting
+     */
+    boolean relayBatch() {
+        if (!outboxEventMapper.tryRelayLock(RELAY_LOCK_ID)) {
+            return false;
+        }
+        List<OutboxEvent> events = outboxEventMapper.selectOldest(batchSize);
+        if (events.isEmpty()) {
+            oldestPendingMillis.set(0);
+            return false;
+        }
+        oldestPendingMillis.set(ageMillis(events.get(0)));
+
+        // send() itself blocks while metadata is unavailable, so stop handing records over once the
+        // deadline has passed; the rest stay in the outbox, in order, for the next pass
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        List<ListenableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            if (!sends.isEmpty() && System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            sends.add(kafkaTemplate.send(toRecord(event)));
+        }
+        List<Long> acknowledged = new ArrayList<>(sends.size());
+        List<Long> rejected = new ArrayList<>();
+        List<Long> dead = new ArrayList<>();
+        Set<String> blockedKeys = new HashSet<>();
+        for (int i = 0; i < sends.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (event.getMessageKey() != null && blockedKeys.contains(event.getMessageKey())) {
+                    // On the topic ahead of an earlier event of its aggregate; sent again after that one.
+                    continue;
+                }
+                acknowledged.add(event.getId());
+                lag.record(ageMillis(event), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException ex) {
+                failed.increment();
+                if (!isRetriable(ex)) {
+                    int attempts = event.getAttempts() == null ? 1 : event.getAttempts() + 1;
+                    if (attempts >= maxAttempts) {
+                        log.error("Dead-lettering outbox event {} to {} after {} failed attempts",
+                                event.getId(), event.getTopic(), attempts, ex);
+                        outboxEventMapper.copyToDeadLetter(event.getId(), String.valueOf(rootCause(ex)));
+                        dead.add(event.getId());
+                        continue;
+                    }
+                    rejected.add(event.getId());
+                }
+                if (event.getMessageKey() != null) {
+                    blockedKeys.add(event.getMessageKey());
+                }
+                log.warn("Failed to relay outbox event {} to {}", event.getId(), event.getTopic(), ex);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            outboxEventMapper.incrementAttempts(rejected);
+        }
+        if (!dead.isEmpty()) {
+            outboxEventMapper.deleteBatchIds(dead);
+            deadLettered.increment(dead.size());
+        }
+        if (!acknowledged.isEmpty()) {
+            outboxEventMapper.deleteBatchIds(acknowledged);
+            published.increment(acknowledged.size());
+        }
+        return acknowledged.size() == batchSize;
+    }
+
+    /**
+     * Whether a failed send may succeed when repeated: timeouts and Kafka's retriable errors. Anything else
+     * was rejected for what the record is and counts toward {@code app.outbox.max-attempts}.
+     */
+    private static boolean isRetriable(Exception failure) {
+        if (failure instanceof TimeoutException) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (kafkaTemplate.getProducerFactory() instanceof DefaultKafkaProducerFactory) {
+            ((DefaultKafkaProducerFactory<?, ?>) kafkaTemplate.getProducerFactory()).destroy();
+        }
+    }
+
+    private ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        if (BinaryEventCodec.isBinaryTopic(binaryTopics, event.getTopic())) {
+            Object decoded = readPayload(event);
+            if (decoded != null && codec.supports(decoded.getClass())) {
+                return new ProducerRecord<>(event.getTopic(), event.getMessageKey(), codec.encode(decoded));
+            }
+        }
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getMessageKey(),
+                event.getPayload().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(new RecordHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                event.getPayloadType().getBytes(StandardCharsets.UTF_8)));
+        return record;
+    }
+
+    /**
+     * The stored payload as its event class, or null to send it as JSON when the class is unknown.
+     */
+    private Object readPayload(OutboxEvent event) {
+        try {
+            Class<?> type = ClassUtils.forName(event.getPayloadType(), getClass().getClassLoader());
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (ClassNotFoundException | IOException ex) {
+            log.warn("Sending outbox event {} as JSON, its payload could not be read as {}",
+                    event.getId(), event.getPayloadType(), ex);
+            return null;
+        }
+    }
+
+    private static long ageMillis(OutboxEvent event) {
+        if (event.getCreatedAt() == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis());
+    }
+
+    /**
+     * The relay's own producer: payloads are already JSON, so values go out as bytes. It is not exposed
+     * as a bean, which would replace Boot's auto-configured template used by the other publishers.
+     * <p>
+     * Blocking in {@code send()} and the delivery timeout are bounded by the relay's send timeout, so a
+     * broker outage fails a pass within that time instead of the client defaults of one and two minutes.
+     */
+    static DefaultKafkaProducerFactory<String, byte[]> producerFactory(KafkaProperties kafkaProperties,
+                                                                       long sendTimeoutMillis) {
+        Map<String, Object> props = kafkaProperties.buildProducerProperties();
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, LINGER_MILLIS);
+        int timeout = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_SEND_TIMEOUT_MILLIS, sendTimeoutMillis));
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, timeout / 2L);
+        // delivery.timeout.ms must cover linger.ms plus request.timeout.ms
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, timeout);
+        props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, timeout - LINGER_MILLIS);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("outbox.relay.events")
+                .description("Outbox events relayed to Kafka; failed ones stay in the outbox and are retried")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
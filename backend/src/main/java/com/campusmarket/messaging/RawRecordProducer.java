@@ -0,0 +1,43 @@
+package com.campusmarket.messaging;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+
+/**
+ * Producer for records whose value is already serialized: payloads that failed to deserialize on their
+ * way to a dead-letter topic, and dead letters being replayed. It uses the application's producer
+ * settings with a byte[] value serializer and is not exposed as a {@code KafkaTemplate} bean, which
+ * would replace Boot's auto-configured one.
+ */
+@Component
+public class RawRecordProducer {
+
+    private final KafkaTemplate<String, byte[]> template;
+
+    public RawRecordProducer(KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildProducerProperties();
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        this.template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    public KafkaTemplate<String, byte[]> template() {
+        return template;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (template.getProducerFactory() instanceof DefaultKafkaProducerFactory) {
+            ((DefaultKafkaProducerFactory<?, ?>) template.getProducerFactory()).destroy();
+        }
+    }
+}
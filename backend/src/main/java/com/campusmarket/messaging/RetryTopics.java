@@ -0,0 +1,99 @@
+package com.campusmarket.messaging;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.converter.ConversionException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Naming and routing for the non-blocking retry of the event topics.
+ * <p>
+ * The main listeners, mostly batch listeners, park a record they could not process on
+ * {@code <topic>-failed} and move on, so the records behind it keep flowing. From there Spring Kafka's
+ * retry topics take over (see {@code KafkaListenerConfig#eventRetryTopics}): a single-record listener
+ * tries it again, then walks it through the {@code <topic>-failed-retry-<delay>} tiers and finally
+ * into {@code <topic>-failed.DLT}. Records that can never succeed (bad payloads) go to the
+ * dead-letter topic straight away.
+ */
+@Component
+public class RetryTopics {
+
+    public static final String FAILED_SUFFIX = "-failed";
+    public static final String DLT_SUFFIX = ".DLT";
+    /**
+     * Header prefixes dropped when a dead letter is replayed, so it starts over from the main topic.
+     */
+    static final List<String> ROUTING_HEADER_PREFIXES = List.of("retry_topic-", "kafka_dlt-");
+
+    private final List<String> topics;
+
+    public RetryTopics(@Value("${app.kafka.order-topic:order-events}") String orderTopic,
+                       @Value("${app.kafka.goods-topic:goods-events}") String goodsTopic,
+                       @Value("${app.kafka.chat-topic:chat-events}") String chatTopic,
+                       @Value("${app.kafka.flash-sale-order-topic:flash-sale-order-events}") String flashSaleOrderTopic) {
+        this.topics = List.of(orderTopic, goodsTopic, chatTopic, flashSaleOrderTopic);
+    }
+
+    /**
+     * Main event topics that have a failed-record topic and a dead-letter topic.
+     */
+    public List<String> topics() {
+        return topics;
+    }
+
+    public String failedTopic(String topic) {
+        return topic + FAILED_SUFFIX;
+    }
+
+    public List<String> failedTopics() {
+        return topics.stream().map(this::failedTopic).collect(Collectors.toList());
+    }
+
+    public String deadLetterTopic(String topic) {
+        return failedTopic(topic) + DLT_SUFFIX;
+    }
+
+    /**
+     * Where a record that failed on its main topic goes: the failed-record topic, or the dead-letter
+     * topic when the failure cannot be cured by trying again.
+     */
+    public TopicPartition destination(ConsumerRecord<?, ?> record, Exception failure) {
+        String topic = isRetryable(failure) ? failedTopic(record.topic()) : deadLetterTopic(record.topic());
+        return new TopicPartition(topic, record.partition());
+    }
+
+    /**
+     * Index of the first record whose value could not be deserialized, or -1. Such records arrive with a
+     * null value and are handed to the error handler to be dead-lettered.
+     */
+    public static int firstUndeserializable(List<? extends ConsumerRecord<?, ?>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i).value() == null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean isRetryable(Exception failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof DeserializationException
+                    || t instanceof MessageConversionException
+                    || t instanceof ConversionException
+                    || t instanceof ClassCastException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isRoutingHeader(String key) {
+        return ROUTING_HEADER_PREFIXES.stream().anyMatch(key::startsWith);
+    }
+}
@@ -1,6 +1,13 @@
 package com.campusmarket.service;
 
+import java.util.Map;
+
 public interface ChatMetricsService {
 
     void recordMessageCreated(Long senderId, Long receiverId);
+
+    /**
+     * Add message counts already merged per sender and per receiver, written in one round trip.
+     */
+    void recordMessagesCreated(Map<Long, Long> sentBySender, Map<Long, Long> receivedByReceiver);
 }
@@ -0,0 +1,243 @@
+package com.campusmarket.service;
+
+import com.campusmarket.dto.DeadLetterReplayResponse;
+import com.campusmarket.messaging.RawRecordProducer;
+import com.campusmarket.messaging.RetryTopics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Republishes dead letters to their original topic, where they start over as if newly published.
+ * <p>
+ * One replay runs at a time, in the background and paced to a fixed send rate so a large backlog does
+ * not flood the consumers that failed on it before. Progress is kept as the committed offsets of a
+ * consumer group per dead-letter topic: a replay resumes where the previous one stopped, and stops at
+ * the end offsets seen when it started rather than chasing records that fail again.
+ */
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final RetryTopics retryTopics;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final KafkaProperties kafkaProperties;
+    private final String groupId;
+    private final int maxRecords;
+    private final int maxRatePerSecond;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dlt-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Replay> current = new AtomicReference<>();
+
+    public DeadLetterReplayService(RetryTopics retryTopics,
+                                   RawRecordProducer rawRecordProducer,
+                                   KafkaProperties kafkaProperties,
+                                   @Value("${spring.kafka.consumer.group-id}") String groupId,
+                                   @Value("${app.kafka.retry.replay.max-records:10000}") int maxRecords,
+                                   @Value("${app.kafka.retry.replay.max-rate-per-second:500}") int maxRatePerSecond) {
+        this.retryTopics = retryTopics;
+        this.kafkaTemplate = rawRecordProducer.template();
+        this.kafkaProperties = kafkaProperties;
+        this.groupId = groupId;
+        this.maxRecords = Math.max(1, maxRecords);
+        this.maxRatePerSecond = Math.max(1, maxRatePerSecond);
+    }
+
+    /**
+     * Start replaying up to {@code limit} dead letters of {@code topic} at no more than
+     * {@code ratePerSecond}; both are capped by configuration.
+     */
+    public DeadLetterReplayResponse startReplay(String topic, int limit, int ratePerSecond) {
+        if (!retryTopics.topics().contains(topic)) {
+            throw new IllegalArgumentException("Unknown event topic: " + topic);
+        }
+        if (limit < 1 || ratePerSecond < 1) {
+            throw new IllegalArgumentException("Limit and rate must be positive");
+        }
+        Replay replay = new Replay(topic, retryTopics.deadLetterTopic(topic),
+                Math.min(limit, maxRecords), Math.min(ratePerSecond, maxRatePerSecond));
+        Replay previous = current.get();
+        if ((previous != null && previous.finishedAt == null) || !current.compareAndSet(previous, replay)) {
+            throw new IllegalStateException("A dead letter replay is already running");
+        }
+        executor.execute(() -> run(replay));
+        return replay.toResponse();
+    }
+
+    /**
+     * The running replay, or the last one to finish.
+     */
+    public Optional<DeadLetterReplayResponse> currentReplay() {
+        return Optional.ofNullable(current.get()).map(Replay::toResponse);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Replay replay) {
+        log.info("Replaying up to {} records from {} at {}/s", replay.limit, replay.deadLetterTopic, replay.ratePerSecond);
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProperties(replay))) {
+            replay(consumer, replay);
+            replay.state = "COMPLETED";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            replay.fail("Interrupted");
+        } catch (ExecutionException ex) {
+            replay.fail(ex.getCause() == null ? ex.getMessage() : ex.getCause().getMessage());
+            log.warn("Dead letter replay from {} stopped after {} records", replay.deadLetterTopic, replay.replayed, ex);
+        } catch (TimeoutException | RuntimeException ex) {
+            replay.fail(ex.getMessage());
+            log.warn("Dead letter replay from {} stopped after {} records", replay.deadLetterTopic, replay.replayed, ex);
+        } finally {
+            replay.finishedAt = LocalDateTime.now();
+        }
+        log.info("Replayed {} records from {}", replay.replayed, replay.deadLetterTopic);
+    }
+
+    private void replay(KafkaConsumer<String, byte[]> consumer, Replay replay)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        List<PartitionInfo> partitions = consumer.partitionsFor(replay.deadLetterTopic);
+        if (partitions == null || partitions.isEmpty()) {
+            return;
+        }
+        List<TopicPartition> assigned = partitions.stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .collect(Collectors.toList());
+        consumer.assign(assigned);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(assigned);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / replay.ratePerSecond;
+        long nextSendAt = System.nanoTime();
+        while (replay.replayed < replay.limit && !caughtUp(consumer, endOffsets)) {
+            ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofSeconds(1));
+            Map<TopicPartition, OffsetAndMetadata> done = new HashMap<>();
+            try {
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (replay.replayed >= replay.limit || record.offset() >= endOffsets.getOrDefault(partition, 0L)) {
+                        continue;
+                    }
+                    long wait = nextSendAt - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    nextSendAt = Math.max(nextSendAt, System.nanoTime() - intervalNanos) + intervalNanos;
+                    kafkaTemplate.send(toOriginalTopic(replay.topic, record)).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    done.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    replay.replayed++;
+                }
+            } finally {
+                if (!done.isEmpty()) {
+                    consumer.commitSync(done);
+                }
+            }
+        }
+    }
+
+    private static boolean caughtUp(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    /**
+     * The dead letter as it was first published: same key and payload, type header kept, retry and
+     * dead-letter headers dropped so it starts over with a fresh attempt count.
+     */
+    static ProducerRecord<String, byte[]> toOriginalTopic(String topic, ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, byte[]> replayed = new ProducerRecord<>(topic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!RetryTopics.isRoutingHeader(header.key())) {
+                replayed.headers().add(header);
+            }
+        }
+        return replayed;
+    }
+
+    private Map<String, Object> consumerProperties(Replay replay) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-" + replay.deadLetterTopic + "-replay");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(replay.limit, 500));
+        return props;
+    }
+
+    private static final class Replay {
+
+        private final String topic;
+        private final String deadLetterTopic;
+        private final int limit;
+        private final int ratePerSecond;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile String state = "RUNNING";
+        private volatile long replayed;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Replay(String topic, String deadLetterTopic, int limit, int ratePerSecond) {
+            this.topic = topic;
+            this.deadLetterTopic = deadLetterTopic;
+            this.limit = limit;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        private void fail(String message) {
+            state = "FAILED";
+            error = message;
+        }
+
+        private DeadLetterReplayResponse toResponse() {
+            DeadLetterReplayResponse response = new DeadLetterReplayResponse();
+            response.setTopic(topic);
+            response.setDeadLetterTopic(deadLetterTopic);
+            response.setState(state);
+            response.setLimit(limit);
+            response.setRatePerSecond(ratePerSecond);
+            response.setReplayed(replayed);
+            response.setStartedAt(startedAt);
+            response.setFinishedAt(finishedAt);
+            response.setError(error);
+            return response;
+        }
+    }
+}
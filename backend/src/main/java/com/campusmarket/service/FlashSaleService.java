@@ -2,6 +2,7 @@ package com.campusmarket.service;
 
 import com.campusmarket.dto.FlashSaleItemCreateRequest;
 import com.campusmarket.dto.FlashSaleItemResponse;
+import com.campusmarket.dto.FlashSaleOrderStatusResponse;
 
 import java.util.List;
 
@@ -11,10 +12,25 @@ public interface FlashSaleService {
 
     List<FlashSaleItemResponse> listUpcomingAndActiveItems();
 
+    /**
+     * Load items starting within the configured lead time into Redis, seeding any missing stock shards.
+     *
+     * @return number of items warmed up
+     */
+    int prewarmUpcomingItems();
+
     /**
      * Attempt to purchase a flash sale item for the given user.
+     * <p>
+     * The order id is reserved up front and returned as soon as stock is taken; the
+     * {@code flash_sale_order} row is written asynchronously, see {@link #getOrderStatus(Long, Long)}.
      *
-     * @return order id when success, otherwise null
+     * @return reserved order id
      */
     Long attemptPurchase(Long userId, Long flashSaleItemId);
+
+    /**
+     * Report whether the user's reservation for the item is still PREPARING or already CONFIRMED.
+     */
+    FlashSaleOrderStatusResponse getOrderStatus(Long userId, Long flashSaleItemId);
 }
@@ -1,7 +1,13 @@
 package com.campusmarket.service;
 
+import java.util.Collection;
+
 /**
  * Centralised cache eviction for goods-related Redis keys.
+ * <p>
+ * List caches are not deleted but versioned: every list key embeds the current list generations
+ * (see {@link #goodsListNamespace(String)}), so invalidation bumps a counter and the orphaned
+ * entries expire on their own TTL.
  */
 public interface GoodsCacheService {
 
@@ -13,17 +19,38 @@ public interface GoodsCacheService {
     void evictGoodsDetail(Long goodsId);
 
     /**
-     * Remove all cached goods list variants.
+     * Invalidate all cached goods list variants.
      */
     void evictGoodsLists();
 
     /**
-     * Convenience method that removes both detail cache and list caches for the goods id.
+     * Invalidate the list variants that can contain goods of the given category: lists filtered by
+     * that category and unfiltered lists. Falls back to {@link #evictGoodsLists()} when the category
+     * is unknown.
+     */
+    void evictGoodsLists(String category);
+
+    /**
+     * Key prefix for a goods list cache entry filtered by {@code category} (null for all categories),
+     * built from the list generations that currently apply to it.
+     */
+    String goodsListNamespace(String category);
+
+    /**
+     * Convenience method that removes the detail cache and the list caches affected by the goods.
      *
-     * @param goodsId the goods identifier, ignored when null
+     * @param goodsId  the goods identifier, ignored when null
+     * @param category the goods category, or null when unknown
      */
-    default void evictAllForGoods(Long goodsId) {
+    default void evictAllForGoods(Long goodsId, String category) {
         evictGoodsDetail(goodsId);
-        evictGoodsLists();
+        evictGoodsLists(category);
     }
+
+    /**
+     * Batch form of {@link #evictAllForGoods(Long, String)}: one multi-key delete for the details and one
+     * generation bump per affected list scope. A null or blank category means unknown and invalidates
+     * every list.
+     */
+    void evictAllForGoods(Collection<Long> goodsIds, Collection<String> categories);
 }
@@ -7,6 +7,11 @@ public interface GoodsMetricsService {
 
     void recordView(Long goodsId);
 
+    /**
+     * Add view counts already merged per goods id, e.g. from one batch of view events.
+     */
+    void recordViews(Map<Long, Long> viewsByGoods);
+
     void recordOrder(Long goodsId);
 
     void recordCartAddition(Long goodsId);
@@ -18,4 +23,9 @@ public interface GoodsMetricsService {
     Map<Long, Long> getViewCounts(Collection<Long> goodsIds);
 
     void removeMetrics(Long goodsId);
+
+    /**
+     * Drop the counters and rankings of several goods in one round trip.
+     */
+    void removeMetrics(Collection<Long> goodsIds);
 }
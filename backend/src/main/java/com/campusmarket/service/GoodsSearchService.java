@@ -0,0 +1,21 @@
+package com.campusmarket.service;
+
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsSearchResponse;
+
+import java.util.List;
+
+public interface GoodsSearchService {
+
+    /**
+     * Relevance-ranked keyword search over listed goods; {@code request.keyword} is required.
+     */
+    GoodsSearchResponse search(GoodsFilterRequest request, int offset, Integer size);
+
+    List<String> suggest(String prefix, int limit);
+
+    /**
+     * Bring the search entry of one goods item in line with its current row.
+     */
+    void reindex(Long goodsId);
+}
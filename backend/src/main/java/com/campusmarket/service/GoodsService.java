@@ -1,6 +1,7 @@
 package com.campusmarket.service;
 
 import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsPageResponse;
 import com.campusmarket.dto.GoodsResponse;
 import com.campusmarket.dto.GoodsUpdateRequest;
 import com.campusmarket.entity.Goods;
@@ -9,7 +10,7 @@ import com.campusmarket.entity.GoodsStatus;
 import java.util.List;
 
 public interface GoodsService {
-    List<GoodsResponse> listGoods(GoodsFilterRequest request);
+    GoodsPageResponse listGoods(GoodsFilterRequest request);
     GoodsResponse getGoods(Long id, Long viewerId, boolean adminView);
     Goods getGoodsEntity(Long id);
     Goods createGoods(Goods goods);
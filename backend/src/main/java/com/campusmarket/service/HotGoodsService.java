@@ -10,5 +10,10 @@ public interface HotGoodsService {
 
     void evictHotCache();
 
+    /**
+     * Give a newly approved goods item its initial hot score.
+     */
+    void recordListing(Long goodsId);
+
     List<HotGoodsItemResponse> getRanking(String metric, int limit);
 }
@@ -1,13 +1,29 @@
 package com.campusmarket.service;
 
 import com.campusmarket.dto.OrderCreateRequest;
+import com.campusmarket.dto.OrderPageResponse;
 import com.campusmarket.dto.OrderResponse;
 import com.campusmarket.dto.OrderUpdateStatusRequest;
+import com.campusmarket.entity.OrderRole;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderService {
     OrderResponse createOrder(Long buyerId, OrderCreateRequest request);
     OrderResponse updateStatus(Long orderId, OrderUpdateStatusRequest request, Long userId);
-    List<OrderResponse> listOrders(Long buyerId);
+    OrderPageResponse listOrders(Long userId, OrderRole role, String cursor, Integer size);
+
+    /**
+     * Cancel those of {@code orderIds} that are still unpaid and put their stock back on sale. Callers
+     * pass orders whose payment deadline has passed.
+     *
+     * @return ids of the orders that were canceled
+     */
+    List<Long> cancelUnpaidOrders(Collection<Long> orderIds);
+
+    /**
+     * Copy the current goods title and cover onto the order read model after a goods edit.
+     */
+    void refreshGoodsSnapshot(Long goodsId);
 }
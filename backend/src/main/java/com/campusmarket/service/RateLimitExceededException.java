@@ -0,0 +1,18 @@
+package com.campusmarket.service;
+
+/**
+ * Thrown when a request is rejected by admission control or rate limiting; mapped to HTTP 429.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,75 @@
+package com.campusmarket.service;
+
+import java.time.Duration;
+
+/**
+ * Named request limits enforced by the shared Redis rate limiter: at most {@code limit} requests per
+ * {@code period} for one key, with bursts up to {@code limit}.
+ */
+public enum RateLimitPolicy {
+
+    ORDER_CREATE("order.create", 5, Duration.ofMinutes(1), KeyType.USER, true, "下单过于频繁，请稍后再试"),
+    LOGIN("auth.login", 20, Duration.ofMinutes(1), KeyType.CLIENT_IP, true, "登录请求过于频繁，请稍后再试"),
+    /**
+     * Failed passwords per username; the next failure over the limit locks the account. Not cached
+     * locally, because a successful login on any instance resets it.
+     */
+    LOGIN_FAILURE("auth.login_failure", 4, Duration.ofMinutes(15), KeyType.USER, false, "登录失败次数过多，请稍后再试"),
+    CHAT_SEND("chat.send", 30, Duration.ofMinutes(1), KeyType.USER, true, "发送消息过于频繁，请稍后再试"),
+    FLASH_SALE_PURCHASE("flash_sale.purchase", 10, Duration.ofSeconds(10), KeyType.USER, true, "抢购请求过于频繁，请稍后再试");
+
+    /**
+     * What a limit is counted against when applied to a controller method.
+     */
+    public enum KeyType {
+        /**
+         * The authenticated user id, falling back to the client IP for anonymous requests.
+         */
+        USER,
+        CLIENT_IP
+    }
+
+    private final String metricName;
+    private final int limit;
+    private final Duration period;
+    private final KeyType keyType;
+    private final boolean localPreCheck;
+    private final String message;
+
+    RateLimitPolicy(String metricName, int limit, Duration period, KeyType keyType,
+                    boolean localPreCheck, String message) {
+        this.metricName = metricName;
+        this.limit = limit;
+        this.period = period;
+        this.keyType = keyType;
+        this.localPreCheck = localPreCheck;
+        this.message = message;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public KeyType getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * Whether a rejection may be remembered in-process until its retry-after passes.
+     */
+    public boolean isLocalPreCheck() {
+        return localPreCheck;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -6,10 +6,20 @@ import com.campusmarket.dto.RegisterRequest;
 import com.campusmarket.dto.UserProfileResponse;
 import com.campusmarket.entity.User;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface UserService {
     AuthResponse register(RegisterRequest request);
     AuthResponse login(AuthRequest request);
     UserProfileResponse getProfile(Long userId);
     User findById(Long id);
+
+    /**
+     * Batch lookup of public profile fields (no password or phone) through the profile cache.
+     * Unknown ids are left out of the result.
+     */
+    Map<Long, User> findByIds(Collection<Long> ids);
+
     User findByUsername(String username);
 }
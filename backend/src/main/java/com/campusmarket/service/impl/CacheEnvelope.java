@@ -0,0 +1,35 @@
+package com.campusmarket.service.impl;
+
+/**
+ * Redis value wrapper used by {@link RefreshAheadCache}: the cached value plus the logical expiry
+ * after which it is still served but refreshed in the background.
+ */
+public class CacheEnvelope {
+
+    private Object value;
+    private long refreshAt;
+
+    public CacheEnvelope() {
+    }
+
+    public CacheEnvelope(Object value, long refreshAt) {
+        this.value = value;
+        this.refreshAt = refreshAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getRefreshAt() {
+        return refreshAt;
+    }
+
+    public void setRefreshAt(long refreshAt) {
+        this.refreshAt = refreshAt;
+    }
+}
@@ -0,0 +1,152 @@
+package com.campusmarket.service.impl;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Shared meters for every application cache, tagged by cache name and, where a cache has both, level
+ * ({@code l1} in-process, {@code l2} Redis):
+ * <ul>
+ *     <li>{@code cache.gets{cache,level,result}}: {@code hit}, {@code miss} and {@code null_hit} (a cached
+ *     "not found" marker), with {@code cache.hit.ratio{cache,level}} counting null hits as hits</li>
+ *     <li>{@code cache.load.duration{cache,result}}: time spent loading a missing entry from its source</li>
+ *     <li>{@code cache.payload.size{cache}}: bytes written to Redis per entry</li>
+ *     <li>{@code cache.evictions{cache,level,cause}}: explicit invalidations and Caffeine size/expiry removals</li>
+ * </ul>
+ * Redis TTL expiry is not observable per key; it shows up as misses.
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String L1 = "l1";
+    public static final String L2 = "l2";
+    public static final String EXPLICIT = "explicit";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Level> levels = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String cache, String level, boolean hit) {
+        Level counters = level(cache, level);
+        (hit ? counters.hits : counters.misses).increment();
+    }
+
+    /**
+     * Record the outcome of a batched lookup.
+     */
+    public void record(String cache, String level, long hits, long misses) {
+        Level counters = level(cache, level);
+        counters.hits.increment(hits);
+        counters.misses.increment(misses);
+    }
+
+    public void recordNullHit(String cache, String level) {
+        level(cache, level).nullHits.increment();
+    }
+
+    public double hitRatio(String cache, String level) {
+        Level counters = levels.get(cache + '|' + level);
+        return counters == null ? 0D : counters.ratio();
+    }
+
+    /**
+     * Run {@code loader} and record how long it took and whether it threw.
+     */
+    public <T> T recordLoad(String cache, Supplier<T> loader) {
+        long started = System.nanoTime();
+        String result = "failure";
+        try {
+            T value = loader.get();
+            result = "success";
+            return value;
+        } finally {
+            loadTimer(cache, result).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordPayloadSize(String cache, long bytes) {
+        DistributionSummary.builder("cache.payload.size")
+                .description("Serialized size of entries written to the cache")
+                .baseUnit("bytes")
+                .tag("cache", cache)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    public void recordEviction(String cache, String level, String cause) {
+        Counter.builder("cache.evictions")
+                .description("Cache entries removed, by cause")
+                .tags("cache", cache, "level", level, "cause", cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Caffeine removal listener that counts every removal except replacement by a newer value.
+     */
+    public <K, V> RemovalListener<K, V> evictionListener(String cache) {
+        return (key, value, cause) -> {
+            if (cause != RemovalCause.REPLACED) {
+                recordEviction(cache, L1, cause.name().toLowerCase(Locale.ROOT));
+            }
+        };
+    }
+
+    private Timer loadTimer(String cache, String result) {
+        return Timer.builder("cache.load.duration")
+                .description("Time spent loading cache misses from the source of truth")
+                .tags("cache", cache, "result", result)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(meterRegistry);
+    }
+
+    private Level level(String cache, String level) {
+        return levels.computeIfAbsent(cache + '|' + level, key -> new Level(cache, level));
+    }
+
+    private final class Level {
+
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter nullHits;
+
+        private Level(String cache, String level) {
+            this.hits = gets(cache, level, "hit");
+            this.misses = gets(cache, level, "miss");
+            this.nullHits = gets(cache, level, "null_hit");
+            Gauge.builder("cache.hit.ratio", this, Level::ratio)
+                    .tags("cache", cache, "level", level)
+                    .register(meterRegistry);
+        }
+
+        private Counter gets(String cache, String level, String result) {
+            return Counter.builder("cache.gets")
+                    .tags("cache", cache, "level", level, "result", result)
+                    .register(meterRegistry);
+        }
+
+        private double ratio() {
+            double served = hits.count() + nullHits.count();
+            double total = served + misses.count();
+            return total == 0 ? 0D : served / total;
+        }
+    }
+}
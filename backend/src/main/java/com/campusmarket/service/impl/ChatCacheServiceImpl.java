@@ -21,11 +21,14 @@ public class ChatCacheServiceImpl implements ChatCacheService {
     public static final String UNREAD_KEY_PREFIX = "chat:unread:";
     private static final String PROCESSED_KEY_PREFIX = "chat:unread:processed:";
     private static final long TTL_SECONDS = 7 * 24 * 3600L;
+    private static final String UNREAD_CACHE = "chat.unread";
 
     private final StringRedisTemplate redisTemplate;
+    private final CacheMetrics cacheMetrics;
 
-    public ChatCacheServiceImpl(StringRedisTemplate redisTemplate) {
+    public ChatCacheServiceImpl(StringRedisTemplate redisTemplate, CacheMetrics cacheMetrics) {
         this.redisTemplate = redisTemplate;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @Override
@@ -56,7 +59,10 @@ public class ChatCacheServiceImpl implements ChatCacheService {
             return;
         }
         try {
-            redisTemplate.opsForHash().delete(unreadKey(userId), partnerId.toString());
+            Long removed = redisTemplate.opsForHash().delete(unreadKey(userId), partnerId.toString());
+            if (removed != null && removed > 0) {
+                cacheMetrics.recordEviction(UNREAD_CACHE, CacheMetrics.L2, CacheMetrics.EXPLICIT);
+            }
         } catch (RuntimeException ex) {
             log.debug("Failed to clear unread counter user={}, partner={}", userId, partnerId, ex);
         }
@@ -69,6 +75,8 @@ public class ChatCacheServiceImpl implements ChatCacheService {
         }
         try {
             Map<Object, Object> entries = redisTemplate.opsForHash().entries(unreadKey(userId));
+            // An absent hash simply means nothing unread, but it is also what an expired one looks like.
+            cacheMetrics.record(UNREAD_CACHE, CacheMetrics.L2, !CollectionUtils.isEmpty(entries));
             if (CollectionUtils.isEmpty(entries)) {
                 return Collections.emptyMap();
             }
@@ -8,6 +8,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class ChatEventProcessor {
 
@@ -22,19 +28,48 @@ public class ChatEventProcessor {
         this.chatCacheService = chatCacheService;
     }
 
-    public void handle(ChatEvent event) {
-        if (event == null || event.getEventType() == null) {
-            return;
+    /**
+     * Apply one poll's worth of chat events: per-user message counts are summed and written in one
+     * round trip; unread counters stay per message because each increment is deduplicated by id.
+     *
+     * @return the message ids that could not be fully applied, with the failure; the listener sends those
+     * events to a retry topic, where the deduplicated unread increment makes a repeat harmless
+     */
+    public Map<Long, RuntimeException> handleBatch(List<ChatEvent> events) {
+        Map<Long, Long> sent = new HashMap<>();
+        Map<Long, Long> received = new HashMap<>();
+        List<ChatEvent> created = new ArrayList<>(events.size());
+        for (ChatEvent event : events) {
+            if (event == null || event.getEventType() == null) {
+                continue;
+            }
+            if (event.getEventType() != ChatEventType.CHAT_MESSAGE_CREATED) {
+                log.debug("Unhandled chat event type: {}", event.getEventType());
+                continue;
+            }
+            if (event.getSenderId() != null) {
+                sent.merge(event.getSenderId(), 1L, Long::sum);
+            }
+            if (event.getReceiverId() != null) {
+                received.merge(event.getReceiverId(), 1L, Long::sum);
+            }
+            created.add(event);
         }
+        Map<Long, RuntimeException> failures = new LinkedHashMap<>();
         try {
-            if (event.getEventType() == ChatEventType.CHAT_MESSAGE_CREATED) {
-                chatMetricsService.recordMessageCreated(event.getSenderId(), event.getReceiverId());
+            chatMetricsService.recordMessagesCreated(sent, received);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to record metrics for {} chat events", created.size(), ex);
+            created.forEach(event -> failures.put(event.getMessageId(), ex));
+        }
+        for (ChatEvent event : created) {
+            try {
                 chatCacheService.incrementUnread(event.getReceiverId(), event.getSenderId(), event.getMessageId());
-            } else {
-                log.debug("Unhandled chat event type: {}", event.getEventType());
+            } catch (RuntimeException ex) {
+                log.warn("Failed to process chat event: {}", event, ex);
+                failures.putIfAbsent(event.getMessageId(), ex);
             }
-        } catch (RuntimeException ex) {
-            log.warn("Failed to process chat event: {}", event, ex);
         }
+        return failures;
     }
 }
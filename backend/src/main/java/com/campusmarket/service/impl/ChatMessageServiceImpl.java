@@ -65,7 +65,7 @@ public class ChatMessageServiceImpl implements ChatMessageService {
                 buildPreview(entity)
         );
 
-        Map<Long, User> cache = new HashMap<>();
+        Map<Long, User> cache = userService.findByIds(List.of(senderId, receiverId));
         ChatMessage senderMessage = toDto(entity, senderId, true, cache);
         ChatMessage receiverMessage = toDto(entity, receiverId, false, cache);
 
@@ -82,7 +82,7 @@ public class ChatMessageServiceImpl implements ChatMessageService {
                 .or(wrapper -> wrapper.eq(ChatMessageEntity::getSenderId, partnerId)
                         .eq(ChatMessageEntity::getReceiverId, userId))
                 .orderByAsc(ChatMessageEntity::getCreatedAt));
-        Map<Long, User> cache = new HashMap<>();
+        Map<Long, User> cache = userService.findByIds(List.of(userId, partnerId));
         return entities.stream()
                 .map(entity -> toDto(entity, userId, determineReadForUser(entity, userId), cache))
                 .collect(Collectors.toList());
@@ -165,13 +165,7 @@ public class ChatMessageServiceImpl implements ChatMessageService {
             return new HashMap<>();
         }
         Map<Long, String> result = new HashMap<>();
-        for (Long id : userIds) {
-            try {
-                User user = userService.findById(id);
-                result.put(id, user.getNickname());
-            } catch (IllegalArgumentException ignored) {
-            }
-        }
+        userService.findByIds(userIds).forEach((id, user) -> result.put(id, user.getNickname()));
         return result;
     }
 
@@ -1,9 +1,14 @@
 package com.campusmarket.service.impl;
 
 import com.campusmarket.service.ChatMetricsService;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -35,6 +40,42 @@ public class ChatMetricsServiceImpl implements ChatMetricsService {
         }
     }
 
+    @Override
+    public void recordMessagesCreated(Map<Long, Long> sentBySender, Map<Long, Long> receivedByReceiver) {
+        if (redisTemplate == null || (sentBySender.isEmpty() && receivedByReceiver.isEmpty())) {
+            return;
+        }
+        List<Long> deltas = new ArrayList<>(sentBySender.values());
+        deltas.addAll(receivedByReceiver.values());
+        try {
+            List<Object> totals = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                sentBySender.forEach((userId, count) -> redis.hIncrBy(KEY_SENT, userId.toString(), count));
+                receivedByReceiver.forEach((userId, count) -> redis.hIncrBy(KEY_RECEIVED, userId.toString(), count));
+                return null;
+            });
+            // As in incrementHash: a field created by this write (re)starts the TTL of its hash.
+            boolean newSender = false;
+            boolean newReceiver = false;
+            for (int i = 0; i < totals.size(); i++) {
+                if (deltas.get(i).equals(totals.get(i))) {
+                    if (i < sentBySender.size()) {
+                        newSender = true;
+                    } else {
+                        newReceiver = true;
+                    }
+                }
+            }
+            if (newSender) {
+                redisTemplate.expire(KEY_SENT, TTL_SECONDS, TimeUnit.SECONDS);
+            }
+            if (newReceiver) {
+                redisTemplate.expire(KEY_RECEIVED, TTL_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (RuntimeException ignored) {
+        }
+    }
+
     private void incrementHash(String key, Long userId) {
         Long value = redisTemplate.opsForHash().increment(key, userId.toString(), 1L);
         if (value != null && value == 1L) {
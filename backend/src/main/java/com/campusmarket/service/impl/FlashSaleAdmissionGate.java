@@ -0,0 +1,250 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.service.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-item, per-instance admission control in front of the flash sale purchase script.
+ * <p>
+ * Each item gets a token bucket whose capacity (and refill per window) is the remaining stock times
+ * {@code tokensPerStock}, clamped to {@code [minCapacity, maxCapacity]}. With 100 units left only a few
+ * hundred requests per window reach Redis; the rest wait in the item's own bounded queue or fail fast with
+ * 429. The queue holds {@code queuePerStock} waiters per remaining unit, capped at {@code queueCapacity},
+ * so a nearly sold-out item parks almost no request threads and a sold-out one parks none. Remaining
+ * stock is fed back from the purchase script result, so buckets and queues shrink as the sale drains.
+ * <p>
+ * Waiting parks a servlet worker thread, so all items together may hold at most {@code maxWaiting} of
+ * them, and never more than a quarter of {@code server.tomcat.threads.max}; beyond that requests fail
+ * fast with 429, and every other endpoint keeps at least three quarters of the pool.
+ */
+@Component
+public class FlashSaleAdmissionGate {
+
+    private static final String MESSAGE_BUSY = "抢购人数过多，请稍后再试";
+
+    private final Cache<Long, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(1_024)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    private final boolean enabled;
+    private final double tokensPerStock;
+    private final long minCapacity;
+    private final long maxCapacity;
+    private final long refillWindowNanos;
+    private final double queuePerStock;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+    private final int maxWaiting;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongSupplier clock;
+
+    private final Counter admitted;
+    private final Counter admittedAfterWait;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    @Autowired
+    public FlashSaleAdmissionGate(MeterRegistry meterRegistry,
+                                  @Value("${app.flash-sale.admission.enabled:true}") boolean enabled,
+                                  @Value("${app.flash-sale.admission.tokens-per-stock:2.0}") double tokensPerStock,
+                                  @Value("${app.flash-sale.admission.min-capacity:10}") long minCapacity,
+                                  @Value("${app.flash-sale.admission.max-capacity:2000}") long maxCapacity,
+                                  @Value("${app.flash-sale.admission.refill-window-ms:1000}") long refillWindowMillis,
+                                  @Value("${app.flash-sale.admission.queue-per-stock:1.0}") double queuePerStock,
+                                  @Value("${app.flash-sale.admission.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.flash-sale.admission.queue-timeout-ms:200}") long queueTimeoutMillis,
+                                  @Value("${app.flash-sale.admission.max-waiting:50}") int maxWaiting,
+                                  @Value("${server.tomcat.threads.max:200}") int requestThreads) {
+        this(meterRegistry, enabled, tokensPerStock, minCapacity, maxCapacity, refillWindowMillis,
+                queuePerStock, queueCapacity, queueTimeoutMillis, Math.min(maxWaiting, requestThreads / 4),
+                System::nanoTime);
+    }
+
+    FlashSaleAdmissionGate(MeterRegistry meterRegistry, boolean enabled, double tokensPerStock,
+                           long minCapacity, long maxCapacity, long refillWindowMillis,
+                           double queuePerStock, int queueCapacity, long queueTimeoutMillis, int maxWaiting,
+                           LongSupplier clock) {
+        this.enabled = enabled;
+        this.tokensPerStock = tokensPerStock;
+        this.minCapacity = Math.max(1, minCapacity);
+        this.maxCapacity = Math.max(this.minCapacity, maxCapacity);
+        this.refillWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, refillWindowMillis));
+        this.queuePerStock = Math.max(0, queuePerStock);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, queueTimeoutMillis));
+        this.maxWaiting = Math.max(0, maxWaiting);
+        this.clock = clock;
+
+        this.admitted = admissionCounter(meterRegistry, "admitted");
+        this.admittedAfterWait = admissionCounter(meterRegistry, "admitted_after_wait");
+        this.rejectedQueueFull = admissionCounter(meterRegistry, "rejected_queue_full");
+        this.rejectedTimeout = admissionCounter(meterRegistry, "rejected_timeout");
+        Gauge.builder("flash_sale.admission.waiting", waiting, AtomicInteger::get)
+                .description("Purchase requests currently queued for a flash sale token")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take a token for the item, waiting in the item's bounded queue when the bucket is empty and the
+     * gate-wide waiter limit allows it.
+     *
+     * @param stockHint stock used to size the bucket the first time the item is seen
+     * @throws RateLimitExceededException when the queue is full or no token arrives in time
+     */
+    public void acquire(Long itemId, int stockHint) {
+        if (!enabled) {
+            return;
+        }
+        TokenBucket bucket = buckets.get(itemId, id -> new TokenBucket(stockHint, clock.getAsLong()));
+        if (bucket.tryAcquire(clock.getAsLong())) {
+            admitted.increment();
+            return;
+        }
+        if (!enterQueue(bucket)) {
+            rejectedQueueFull.increment();
+            throw new RateLimitExceededException(MESSAGE_BUSY, retryAfterSeconds(bucket));
+        }
+        try {
+            long deadline = clock.getAsLong() + queueTimeoutNanos;
+            while (true) {
+                long now = clock.getAsLong();
+                if (bucket.tryAcquire(now)) {
+                    admittedAfterWait.increment();
+                    return;
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    rejectedTimeout.increment();
+                    throw new RateLimitExceededException(MESSAGE_BUSY, retryAfterSeconds(bucket));
+                }
+                LockSupport.parkNanos(Math.min(remaining, Math.max(bucket.nanosUntilNextToken(now), 100_000L)));
+            }
+        } finally {
+            bucket.leaveQueue();
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Resize the item's bucket from the remaining stock reported by Redis.
+     */
+    public void updateRemainingStock(Long itemId, long remainingStock) {
+        TokenBucket bucket = buckets.getIfPresent(itemId);
+        if (bucket != null) {
+            bucket.resize(remainingStock, clock.getAsLong());
+        }
+    }
+
+    long capacityFor(long remainingStock) {
+        long capacity = (long) Math.ceil(Math.max(0, remainingStock) * tokensPerStock);
+        return Math.min(maxCapacity, Math.max(minCapacity, capacity));
+    }
+
+    int queueCapacityFor(long remainingStock) {
+        double size = Math.ceil(Math.max(0, remainingStock) * queuePerStock);
+        return (int) Math.min(queueCapacity, size);
+    }
+
+    private long retryAfterSeconds(TokenBucket bucket) {
+        long nanos = bucket.nanosUntilNextToken(clock.getAsLong());
+        return Math.max(1, (long) Math.ceil(nanos / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    private boolean enterQueue(TokenBucket bucket) {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        if (!bucket.enterQueue()) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private static Counter admissionCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("flash_sale.admission")
+                .description("Flash sale purchase admission decisions")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Refills {@code capacity} tokens per refill window, lazily on access, and bounds how many requests
+     * may wait for this item.
+     */
+    private final class TokenBucket {
+
+        private final AtomicInteger waiting = new AtomicInteger();
+        private volatile int queueLimit;
+        private long capacity;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(long remainingStock, long now) {
+            this.capacity = capacityFor(remainingStock);
+            this.tokens = capacity;
+            this.lastRefill = now;
+            this.queueLimit = queueCapacityFor(remainingStock);
+        }
+
+        boolean enterQueue() {
+            if (waiting.incrementAndGet() > queueLimit) {
+                waiting.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        void leaveQueue() {
+            waiting.decrementAndGet();
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void resize(long remainingStock, long now) {
+            refill(now);
+            capacity = capacityFor(remainingStock);
+            queueLimit = queueCapacityFor(remainingStock);
+            tokens = Math.min(tokens, capacity);
+        }
+
+        synchronized long nanosUntilNextToken(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * refillWindowNanos / capacity);
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed <= 0) {
+                return;
+            }
+            tokens = Math.min(capacity, tokens + (double) elapsed * capacity / refillWindowNanos);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.FlashSaleItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Per-instance flash sale state: item metadata plus a sold-out flag per item.
+ * <p>
+ * Once an item is flagged sold out, purchases are rejected without touching Redis. Flags are
+ * propagated to every instance over the {@link #CHANNEL} pub/sub channel. Messages carry no ordering,
+ * so a {@code SOLD_OUT} that arrives after a later {@code AVAILABLE} would win; flags therefore only live
+ * for {@link #SOLD_OUT_TTL}, after which the next purchase asks Redis again and re-flags the item if it is
+ * still sold out. A stale flag costs at most a few seconds of rejected requests, and a missed message one
+ * extra Redis round trip per instance.
+ */
+@Component
+public class FlashSaleLocalCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleLocalCache.class);
+
+    static final String CHANNEL = "flash:stock-state";
+    static final String ITEM_CACHE = "flash.item";
+    private static final String SOLD_OUT = "SOLD_OUT";
+    private static final String AVAILABLE = "AVAILABLE";
+    static final Duration SOLD_OUT_TTL = Duration.ofSeconds(3);
+
+    private final Cache<Long, FlashSaleItem> items;
+    private final Cache<Long, Boolean> soldOut = Caffeine.newBuilder()
+            .maximumSize(1_024)
+            .expireAfterWrite(SOLD_OUT_TTL)
+            .build();
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public FlashSaleLocalCache(StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               CacheMetrics cacheMetrics) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(1_024)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .removalListener(cacheMetrics.<Long, FlashSaleItem>evictionListener(ITEM_CACHE))
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public FlashSaleItem getItem(Long itemId) {
+        return items.getIfPresent(itemId);
+    }
+
+    public void putItem(FlashSaleItem item) {
+        if (item != null && item.getId() != null) {
+            items.put(item.getId(), item);
+        }
+    }
+
+    public boolean isSoldOut(Long itemId) {
+        return soldOut.getIfPresent(itemId) != null;
+    }
+
+    /**
+     * Flag the item sold out on this instance and broadcast it to the others.
+     */
+    public void markSoldOut(Long itemId) {
+        if (isSoldOut(itemId)) {
+            return;
+        }
+        soldOut.put(itemId, Boolean.TRUE);
+        broadcast(SOLD_OUT, itemId);
+    }
+
+    /**
+     * Clear the sold-out flag everywhere, e.g. after a reservation has been released.
+     */
+    public void markAvailable(Long itemId) {
+        soldOut.invalidate(itemId);
+        broadcast(AVAILABLE, itemId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            Long itemId = Long.valueOf(body.substring(separator + 1));
+            if (SOLD_OUT.equals(body.substring(0, separator))) {
+                soldOut.put(itemId, Boolean.TRUE);
+            } else {
+                soldOut.invalidate(itemId);
+            }
+        } catch (NumberFormatException ex) {
+            log.debug("Ignore malformed flash sale stock message: {}", body);
+        }
+    }
+
+    private void broadcast(String state, Long itemId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, state + ":" + itemId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to broadcast flash sale stock state {} for itemId={}", state, itemId, ex);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.FlashSaleOrder;
+import com.campusmarket.mapper.FlashSaleOrderMapper;
+import com.campusmarket.messaging.FlashSaleOrderEvent;
+import com.campusmarket.messaging.FlashSaleOrderEventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Materialises flash sale reservations into {@code flash_sale_order} in bulk: each batch is inserted as
+ * PREPARING rows, then flipped to CONFIRMED with one conditional update once the insert has gone through.
+ * Both steps are idempotent, so a redelivered batch only confirms rows still left in PREPARING.
+ */
+@Service
+public class FlashSaleOrderEventProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleOrderEventProcessor.class);
+
+    static final String STATUS_PREPARING = "PREPARING";
+    static final String STATUS_CONFIRMED = "CONFIRMED";
+
+    private final FlashSaleOrderMapper flashSaleOrderMapper;
+
+    public FlashSaleOrderEventProcessor(FlashSaleOrderMapper flashSaleOrderMapper) {
+        this.flashSaleOrderMapper = flashSaleOrderMapper;
+    }
+
+    public void handleBatch(List<FlashSaleOrderEvent> events) {
+        if (CollectionUtils.isEmpty(events)) {
+            return;
+        }
+        Map<Long, FlashSaleOrder> orders = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (FlashSaleOrderEvent event : events) {
+            if (event == null
+                    || event.getEventType() != FlashSaleOrderEventType.FLASH_SALE_ORDER_RESERVED
+                    || event.getOrderId() == null) {
+                log.debug("Ignore flash sale order event: {}", event);
+                continue;
+            }
+            FlashSaleOrder order = new FlashSaleOrder();
+            order.setId(event.getOrderId());
+            order.setFlashSaleItemId(event.getFlashSaleItemId());
+            order.setUserId(event.getUserId());
+            order.setStatus(STATUS_PREPARING);
+            order.setCreatedAt(event.getEventTime() == null ? now : event.getEventTime());
+            order.setUpdatedAt(now);
+            orders.put(order.getId(), order);
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+        // Redelivered records hit the primary key / uk_flash_sale_user and are skipped by the insert.
+        int inserted = flashSaleOrderMapper.insertBatchIgnoreExisting(List.copyOf(orders.values()));
+        int confirmed = flashSaleOrderMapper.updateStatusBatch(orders.keySet(), STATUS_PREPARING, STATUS_CONFIRMED, now);
+        log.debug("Persisted {} and confirmed {} flash sale orders ({} received)", inserted, confirmed, events.size());
+    }
+}
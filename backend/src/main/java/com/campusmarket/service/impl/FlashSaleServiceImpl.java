@@ -3,20 +3,31 @@ package com.campusmarket.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.campusmarket.dto.FlashSaleItemCreateRequest;
 import com.campusmarket.dto.FlashSaleItemResponse;
+import com.campusmarket.dto.FlashSaleOrderStatusResponse;
 import com.campusmarket.entity.FlashSaleItem;
 import com.campusmarket.entity.FlashSaleOrder;
 import com.campusmarket.mapper.FlashSaleItemMapper;
 import com.campusmarket.mapper.FlashSaleOrderMapper;
+import com.campusmarket.messaging.FlashSaleOrderEventPublisher;
+import com.campusmarket.service.DistributedIdGenerator;
 import com.campusmarket.service.FlashSaleService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.InvalidTopicException;
+import org.apache.kafka.common.errors.RecordBatchTooLargeException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -28,23 +39,47 @@ public class FlashSaleServiceImpl implements FlashSaleService {
 
     private static final Logger log = LoggerFactory.getLogger(FlashSaleServiceImpl.class);
 
-    private static final String STOCK_KEY_PREFIX = "flash:stock:";
     private static final String ITEM_CACHE_PREFIX = "flash:item:";
-    private static final String USER_LOCK_PREFIX = "flash:user:";
+
+    private static final DefaultRedisScript<Long> PURCHASE_SCRIPT = RedisScripts.load("flash_sale_purchase.lua", Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = RedisScripts.load("flash_sale_release.lua", Long.class);
+
+    private static final String STATUS_PREPARING = "PREPARING";
+    private static final String STATUS_FAILED = "FAILED";
+    private static final String FAILED_MARKER_PREFIX = STATUS_FAILED + ":";
+
 
     private final FlashSaleItemMapper flashSaleItemMapper;
     private final FlashSaleOrderMapper flashSaleOrderMapper;
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
+    private final DistributedIdGenerator idGenerator;
+    private final FlashSaleOrderEventPublisher flashSaleOrderEventPublisher;
+    private final FlashSaleLocalCache localCache;
+    private final FlashSaleAdmissionGate admissionGate;
+    private final CacheMetrics cacheMetrics;
+
+    @Value("${app.flash-sale.prewarm-lead-minutes:30}")
+    private long prewarmLeadMinutes = 30;
 
     public FlashSaleServiceImpl(FlashSaleItemMapper flashSaleItemMapper,
                                 FlashSaleOrderMapper flashSaleOrderMapper,
                                 StringRedisTemplate redisTemplate,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                DistributedIdGenerator idGenerator,
+                                FlashSaleOrderEventPublisher flashSaleOrderEventPublisher,
+                                FlashSaleLocalCache localCache,
+                                FlashSaleAdmissionGate admissionGate,
+                                CacheMetrics cacheMetrics) {
         this.flashSaleItemMapper = flashSaleItemMapper;
         this.flashSaleOrderMapper = flashSaleOrderMapper;
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.idGenerator = idGenerator;
+        this.flashSaleOrderEventPublisher = flashSaleOrderEventPublisher;
+        this.localCache = localCache;
+        this.admissionGate = admissionGate;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @Override
@@ -59,6 +94,7 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         item.setOriginalPrice(request.getOriginalPrice());
         item.setFlashPrice(request.getFlashPrice());
         item.setTotalStock(request.getTotalStock());
+        item.setStockShards(FlashSaleStockShards.normalize(request.getStockShards()));
         item.setStartTime(request.getStartTime());
         item.setEndTime(request.getEndTime());
         item.setStatus("SCHEDULED");
@@ -66,12 +102,24 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         item.setUpdatedAt(LocalDateTime.now());
         flashSaleItemMapper.insert(item);
 
-        cacheItem(item);
-        cacheStock(item.getId(), request.getTotalStock(), Duration.between(LocalDateTime.now(), request.getEndTime()).plusHours(1));
+        warmUp(item);
 
         return toResponse(item, request.getTotalStock());
     }
 
+    @Override
+    public int prewarmUpcomingItems() {
+        LocalDateTime now = LocalDateTime.now();
+        LambdaQueryWrapper<FlashSaleItem> wrapper = new LambdaQueryWrapper<>();
+        wrapper.le(FlashSaleItem::getStartTime, now.plusMinutes(prewarmLeadMinutes))
+                .ge(FlashSaleItem::getEndTime, now);
+        List<FlashSaleItem> items = flashSaleItemMapper.selectList(wrapper);
+        for (FlashSaleItem item : items) {
+            warmUp(item);
+        }
+        return items.size();
+    }
+
     @Override
     public List<FlashSaleItemResponse> listUpcomingAndActiveItems() {
         LocalDateTime now = LocalDateTime.now();
@@ -81,18 +129,20 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         List<FlashSaleItem> items = flashSaleItemMapper.selectList(wrapper);
         List<FlashSaleItemResponse> responses = new ArrayList<>();
         for (FlashSaleItem item : items) {
-            int remaining = getRemainingStock(item.getId(), item.getTotalStock());
+            int remaining = getRemainingStock(item.getId(), item.getStockShards(), item.getTotalStock());
             responses.add(toResponse(item, remaining));
         }
         return responses;
     }
 
     @Override
-    @Transactional
     public Long attemptPurchase(Long userId, Long flashSaleItemId) {
         if (userId == null || flashSaleItemId == null) {
             throw new IllegalArgumentException("用户ID与秒杀活动ID不能为空");
         }
+        if (localCache.isSoldOut(flashSaleItemId)) {
+            throw new IllegalStateException("秒杀已售罄");
+        }
         FlashSaleItem item = findFlashSaleItem(flashSaleItemId)
                 .orElseThrow(() -> new IllegalArgumentException("秒杀活动不存在"));
 
@@ -103,52 +153,275 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         if (now.isAfter(item.getEndTime())) {
             throw new IllegalStateException("秒杀已结束");
         }
+        admissionGate.acquire(flashSaleItemId, item.getTotalStock() == null ? 0 : item.getTotalStock());
 
         Duration expire = Duration.between(now, item.getEndTime()).plusMinutes(5);
         if (expire.isNegative()) {
             expire = Duration.ofMinutes(5);
         }
 
-        String userKey = USER_LOCK_PREFIX + flashSaleItemId + ":" + userId;
-        Boolean lockSuccess = redisTemplate.opsForValue().setIfAbsent(userKey, "1", expire);
-        if (lockSuccess == null) {
+        int shards = FlashSaleStockShards.normalize(item.getStockShards());
+        int homeShard = FlashSaleStockShards.homeShard(userId, shards);
+        long orderId = idGenerator.nextId("flash-sale-order");
+        String reservation = String.valueOf(orderId);
+        String ttlMillis = String.valueOf(expire.toMillis());
+
+        // The home shard marker is the user's only dedupe key: the script takes it even when the home
+        // shard is drained, so a concurrent request of the same user fails there before reaching a sibling.
+        List<String> homeKeys = FlashSaleStockShards.scriptKeys(flashSaleItemId, homeShard, userId);
+        List<String> keys = null;
+        long code = reserve(homeKeys, reservation, ttlMillis, shards > 1);
+        if (code >= 0) {
+            keys = homeKeys;
+        } else if (PurchaseOutcome.fromCode(code) == PurchaseOutcome.CLAIMED) {
+            for (int i = 1; i < shards && keys == null; i++) {
+                List<String> siblingKeys = FlashSaleStockShards.scriptKeys(flashSaleItemId, (homeShard + i) % shards, userId);
+                long siblingCode = reserve(siblingKeys, reservation, ttlMillis, false);
+                if (siblingCode >= 0) {
+                    keys = siblingKeys;
+                    code = siblingCode;
+                } else if (PurchaseOutcome.fromCode(siblingCode) != PurchaseOutcome.SOLD_OUT) {
+                    releaseClaim(homeKeys, reservation);
+                    code = siblingCode;
+                    break;
+                }
+            }
+            if (keys == null && PurchaseOutcome.fromCode(code) == PurchaseOutcome.CLAIMED) {
+                releaseClaim(homeKeys, reservation);
+                code = PurchaseOutcome.SOLD_OUT.code;
+            }
+        }
+        switch (PurchaseOutcome.fromCode(code)) {
+            case DUPLICATE:
+                throw new IllegalStateException("已经抢购成功，请勿重复请求");
+            case STOCK_MISSING:
+                throw new IllegalStateException("库存信息异常");
+            case SOLD_OUT:
+                localCache.markSoldOut(flashSaleItemId);
+                throw new IllegalStateException("秒杀已售罄");
+            default:
+                if (code == 0 && shards == 1) {
+                    localCache.markSoldOut(flashSaleItemId);
+                }
+                // Only this shard's count is known; assume the others drain at the same pace.
+                admissionGate.updateRemainingStock(flashSaleItemId, code * shards);
+                break;
+        }
+
+        List<String> reservedKeys = keys;
+        List<String> claimKeys = keys == homeKeys ? null : homeKeys;
+        try {
+            flashSaleOrderEventPublisher.publishOrderReserved(orderId, flashSaleItemId, userId)
+                    .completable()
+                    .whenComplete((result, throwable) -> {
+                        if (throwable == null) {
+                            return;
+                        }
+                        if (sendDefinitelyFailed(throwable)) {
+                            // The client already holds the order id; leave a FAILED marker for the status poll.
+                            log.warn("Failed to publish flash sale reservation orderId={}", orderId, throwable);
+                            releaseReservation(flashSaleItemId, reservedKeys, claimKeys, reservation, ttlMillis);
+                        } else {
+                            // The record may be on the topic already; giving the unit back could sell it twice.
+                            log.warn("Publishing flash sale reservation orderId={} has an unknown outcome, keeping it",
+                                    orderId, throwable);
+                        }
+                    });
+        } catch (RuntimeException ex) {
+            releaseReservation(flashSaleItemId, reservedKeys, claimKeys, reservation, null);
+            throw new IllegalStateException("系统繁忙，请稍后再试", ex);
+        }
+        return orderId;
+    }
+
+    @Override
+    public FlashSaleOrderStatusResponse getOrderStatus(Long userId, Long flashSaleItemId) {
+        if (userId == null || flashSaleItemId == null) {
+            throw new IllegalArgumentException("用户ID与秒杀活动ID不能为空");
+        }
+        FlashSaleOrder order = flashSaleOrderMapper.selectOne(new LambdaQueryWrapper<FlashSaleOrder>()
+                .eq(FlashSaleOrder::getFlashSaleItemId, flashSaleItemId)
+                .eq(FlashSaleOrder::getUserId, userId));
+        if (order != null) {
+            return new FlashSaleOrderStatusResponse(order.getId(), flashSaleItemId, order.getStatus());
+        }
+        int shards = findFlashSaleItem(flashSaleItemId)
+                .map(item -> FlashSaleStockShards.normalize(item.getStockShards()))
+                .orElse(1);
+        List<String> markers = redisTemplate.opsForValue()
+                .multiGet(FlashSaleStockShards.userKeys(flashSaleItemId, shards, userId));
+        if (markers != null) {
+            for (String reserved : markers) {
+                if (!StringUtils.hasText(reserved)) {
+                    continue;
+                }
+                if (reserved.startsWith(FAILED_MARKER_PREFIX)) {
+                    return new FlashSaleOrderStatusResponse(Long.valueOf(reserved.substring(FAILED_MARKER_PREFIX.length())),
+                            flashSaleItemId, STATUS_FAILED);
+                }
+                return new FlashSaleOrderStatusResponse(Long.valueOf(reserved), flashSaleItemId, STATUS_PREPARING);
+            }
+        }
+        throw new IllegalArgumentException("未找到抢购记录");
+    }
+
+    /**
+     * Whether a failed send certainly left nothing on the topic: the record could not be serialized or the
+     * broker refused it. Timeouts and other retriable errors are ambiguous, since the record may already be
+     * written and will then be confirmed by the consumer; those reservations are kept, at worst underselling.
+     */
+    static boolean sendDefinitelyFailed(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SerializationException
+                    || cause instanceof RecordTooLargeException
+                    || cause instanceof RecordBatchTooLargeException
+                    || cause instanceof InvalidTopicException
+                    || cause instanceof AuthorizationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long reserve(List<String> keys, String reservation, String ttlMillis, boolean claimWhenDrained) {
+        Long code = redisTemplate.execute(PURCHASE_SCRIPT, keys, reservation, ttlMillis, claimWhenDrained ? "1" : "0");
+        if (code == null) {
             throw new IllegalStateException("系统繁忙，请稍后再试");
         }
-        if (!lockSuccess) {
-            throw new IllegalStateException("已经抢购成功，请勿重复请求");
+        return code;
+    }
+
+    private void releaseClaim(List<String> homeKeys, String reservation) {
+        try {
+            release(homeKeys, reservation, false, null);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to release flash sale claim key={}", homeKeys.get(1), ex);
         }
+    }
 
-        String stockKey = STOCK_KEY_PREFIX + flashSaleItemId;
-        Long stockLeft = redisTemplate.opsForValue().decrement(stockKey);
-        if (stockLeft == null) {
-            redisTemplate.delete(userKey);
-            throw new IllegalStateException("库存信息异常");
+    /**
+     * Return the reserved unit and, when it came from a sibling shard, drop the home shard claim as well.
+     * With {@code failedTtlMillis} set, the home marker is replaced by {@code FAILED:<orderId>} instead of
+     * being deleted, so the status endpoint can report the failure; it does not block a new purchase.
+     */
+    private void releaseReservation(Long flashSaleItemId, List<String> keys, List<String> claimKeys,
+                                    String reservation, String failedTtlMillis) {
+        try {
+            Long released = release(keys, reservation, true, claimKeys == null ? failedTtlMillis : null);
+            if (released != null && released == 1L) {
+                localCache.markAvailable(flashSaleItemId);
+            }
+            if (claimKeys != null) {
+                release(claimKeys, reservation, false, failedTtlMillis);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to release flash sale reservation keys={}", keys, ex);
         }
-        if (stockLeft < 0) {
-            redisTemplate.opsForValue().increment(stockKey);
-            redisTemplate.delete(userKey);
-            throw new IllegalStateException("秒杀已售罄");
+    }
+
+    private Long release(List<String> keys, String reservation, boolean restock, String failedTtlMillis) {
+        String restockArg = restock ? "1" : "0";
+        if (failedTtlMillis == null) {
+            return redisTemplate.execute(RELEASE_SCRIPT, keys, reservation, restockArg);
         }
+        return redisTemplate.execute(RELEASE_SCRIPT, keys, reservation, restockArg,
+                FAILED_MARKER_PREFIX + reservation, failedTtlMillis);
+    }
 
-        FlashSaleOrder order = new FlashSaleOrder();
-        order.setFlashSaleItemId(flashSaleItemId);
-        order.setUserId(userId);
-        order.setStatus("PREPARING");
-        order.setCreatedAt(LocalDateTime.now());
-        order.setUpdatedAt(LocalDateTime.now());
-        flashSaleOrderMapper.insert(order);
+    /**
+     * Load the item and its stock shards into Redis. Before {@code startTime} nothing can have been sold,
+     * so shards are seeded from {@code totalStock} with {@code SET NX}. Once the sale is running, missing
+     * shards are re-seeded only from what {@code flash_sale_order} says is left.
+     */
+    private void warmUp(FlashSaleItem item) {
+        cacheItem(item);
+        localCache.putItem(item);
+        LocalDateTime now = LocalDateTime.now();
+        Duration ttl = Duration.between(now, item.getEndTime()).plusHours(1);
+        if (ttl.isNegative()) {
+            ttl = Duration.ofHours(1);
+        }
+        int shards = FlashSaleStockShards.normalize(item.getStockShards());
+        int totalStock = item.getTotalStock() == null ? 0 : item.getTotalStock();
+        if (now.isBefore(item.getStartTime())) {
+            int[] split = FlashSaleStockShards.split(totalStock, shards);
+            for (int shard = 0; shard < shards; shard++) {
+                cacheStock(item.getId(), shard, split[shard], ttl);
+            }
+        } else {
+            reseedRunningSale(item, shards, totalStock, ttl);
+        }
+    }
 
-        return order.getId();
+    /**
+     * Restore shards that are missing while the sale runs (keys lost or evicted, or a sale that started
+     * on the unsharded {@code flash:stock:{id}} counter). The missing shards share whatever neither the
+     * persisted orders nor the surviving shards account for, capped by the legacy counter when it is
+     * still there, and every persisted buyer gets their home-shard marker back so they cannot buy again.
+     * Reservations not yet persisted are unknown here; the unique (item, user) index stops a second
+     * order for those users, at worst leaving a unit unsold.
+     */
+    private void reseedRunningSale(FlashSaleItem item, int shards, int totalStock, Duration ttl) {
+        Long itemId = item.getId();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(FlashSaleStockShards.stockKeys(itemId, shards));
+            List<Integer> missing = new ArrayList<>();
+            long present = 0;
+            for (int shard = 0; shard < shards; shard++) {
+                String value = values == null ? null : values.get(shard);
+                if (value == null) {
+                    missing.add(shard);
+                } else {
+                    present += Math.max(0, Long.parseLong(value));
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            List<FlashSaleOrder> orders = flashSaleOrderMapper.selectList(new LambdaQueryWrapper<FlashSaleOrder>()
+                    .eq(FlashSaleOrder::getFlashSaleItemId, itemId));
+            long left = totalStock - orders.size() - present;
+            String legacy = redisTemplate.opsForValue().get(FlashSaleStockShards.legacyStockKey(itemId));
+            if (legacy != null) {
+                left = Math.min(left, Long.parseLong(legacy) - present);
+            }
+            // Markers go in before the stock, so restored buyers never see a shard they could buy from again.
+            Duration markerTtl = Duration.between(LocalDateTime.now(), item.getEndTime()).plusMinutes(5);
+            if (markerTtl.isNegative()) {
+                markerTtl = Duration.ofMinutes(5);
+            }
+            for (FlashSaleOrder order : orders) {
+                String marker = FlashSaleStockShards.userKey(itemId,
+                        FlashSaleStockShards.homeShard(order.getUserId(), shards), order.getUserId());
+                redisTemplate.opsForValue().setIfAbsent(marker, String.valueOf(order.getId()), markerTtl);
+            }
+            int[] split = FlashSaleStockShards.split((int) Math.max(0, left), missing.size());
+            for (int i = 0; i < missing.size(); i++) {
+                cacheStock(itemId, missing.get(i), split[i], ttl);
+            }
+            log.info("Re-seeded {} of {} stock shards for running flash sale itemId={} with {} units, {} buyers restored",
+                    missing.size(), shards, itemId, Math.max(0, left), orders.size());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to re-seed stock for running flash sale itemId={}", itemId, ex);
+        }
     }
 
     private Optional<FlashSaleItem> findFlashSaleItem(Long id) {
+        FlashSaleItem local = localCache.getItem(id);
+        cacheMetrics.record(FlashSaleLocalCache.ITEM_CACHE, CacheMetrics.L1, local != null);
+        if (local != null) {
+            return Optional.of(local);
+        }
         FlashSaleItem cached = getItemFromCache(id);
+        cacheMetrics.record(FlashSaleLocalCache.ITEM_CACHE, CacheMetrics.L2, cached != null);
         if (cached != null) {
+            localCache.putItem(cached);
             return Optional.of(cached);
         }
-        FlashSaleItem dbItem = flashSaleItemMapper.selectById(id);
+        FlashSaleItem dbItem = cacheMetrics.recordLoad(FlashSaleLocalCache.ITEM_CACHE, () -> flashSaleItemMapper.selectById(id));
         if (dbItem != null) {
             cacheItem(dbItem);
+            localCache.putItem(dbItem);
         }
         return Optional.ofNullable(dbItem);
     }
@@ -161,16 +434,17 @@ public class FlashSaleServiceImpl implements FlashSaleService {
                 ttl = Duration.ofHours(6);
             }
             redisTemplate.opsForValue().set(ITEM_CACHE_PREFIX + item.getId(), payload, ttl);
+            cacheMetrics.recordPayloadSize(FlashSaleLocalCache.ITEM_CACHE, payload.getBytes(StandardCharsets.UTF_8).length);
         } catch (JsonProcessingException ex) {
             log.warn("Failed to cache flash sale item {}: {}", item.getId(), ex.getMessage());
         }
     }
 
-    private void cacheStock(Long itemId, Integer stock, Duration ttl) {
+    private void cacheStock(Long itemId, int shard, int stock, Duration ttl) {
         try {
-            redisTemplate.opsForValue().set(STOCK_KEY_PREFIX + itemId, String.valueOf(stock), ttl);
+            redisTemplate.opsForValue().setIfAbsent(FlashSaleStockShards.stockKey(itemId, shard), String.valueOf(stock), ttl);
         } catch (RuntimeException ex) {
-            log.warn("Failed to cache flash sale stock itemId={}", itemId, ex);
+            log.warn("Failed to cache flash sale stock itemId={} shard={}", itemId, shard, ex);
         }
     }
 
@@ -187,13 +461,20 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         }
     }
 
-    private int getRemainingStock(Long itemId, Integer defaultStock) {
+    private int getRemainingStock(Long itemId, Integer stockShards, Integer defaultStock) {
         try {
-            String value = redisTemplate.opsForValue().get(STOCK_KEY_PREFIX + itemId);
-            if (value == null) {
+            int shards = FlashSaleStockShards.normalize(stockShards);
+            List<String> values = redisTemplate.opsForValue().multiGet(FlashSaleStockShards.stockKeys(itemId, shards));
+            if (values == null || values.stream().allMatch(value -> value == null)) {
                 return defaultStock == null ? 0 : defaultStock;
             }
-            return Integer.parseInt(value);
+            int remaining = 0;
+            for (String value : values) {
+                if (value != null) {
+                    remaining += Math.max(0, Integer.parseInt(value));
+                }
+            }
+            return remaining;
         } catch (RuntimeException ex) {
             log.warn("Failed to read remaining stock for itemId={}", itemId, ex);
             return defaultStock == null ? 0 : defaultStock;
@@ -223,4 +504,33 @@ public class FlashSaleServiceImpl implements FlashSaleService {
                 status
         );
     }
+
+    /**
+     * Typed view over the result codes returned by {@code flash_sale_purchase.lua}.
+     */
+    enum PurchaseOutcome {
+        RESERVED(0),
+        SOLD_OUT(-1),
+        DUPLICATE(-2),
+        STOCK_MISSING(-3),
+        CLAIMED(-4);
+
+        private final long code;
+
+        PurchaseOutcome(long code) {
+            this.code = code;
+        }
+
+        static PurchaseOutcome fromCode(long code) {
+            if (code >= 0) {
+                return RESERVED;
+            }
+            for (PurchaseOutcome outcome : values()) {
+                if (outcome.code == code) {
+                    return outcome;
+                }
+            }
+            return SOLD_OUT;
+        }
+    }
 }
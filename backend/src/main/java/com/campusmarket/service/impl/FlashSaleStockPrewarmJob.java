@@ -0,0 +1,36 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.service.FlashSaleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically pushes upcoming flash sale items and their stock shards into Redis so the first
+ * purchases after {@code startTime} never fall through to the database.
+ */
+@Component
+public class FlashSaleStockPrewarmJob {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleStockPrewarmJob.class);
+
+    private final FlashSaleService flashSaleService;
+
+    public FlashSaleStockPrewarmJob(FlashSaleService flashSaleService) {
+        this.flashSaleService = flashSaleService;
+    }
+
+    @Scheduled(initialDelayString = "${app.flash-sale.prewarm-initial-delay-ms:5000}",
+            fixedDelayString = "${app.flash-sale.prewarm-interval-ms:60000}")
+    public void prewarm() {
+        try {
+            int warmed = flashSaleService.prewarmUpcomingItems();
+            if (warmed > 0) {
+                log.debug("Pre-warmed {} flash sale items", warmed);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Flash sale stock pre-warm failed", ex);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.campusmarket.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Key layout and stock split for sharded flash sale counters.
+ * <p>
+ * Each shard owns a stock counter and the reservation markers of the users routed to it. Both keys
+ * share the {@code {itemId:shard}} hash tag, so the purchase script always touches a single Redis
+ * Cluster slot while different shards of the same item can live on different nodes.
+ */
+final class FlashSaleStockShards {
+
+    static final int MAX_SHARDS = 64;
+
+    private static final String STOCK_KEY_PREFIX = "flash:stock:";
+    private static final String USER_KEY_PREFIX = "flash:user:";
+
+    private FlashSaleStockShards() {
+    }
+
+    static int normalize(Integer shards) {
+        if (shards == null || shards < 1) {
+            return 1;
+        }
+        return Math.min(shards, MAX_SHARDS);
+    }
+
+    static String stockKey(Long itemId, int shard) {
+        return STOCK_KEY_PREFIX + tag(itemId, shard);
+    }
+
+    /**
+     * The unsharded counter used before stock was split; only read when re-seeding a running sale.
+     */
+    static String legacyStockKey(Long itemId) {
+        return STOCK_KEY_PREFIX + itemId;
+    }
+
+    static String userKey(Long itemId, int shard, Long userId) {
+        return USER_KEY_PREFIX + tag(itemId, shard) + ":" + userId;
+    }
+
+    /**
+     * KEYS for the purchase / release scripts: the shard stock counter and the user's marker in that shard.
+     */
+    static List<String> scriptKeys(Long itemId, int shard, Long userId) {
+        return Arrays.asList(stockKey(itemId, shard), userKey(itemId, shard, userId));
+    }
+
+    static List<String> stockKeys(Long itemId, int shards) {
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(stockKey(itemId, shard));
+        }
+        return keys;
+    }
+
+    static List<String> userKeys(Long itemId, int shards, Long userId) {
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(userKey(itemId, shard, userId));
+        }
+        return keys;
+    }
+
+    /**
+     * The shard a user tries first; siblings are tried in ascending order after it.
+     */
+    static int homeShard(Long userId, int shards) {
+        return (int) Math.floorMod(userId == null ? 0L : userId, (long) shards);
+    }
+
+    /**
+     * Split the total stock as evenly as possible, giving the remainder to the lowest shards.
+     */
+    static int[] split(int totalStock, int shards) {
+        int[] result = new int[shards];
+        int base = totalStock / shards;
+        int remainder = totalStock % shards;
+        for (int shard = 0; shard < shards; shard++) {
+            result[shard] = base + (shard < remainder ? 1 : 0);
+        }
+        return result;
+    }
+
+    private static String tag(Long itemId, int shard) {
+        return "{" + itemId + ":" + shard + "}";
+    }
+}
@@ -3,11 +3,19 @@ package com.campusmarket.service.impl;
 import com.campusmarket.service.GoodsCacheService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class GoodsCacheServiceImpl implements GoodsCacheService {
@@ -20,10 +28,29 @@ public class GoodsCacheServiceImpl implements GoodsCacheService {
     public static final String GOODS_DETAIL_KEY_PREFIX = "goods:detail:";
     public static final String GOODS_LIST_KEY_PREFIX = "goods:list:";
 
+    static final String LIST_CACHE = "goods.list";
+
+    /**
+     * List generations: one global, one for lists without a category filter and one per category.
+     */
+    static final String LIST_GENERATION_GLOBAL_KEY = "goods:list-gen:global";
+    static final String LIST_GENERATION_ANY_KEY = "goods:list-gen:any";
+    static final String LIST_GENERATION_CATEGORY_PREFIX = "goods:list-gen:cat:";
+    /**
+     * Eviction cause for a generation bump, which orphans a whole namespace of list pages at once.
+     */
+    private static final String GENERATION_BUMP = "generation";
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheMetrics cacheMetrics;
 
-    public GoodsCacheServiceImpl(RedisTemplate<String, Object> redisTemplate) {
+    public GoodsCacheServiceImpl(RedisTemplate<String, Object> redisTemplate,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 CacheMetrics cacheMetrics) {
         this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @Override
@@ -33,7 +60,9 @@ public class GoodsCacheServiceImpl implements GoodsCacheService {
         }
         String key = GOODS_DETAIL_KEY_PREFIX + goodsId;
         try {
-            redisTemplate.delete(key);
+            if (Boolean.TRUE.equals(redisTemplate.delete(key))) {
+                cacheMetrics.recordEviction(GoodsNearCache.DETAIL_CACHE, CacheMetrics.L2, CacheMetrics.EXPLICIT);
+            }
         } catch (RuntimeException ex) {
             log.debug("Failed to delete goods detail cache key={}", key, ex);
         }
@@ -42,12 +71,85 @@ public class GoodsCacheServiceImpl implements GoodsCacheService {
     @Override
     public void evictGoodsLists() {
         try {
-            Set<String> keys = redisTemplate.keys(GOODS_LIST_KEY_PREFIX + "*");
-            if (!CollectionUtils.isEmpty(keys)) {
-                redisTemplate.delete(keys);
+            stringRedisTemplate.opsForValue().increment(LIST_GENERATION_GLOBAL_KEY);
+            cacheMetrics.recordEviction(LIST_CACHE, CacheMetrics.L2, GENERATION_BUMP);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to bump global goods list generation", ex);
+        }
+    }
+
+    @Override
+    public void evictGoodsLists(String category) {
+        if (!StringUtils.hasText(category)) {
+            evictGoodsLists();
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.incr(LIST_GENERATION_ANY_KEY);
+                redis.incr(LIST_GENERATION_CATEGORY_PREFIX + category);
+                return null;
+            });
+            cacheMetrics.recordEviction(LIST_CACHE, CacheMetrics.L2, GENERATION_BUMP);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to bump goods list generation for category={}", category, ex);
+        }
+    }
+
+    @Override
+    public void evictAllForGoods(Collection<Long> goodsIds, Collection<String> categories) {
+        List<String> detailKeys = goodsIds.stream()
+                .filter(Objects::nonNull)
+                .map(id -> GOODS_DETAIL_KEY_PREFIX + id)
+                .collect(Collectors.toList());
+        if (!detailKeys.isEmpty()) {
+            try {
+                Long deleted = redisTemplate.delete(detailKeys);
+                for (long i = 0; deleted != null && i < deleted; i++) {
+                    cacheMetrics.recordEviction(GoodsNearCache.DETAIL_CACHE, CacheMetrics.L2, CacheMetrics.EXPLICIT);
+                }
+            } catch (RuntimeException ex) {
+                log.debug("Failed to delete {} goods detail cache keys", detailKeys.size(), ex);
             }
+        }
+        if (categories.isEmpty()) {
+            return;
+        }
+        if (categories.stream().anyMatch(category -> !StringUtils.hasText(category))) {
+            evictGoodsLists();
+            return;
+        }
+        Set<String> distinct = new LinkedHashSet<>(categories);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.incr(LIST_GENERATION_ANY_KEY);
+                distinct.forEach(category -> redis.incr(LIST_GENERATION_CATEGORY_PREFIX + category));
+                return null;
+            });
+            distinct.forEach(category -> cacheMetrics.recordEviction(LIST_CACHE, CacheMetrics.L2, GENERATION_BUMP));
         } catch (RuntimeException ex) {
-            log.debug("Failed to delete goods list cache keys", ex);
+            log.warn("Failed to bump goods list generations for categories={}", distinct, ex);
+        }
+    }
+
+    @Override
+    public String goodsListNamespace(String category) {
+        String scopeKey = StringUtils.hasText(category)
+                ? LIST_GENERATION_CATEGORY_PREFIX + category
+                : LIST_GENERATION_ANY_KEY;
+        List<String> generations = stringRedisTemplate.opsForValue()
+                .multiGet(List.of(LIST_GENERATION_GLOBAL_KEY, scopeKey));
+        String global = generation(generations, 0);
+        String scoped = generation(generations, 1);
+        return GOODS_LIST_KEY_PREFIX + "g" + global + "." + scoped + ":";
+    }
+
+    private static String generation(List<String> values, int index) {
+        if (values == null || values.size() <= index || values.get(index) == null) {
+            return "0";
         }
+        return values.get(index);
     }
 }
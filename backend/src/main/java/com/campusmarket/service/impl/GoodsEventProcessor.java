@@ -1,14 +1,26 @@
 package com.campusmarket.service.impl;
 
+import com.campusmarket.entity.GoodsStatus;
 import com.campusmarket.messaging.GoodsEvent;
 import com.campusmarket.messaging.GoodsEventType;
 import com.campusmarket.service.GoodsCacheService;
 import com.campusmarket.service.GoodsMetricsService;
+import com.campusmarket.service.GoodsSearchService;
 import com.campusmarket.service.HotGoodsService;
+import com.campusmarket.service.OrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 public class GoodsEventProcessor {
 
@@ -17,56 +29,153 @@ public class GoodsEventProcessor {
     private final GoodsMetricsService goodsMetricsService;
     private final HotGoodsService hotGoodsService;
     private final GoodsCacheService goodsCacheService;
+    private final GoodsSearchService goodsSearchService;
+    private final GoodsNearCache nearCache;
+    private final GoodsIdBloomFilter goodsIdFilter;
+    private final OrderService orderService;
 
     public GoodsEventProcessor(GoodsMetricsService goodsMetricsService,
                                HotGoodsService hotGoodsService,
-                               GoodsCacheService goodsCacheService) {
+                               GoodsCacheService goodsCacheService,
+                               GoodsSearchService goodsSearchService,
+                               GoodsNearCache nearCache,
+                               GoodsIdBloomFilter goodsIdFilter,
+                               OrderService orderService) {
         this.goodsMetricsService = goodsMetricsService;
         this.hotGoodsService = hotGoodsService;
         this.goodsCacheService = goodsCacheService;
+        this.goodsSearchService = goodsSearchService;
+        this.nearCache = nearCache;
+        this.goodsIdFilter = goodsIdFilter;
+        this.orderService = orderService;
     }
 
-    public void handle(GoodsEvent event) {
-        if (event == null) {
-            return;
+    /**
+     * Drop this instance's near-cache entries affected by the events. Runs on every instance.
+     */
+    public void invalidateNearCache(List<GoodsEvent> events) {
+        boolean changed = false;
+        for (GoodsEvent event : events) {
+            if (event == null || event.getEventType() == null || event.getEventType() == GoodsEventType.GOODS_VIEWED) {
+                continue;
+            }
+            if (event.getEventType() == GoodsEventType.GOODS_CREATED) {
+                goodsIdFilter.addLocal(event.getGoodsId());
+            }
+            nearCache.invalidateDetail(event.getGoodsId());
+            changed = true;
         }
-        GoodsEventType type = event.getEventType();
-        if (type == null) {
-            log.debug("Ignore goods event without type: {}", event);
-            return;
+        if (changed) {
+            nearCache.invalidateHotList();
         }
-        try {
+    }
+
+    /**
+     * Apply one poll's worth of goods events. Work is merged across the batch: view increments are
+     * summed per goods id, and each affected goods id is evicted, reindexed and refreshed once, with a
+     * single list-cache and hot-list invalidation for the whole batch.
+     *
+     * @return the goods ids whose non-view events could not be fully applied, with the failure; the
+     * listener sends those events to a retry topic
+     */
+    public Map<Long, RuntimeException> handleBatch(List<GoodsEvent> events) {
+        Map<Long, Long> views = new HashMap<>();
+        Set<Long> dropMetrics = new LinkedHashSet<>();
+        Set<Long> listed = new LinkedHashSet<>();
+        Set<Long> created = new LinkedHashSet<>();
+        Set<Long> updated = new LinkedHashSet<>();
+        Set<Long> evict = new LinkedHashSet<>();
+        Set<String> categories = new HashSet<>();
+        for (GoodsEvent event : events) {
+            if (event == null || event.getGoodsId() == null) {
+                continue;
+            }
+            GoodsEventType type = event.getEventType();
+            if (type == null) {
+                log.debug("Ignore goods event without type: {}", event);
+                continue;
+            }
+            Long goodsId = event.getGoodsId();
             boolean evictCaches = false;
-            boolean dropMetrics = false;
             switch (type) {
                 case GOODS_VIEWED:
-                    goodsMetricsService.recordView(event.getGoodsId());
+                    views.merge(goodsId, viewCount(event), Long::sum);
                     break;
                 case GOODS_DELETED:
-                    dropMetrics = true;
+                case GOODS_MARKED_SOLD:
+                    dropMetrics.add(goodsId);
                     evictCaches = true;
                     break;
-                case GOODS_MARKED_SOLD:
-                    dropMetrics = true;
+                case GOODS_REVIEWED:
+                    if (GoodsStatus.APPROVED.name().equals(event.getCurrentStatus())) {
+                        listed.add(goodsId);
+                    }
                     evictCaches = true;
                     break;
                 case GOODS_CREATED:
+                    // Repairs the shared filter when the producer failed to write to it.
+                    created.add(goodsId);
+                    evictCaches = true;
+                    break;
                 case GOODS_UPDATED:
-                case GOODS_REVIEWED:
+                    // Title and cover are denormalized onto the order rows shown in order lists.
+                    updated.add(goodsId);
                     evictCaches = true;
                     break;
                 default:
                     log.debug("Unhandled goods event type: {}", type);
             }
-            if (dropMetrics) {
-                goodsMetricsService.removeMetrics(event.getGoodsId());
-            }
             if (evictCaches) {
-                goodsCacheService.evictAllForGoods(event.getGoodsId());
-                hotGoodsService.evictHotCache();
+                evict.add(goodsId);
+                // Events from older producers carry no category; null widens the eviction to all lists.
+                categories.add(event.getCategory());
             }
+        }
+
+        Map<Long, RuntimeException> failures = new LinkedHashMap<>();
+        // Views are not retried: a lost increment is cheaper than replaying the whole merged count.
+        run("record views", views.keySet(), null, () -> goodsMetricsService.recordViews(views));
+        created.forEach(goodsId -> run("add to the id filter", List.of(goodsId), failures,
+                () -> goodsIdFilter.add(goodsId)));
+        listed.forEach(goodsId -> run("record the listing", List.of(goodsId), failures,
+                () -> hotGoodsService.recordListing(goodsId)));
+        updated.forEach(goodsId -> run("refresh order snapshots", List.of(goodsId), failures,
+                () -> orderService.refreshGoodsSnapshot(goodsId)));
+        if (!dropMetrics.isEmpty()) {
+            run("remove metrics", dropMetrics, failures, () -> goodsMetricsService.removeMetrics(dropMetrics));
+        }
+        if (!evict.isEmpty()) {
+            // Second, delayed invalidation after the writer's own: drops entries that a concurrent
+            // reader filled from pre-update rows.
+            run("evict caches", evict, failures, () -> goodsCacheService.evictAllForGoods(evict, categories));
+            run("evict the hot goods cache", evict, failures, hotGoodsService::evictHotCache);
+            // Every event that changes cached goods data can also change its search entry.
+            evict.forEach(goodsId -> run("reindex", List.of(goodsId), failures,
+                    () -> goodsSearchService.reindex(goodsId)));
+        }
+        log.debug("Processed {} goods events: {} viewed, {} evicted, {} failed",
+                events.size(), views.size(), evict.size(), failures.size());
+        return failures;
+    }
+
+    private static long viewCount(GoodsEvent event) {
+        Long count = event.getViewCount();
+        return count == null || count < 1 ? 1L : count;
+    }
+
+    /**
+     * Run one step of the batch; a failure is logged and, when {@code failures} is given, charged to
+     * every goods id the step covered, so it cannot stop the rest of the batch.
+     */
+    private static void run(String action, Collection<Long> goodsIds, Map<Long, RuntimeException> failures,
+                            Runnable step) {
+        try {
+            step.run();
         } catch (RuntimeException ex) {
-            log.warn("Failed to process goods event: {}", event, ex);
+            log.warn("Failed to {} for goods {}", action, goodsIds, ex);
+            if (failures != null) {
+                goodsIds.forEach(goodsId -> failures.putIfAbsent(goodsId, ex));
+            }
         }
     }
 }
@@ -0,0 +1,324 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.mapper.GoodsMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of every goods id ever inserted, consulted before the goods caches and the database so
+ * that lookups of ids that never existed are rejected without touching either.
+ * <p>
+ * The shared copy is a Redis bitmap at {@link #KEY}; each instance keeps a local copy that answers
+ * positives without a round trip. A local miss is confirmed against Redis (one pipelined call) before
+ * the id is rejected, so goods created on another instance are never refused. New ids are added by
+ * {@code createGoods} and by goods events, and the bitmap is rebuilt from the {@code goods} table on a
+ * schedule. Whenever the filter cannot answer (not built yet, Redis down) it lets the lookup through.
+ */
+@Component
+public class GoodsIdBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(GoodsIdBloomFilter.class);
+
+    static final String KEY = "{goods:bloom}:ids";
+    static final String STAGING_KEY = "{goods:bloom}:ids:rebuild";
+    private static final String PENDING_KEY = "{goods:bloom}:pending";
+    private static final String REBUILD_LOCK_KEY = "{goods:bloom}:rebuild-lock";
+    private static final long MAX_BITS = 1L << 32;
+    private static final int SCAN_BATCH_SIZE = 10_000;
+
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = RedisScripts.load("goods_bloom_add.lua", Long.class);
+    private static final DefaultRedisScript<Long> MERGE_SCRIPT = RedisScripts.load("goods_bloom_merge.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final GoodsMapper goodsMapper;
+    private final boolean enabled;
+    private final long bitCount;
+    private final int hashCount;
+    private final Duration rebuildLockTtl;
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter rejected;
+    private final Counter unavailable;
+
+    private volatile AtomicLongArray localBits;
+
+    public GoodsIdBloomFilter(StringRedisTemplate redisTemplate,
+                              GoodsMapper goodsMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.goods-bloom.enabled:true}") boolean enabled,
+                              @Value("${app.goods-bloom.expected-insertions:1000000}") long expectedInsertions,
+                              @Value("${app.goods-bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${app.goods-bloom.rebuild-interval-ms:3600000}") long rebuildIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.goodsMapper = goodsMapper;
+        this.enabled = enabled;
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        this.bitCount = Math.min(MAX_BITS, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        // Only one instance rescans the table per interval; the lock simply expires.
+        this.rebuildLockTtl = Duration.ofMillis(Math.max(1_000, rebuildIntervalMillis / 2));
+
+        this.localHits = checkCounter(meterRegistry, "local_hit");
+        this.remoteHits = checkCounter(meterRegistry, "remote_hit");
+        this.rejected = checkCounter(meterRegistry, "rejected");
+        this.unavailable = checkCounter(meterRegistry, "unavailable");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(KEY))) {
+                reload();
+            } else {
+                rebuild();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to initialize goods id bloom filter", ex);
+        }
+    }
+
+    /**
+     * {@code false} only when the id was definitely never added; {@code true} may be a false positive.
+     */
+    public boolean mightContain(Long goodsId) {
+        if (!enabled || goodsId == null) {
+            return true;
+        }
+        long[] offsets = offsets(goodsId);
+        AtomicLongArray bits = localBits;
+        if (bits != null && allSet(bits, offsets)) {
+            localHits.increment();
+            return true;
+        }
+        List<Object> replies;
+        try {
+            replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.exists(KEY);
+                for (long offset : offsets) {
+                    redis.getBit(KEY, offset);
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.debug("Bloom filter lookup failed for goodsId={}, letting it through", goodsId, ex);
+            unavailable.increment();
+            return true;
+        }
+        if (replies == null || replies.size() != offsets.length + 1 || !isTrue(replies.get(0))) {
+            // Bitmap missing (never built or lost); the next rebuild restores it.
+            unavailable.increment();
+            return true;
+        }
+        for (int i = 1; i < replies.size(); i++) {
+            if (!isTrue(replies.get(i))) {
+                rejected.increment();
+                return false;
+            }
+        }
+        setAll(bits, offsets);
+        remoteHits.increment();
+        return true;
+    }
+
+    /**
+     * Record a new goods id in the shared bitmap and the local copy.
+     */
+    public void add(Long goodsId) {
+        if (!enabled || goodsId == null) {
+            return;
+        }
+        long[] offsets = offsets(goodsId);
+        setAll(localBits, offsets);
+        Object[] args = new Object[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            args[i] = String.valueOf(offsets[i]);
+        }
+        try {
+            redisTemplate.execute(ADD_SCRIPT, List.of(KEY, PENDING_KEY), args);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to add goodsId={} to the bloom filter", goodsId, ex);
+        }
+    }
+
+    /**
+     * Record a goods id in this instance's copy only, for ids another instance already added.
+     */
+    public void addLocal(Long goodsId) {
+        if (enabled && goodsId != null) {
+            setAll(localBits, offsets(goodsId));
+        }
+    }
+
+    /**
+     * Rebuild the shared bitmap from the goods table, keeping bits set concurrently by other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.goods-bloom.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.goods-bloom.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", rebuildLockTtl))) {
+                reload();
+                return;
+            }
+            long started = System.currentTimeMillis();
+            byte[] bitmap = new byte[(int) ((bitCount + 7) >>> 3)];
+            long count = 0;
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = goodsMapper.selectIdsAfter(afterId, SCAN_BATCH_SIZE);
+                for (Long id : ids) {
+                    for (long offset : offsets(id)) {
+                        bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+                    }
+                }
+                count += ids.size();
+                if (ids.size() < SCAN_BATCH_SIZE) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+            byte[] stagingKey = STAGING_KEY.getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(stagingKey, bitmap));
+            redisTemplate.execute(MERGE_SCRIPT, List.of(STAGING_KEY, KEY, PENDING_KEY));
+            log.info("Rebuilt goods id bloom filter from {} ids in {} ms ({} bits, {} hashes)",
+                    count, System.currentTimeMillis() - started, bitCount, hashCount);
+            reload();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to rebuild goods id bloom filter", ex);
+        }
+    }
+
+    /**
+     * Replace the local copy with the current shared bitmap.
+     */
+    @Scheduled(fixedDelayString = "${app.goods-bloom.refresh-interval-ms:300000}",
+            initialDelayString = "${app.goods-bloom.refresh-interval-ms:300000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        byte[] key = KEY.getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] bitmap = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            localBits = bitmap == null ? null : fromRedisBitmap(bitmap);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to load goods id bloom filter from Redis", ex);
+        }
+    }
+
+    /**
+     * Bit offsets for an id by double hashing two 64-bit mixes of it.
+     */
+    long[] offsets(long goodsId) {
+        long h1 = mix(goodsId);
+        long h2 = mix(h1) | 1;
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = Math.floorMod(h1 + i * h2, bitCount);
+        }
+        return offsets;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Redis numbers bitmap offsets from the most significant bit of the first byte.
+     */
+    static AtomicLongArray fromRedisBitmap(byte[] bitmap) {
+        long[] words = new long[(bitmap.length + 7) >>> 3];
+        for (int i = 0; i < bitmap.length; i++) {
+            int b = bitmap[i] & 0xFF;
+            if (b == 0) {
+                continue;
+            }
+            for (int j = 0; j < 8; j++) {
+                if ((b & (0x80 >>> j)) != 0) {
+                    long offset = (long) i * 8 + j;
+                    words[(int) (offset >>> 6)] |= 1L << (offset & 63);
+                }
+            }
+        }
+        return new AtomicLongArray(words);
+    }
+
+    private static boolean allSet(AtomicLongArray bits, long[] offsets) {
+        for (long offset : offsets) {
+            int word = (int) (offset >>> 6);
+            if (word >= bits.length() || (bits.get(word) & (1L << (offset & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setAll(AtomicLongArray bits, long[] offsets) {
+        if (bits == null) {
+            return;
+        }
+        for (long offset : offsets) {
+            int word = (int) (offset >>> 6);
+            if (word >= bits.length()) {
+                continue;
+            }
+            long mask = 1L << (offset & 63);
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private static boolean isTrue(Object reply) {
+        if (reply instanceof Boolean) {
+            return (Boolean) reply;
+        }
+        return reply instanceof Long && (Long) reply > 0;
+    }
+
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static Counter checkCounter(MeterRegistry registry, String result) {
+        return Counter.builder("goods.bloom.checks")
+                .description("Goods id bloom filter lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -1,19 +1,40 @@
 package com.campusmarket.service.impl;
 
 import com.campusmarket.service.GoodsMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PreDestroy;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+/**
+ * Goods counters backed by Redis hashes (exact counts) and sorted sets (rankings).
+ * <p>
+ * Increments are aggregated in memory per goods id and metric and written to Redis in one pipelined
+ * batch, either every {@code flush-interval-ms} or once {@code flush-threshold} events are pending.
+ * A burst of 10,000 views on one item therefore costs two Redis commands instead of 20,000. Each
+ * flushed batch also feeds the {@link HotGoodsScoreBoard}.
+ */
 @Service
 public class GoodsMetricsServiceImpl implements GoodsMetricsService {
 
+    private static final Logger log = LoggerFactory.getLogger(GoodsMetricsServiceImpl.class);
+
     private static final String KEY_ORDERS = "goods:metrics:orders";
     private static final String KEY_CARTS = "goods:metrics:carts";
     private static final String KEY_VIEWS = "goods:metrics:views";
@@ -21,80 +42,205 @@ public class GoodsMetricsServiceImpl implements GoodsMetricsService {
     private static final String ZSET_CARTS = "goods:ranking:carts";
     private static final String ZSET_VIEWS = "goods:ranking:views";
 
+    enum Metric {
+        VIEWS(KEY_VIEWS, ZSET_VIEWS),
+        ORDERS(KEY_ORDERS, ZSET_ORDERS),
+        CARTS(KEY_CARTS, ZSET_CARTS);
+
+        private final String hashKey;
+        private final String rankingKey;
+
+        Metric(String hashKey, String rankingKey) {
+            this.hashKey = hashKey;
+            this.rankingKey = rankingKey;
+        }
+    }
+
     private final StringRedisTemplate redisTemplate;
+    private final HotGoodsScoreBoard hotGoodsScoreBoard;
+    private final Map<Metric, ConcurrentHashMap<Long, Long>> pending = new EnumMap<>(Metric.class);
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${app.goods-metrics.flush-threshold:1000}")
+    private long flushThreshold = 1000;
 
-    public GoodsMetricsServiceImpl(StringRedisTemplate redisTemplate) {
+    public GoodsMetricsServiceImpl(StringRedisTemplate redisTemplate, HotGoodsScoreBoard hotGoodsScoreBoard) {
         this.redisTemplate = redisTemplate;
+        this.hotGoodsScoreBoard = hotGoodsScoreBoard;
+        for (Metric metric : Metric.values()) {
+            pending.put(metric, new ConcurrentHashMap<>());
+        }
     }
 
     @Override
     public void recordView(Long goodsId) {
-        increment(KEY_VIEWS, goodsId);
-        zincrement(ZSET_VIEWS, goodsId);
+        record(Metric.VIEWS, goodsId);
+    }
+
+    @Override
+    public void recordViews(Map<Long, Long> viewsByGoods) {
+        viewsByGoods.forEach((goodsId, views) -> record(Metric.VIEWS, goodsId, views));
     }
 
     @Override
     public void recordOrder(Long goodsId) {
-        increment(KEY_ORDERS, goodsId);
-        zincrement(ZSET_ORDERS, goodsId);
+        record(Metric.ORDERS, goodsId);
     }
 
     @Override
     public void recordCartAddition(Long goodsId) {
-        increment(KEY_CARTS, goodsId);
-        zincrement(ZSET_CARTS, goodsId);
+        record(Metric.CARTS, goodsId);
     }
 
     @Override
     public Map<Long, Long> getOrderCounts(Collection<Long> goodsIds) {
-        return getCounts(KEY_ORDERS, goodsIds);
+        return getCounts(Metric.ORDERS, goodsIds);
     }
 
     @Override
     public Map<Long, Long> getCartCounts(Collection<Long> goodsIds) {
-        return getCounts(KEY_CARTS, goodsIds);
+        return getCounts(Metric.CARTS, goodsIds);
     }
 
     @Override
     public Map<Long, Long> getViewCounts(Collection<Long> goodsIds) {
-        return getCounts(KEY_VIEWS, goodsIds);
+        return getCounts(Metric.VIEWS, goodsIds);
     }
 
+    /**
+     * Best effort, called inside the deleting transaction; the GOODS_DELETED event removes the metrics
+     * again through {@link #removeMetrics(Collection)}, which is retried on failure.
+     */
     @Override
     public void removeMetrics(Long goodsId) {
         if (goodsId == null) {
             return;
         }
         try {
-            String field = goodsId.toString();
-            redisTemplate.opsForHash().delete(KEY_VIEWS, field);
-            redisTemplate.opsForHash().delete(KEY_CARTS, field);
-            redisTemplate.opsForHash().delete(KEY_ORDERS, field);
-            redisTemplate.opsForZSet().remove(ZSET_VIEWS, field);
-            redisTemplate.opsForZSet().remove(ZSET_CARTS, field);
-            redisTemplate.opsForZSet().remove(ZSET_ORDERS, field);
-        } catch (RuntimeException ignored) {
+            removeMetrics(List.of(goodsId));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to remove metrics of goods {}", goodsId, ex);
         }
     }
 
-    private void increment(String key, Long goodsId) {
-        if (goodsId == null) {
+    /**
+     * Runs under the flush lock, so deltas an in-flight flush has already drained for these goods are
+     * written before the removal instead of bringing them back into the rankings after it.
+     */
+    @Override
+    public void removeMetrics(Collection<Long> goodsIds) {
+        if (CollectionUtils.isEmpty(goodsIds)) {
             return;
         }
+        flushLock.lock();
         try {
-            redisTemplate.opsForHash().increment(key, goodsId.toString(), 1);
-        } catch (RuntimeException ignored) {
+            for (Long goodsId : goodsIds) {
+                pending.values().forEach(counters -> counters.remove(goodsId));
+                hotGoodsScoreBoard.remove(goodsId);
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                String[] fields = goodsIds.stream().map(String::valueOf).toArray(String[]::new);
+                for (Metric metric : Metric.values()) {
+                    redis.hDel(metric.hashKey, fields);
+                    redis.zRem(metric.rankingKey, fields);
+                }
+                return null;
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Write all pending increments to Redis in a single pipeline.
+     */
+    @Scheduled(fixedDelayString = "${app.goods-metrics.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void record(Metric metric, Long goodsId) {
+        record(metric, goodsId, 1);
+    }
+
+    private void record(Metric metric, Long goodsId, long delta) {
+        if (goodsId == null || delta <= 0) {
+            return;
+        }
+        pending.get(metric).merge(goodsId, delta, Long::sum);
+        if (pendingEvents.addAndGet(delta) >= flushThreshold && flushLock.tryLock()) {
+            try {
+                doFlush();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void doFlush() {
+        pendingEvents.set(0);
+        Map<Metric, Map<Long, Long>> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                deltas.forEach((metric, counts) -> counts.forEach((goodsId, delta) -> {
+                    String field = goodsId.toString();
+                    redis.hIncrBy(metric.hashKey, field, delta);
+                    redis.zIncrBy(metric.rankingKey, delta, field);
+                }));
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush goods metrics, keeping {} metric groups for the next attempt", deltas.size(), ex);
+            deltas.forEach((metric, counts) -> counts.forEach((goodsId, delta) ->
+                    pending.get(metric).merge(goodsId, delta, Long::sum)));
+            return;
         }
+        hotGoodsScoreBoard.increment(deltas.get(Metric.ORDERS), deltas.get(Metric.CARTS), deltas.get(Metric.VIEWS));
     }
 
-    private Map<Long, Long> getCounts(String key, Collection<Long> goodsIds) {
+    private Map<Metric, Map<Long, Long>> drain() {
+        Map<Metric, Map<Long, Long>> deltas = new EnumMap<>(Metric.class);
+        pending.forEach((metric, counters) -> {
+            Map<Long, Long> counts = new HashMap<>();
+            // Increments are merged atomically per key, so removing an entry takes every increment made
+            // before it and later ones start a fresh entry for the next flush.
+            for (Long goodsId : counters.keySet()) {
+                Long delta = counters.remove(goodsId);
+                if (delta != null && delta > 0) {
+                    counts.put(goodsId, delta);
+                }
+            }
+            if (!counts.isEmpty()) {
+                deltas.put(metric, counts);
+            }
+        });
+        return deltas;
+    }
+
+    private Map<Long, Long> getCounts(Metric metric, Collection<Long> goodsIds) {
         Map<Long, Long> result = new HashMap<>();
         if (CollectionUtils.isEmpty(goodsIds)) {
             return result;
         }
         List<Object> fields = goodsIds.stream().map(String::valueOf).collect(Collectors.toList());
         try {
-            List<Object> values = redisTemplate.opsForHash().multiGet(key, fields);
+            List<Object> values = redisTemplate.opsForHash().multiGet(metric.hashKey, fields);
             for (int i = 0; i < fields.size(); i++) {
                 Object field = fields.get(i);
                 Object value = values.get(i);
@@ -104,16 +250,9 @@ public class GoodsMetricsServiceImpl implements GoodsMetricsService {
         } catch (RuntimeException ignored) {
             goodsIds.forEach(id -> result.put(id, 0L));
         }
+        // Include increments this instance has not flushed yet.
+        Map<Long, Long> counters = pending.get(metric);
+        result.replaceAll((goodsId, count) -> count + counters.getOrDefault(goodsId, 0L));
         return result;
     }
-
-    private void zincrement(String key, Long goodsId) {
-        if (goodsId == null) {
-            return;
-        }
-        try {
-            redisTemplate.opsForZSet().incrementScore(key, goodsId.toString(), 1D);
-        } catch (RuntimeException ignored) {
-        }
-    }
 }
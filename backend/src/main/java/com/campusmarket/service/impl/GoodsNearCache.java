@@ -0,0 +1,77 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsResponse;
+import com.campusmarket.dto.HotGoodsItemResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process L1 in front of the Redis goods caches, so hot goods details and the hot list are served
+ * without a network hop or JSON conversion.
+ * <p>
+ * Entries are size-bounded (Caffeine's W-TinyLFU) and short-lived. Every instance drops changed goods
+ * as soon as the goods event reaches it, and the TTL bounds staleness if an event is missed.
+ */
+@Component
+public class GoodsNearCache {
+
+    static final String DETAIL_CACHE = "goods.detail";
+    static final String HOT_CACHE = "goods.hot";
+    private static final String HOT_KEY = "top";
+
+    private final Cache<Long, GoodsResponse> details;
+    private final Cache<String, List<HotGoodsItemResponse>> hotLists;
+    private final CacheMetrics metrics;
+
+    public GoodsNearCache(CacheMetrics metrics,
+                          @Value("${app.near-cache.detail.max-size:10000}") long detailMaxSize,
+                          @Value("${app.near-cache.detail.ttl-seconds:30}") long detailTtlSeconds,
+                          @Value("${app.near-cache.hot.ttl-seconds:10}") long hotTtlSeconds) {
+        this.metrics = metrics;
+        this.details = Caffeine.newBuilder()
+                .maximumSize(detailMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(detailTtlSeconds))
+                .removalListener(metrics.<Long, GoodsResponse>evictionListener(DETAIL_CACHE))
+                .build();
+        this.hotLists = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(hotTtlSeconds))
+                .removalListener(metrics.<String, List<HotGoodsItemResponse>>evictionListener(HOT_CACHE))
+                .build();
+    }
+
+    public GoodsResponse getDetail(Long goodsId) {
+        GoodsResponse cached = details.getIfPresent(goodsId);
+        metrics.record(DETAIL_CACHE, CacheMetrics.L1, cached != null);
+        return cached;
+    }
+
+    public void putDetail(GoodsResponse goods) {
+        details.put(goods.getId(), goods);
+    }
+
+    public void invalidateDetail(Long goodsId) {
+        if (goodsId != null) {
+            details.invalidate(goodsId);
+        }
+    }
+
+    public List<HotGoodsItemResponse> getHotList() {
+        List<HotGoodsItemResponse> cached = hotLists.getIfPresent(HOT_KEY);
+        metrics.record(HOT_CACHE, CacheMetrics.L1, cached != null);
+        return cached;
+    }
+
+    public void putHotList(List<HotGoodsItemResponse> items) {
+        hotLists.put(HOT_KEY, List.copyOf(items));
+    }
+
+    public void invalidateHotList() {
+        hotLists.invalidateAll();
+    }
+}
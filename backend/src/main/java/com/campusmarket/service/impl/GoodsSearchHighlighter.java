@@ -0,0 +1,106 @@
+package com.campusmarket.service.impl;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Marks query words in goods text with {@code <em>} tags. Text outside the tags is HTML-escaped, so
+ * the result can be rendered as markup.
+ */
+final class GoodsSearchHighlighter {
+
+    static final int SNIPPET_LENGTH = 120;
+    private static final int SNIPPET_LEAD = 30;
+    private static final String OPEN = "<em>";
+    private static final String CLOSE = "</em>";
+
+    private final List<String> words;
+
+    GoodsSearchHighlighter(String query) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[\\s\\p{Punct}]+")) {
+            if (!word.isEmpty()) {
+                unique.add(word);
+            }
+        }
+        // Prefer the longest word when two candidates start at the same position.
+        List<String> sorted = new ArrayList<>(unique);
+        sorted.sort(Comparator.comparingInt(String::length).reversed());
+        this.words = sorted;
+    }
+
+    String highlight(String text) {
+        if (text == null) {
+            return null;
+        }
+        return mark(text, 0, text.length());
+    }
+
+    /**
+     * A window of at most {@link #SNIPPET_LENGTH} characters around the first match, or the start of
+     * the text when nothing matches.
+     */
+    String snippet(String text) {
+        if (text == null) {
+            return null;
+        }
+        int first = firstMatch(text, 0);
+        int start = first < 0 ? 0 : Math.max(0, first - SNIPPET_LEAD);
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        StringBuilder out = new StringBuilder();
+        if (start > 0) {
+            out.append("...");
+        }
+        out.append(mark(text, start, end));
+        if (end < text.length()) {
+            out.append("...");
+        }
+        return out.toString();
+    }
+
+    private String mark(String text, int from, int to) {
+        StringBuilder out = new StringBuilder();
+        int pos = from;
+        while (pos < to) {
+            int match = firstMatch(text, pos);
+            if (match < 0 || match >= to) {
+                break;
+            }
+            int length = Math.min(matchLength(text, match), to - match);
+            out.append(HtmlUtils.htmlEscape(text.substring(pos, match)))
+                    .append(OPEN)
+                    .append(HtmlUtils.htmlEscape(text.substring(match, match + length)))
+                    .append(CLOSE);
+            pos = match + length;
+        }
+        out.append(HtmlUtils.htmlEscape(text.substring(pos, to)));
+        return out.toString();
+    }
+
+    private int firstMatch(String text, int from) {
+        if (words.isEmpty()) {
+            return -1;
+        }
+        for (int i = from; i < text.length(); i++) {
+            if (matchLength(text, i) > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int matchLength(String text, int at) {
+        for (String word : words) {
+            if (text.regionMatches(true, at, word, 0, word.length())) {
+                return word.length();
+            }
+        }
+        return 0;
+    }
+}
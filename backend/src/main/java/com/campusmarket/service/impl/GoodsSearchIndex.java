@@ -0,0 +1,34 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsSearchMatch;
+import com.campusmarket.entity.Goods;
+
+import java.util.List;
+
+/**
+ * Storage side of goods keyword search, selected by {@code app.search.engine}: {@code postgres}
+ * (tsvector and trigram indexes on the goods table) or {@code memory} (a per-instance inverted
+ * index, meant for tests and single-node development).
+ */
+interface GoodsSearchIndex {
+
+    /**
+     * Listed goods matching every term of {@code query}, best match first.
+     */
+    List<GoodsSearchMatch> search(String query, GoodsFilterRequest filter, int offset, int limit);
+
+    /**
+     * Distinct titles of listed goods with a word starting with {@code prefix}.
+     */
+    List<String> suggest(String prefix, int limit);
+
+    void index(Goods goods);
+
+    void remove(Long goodsId);
+
+    /**
+     * Index listed goods that have not been indexed yet, e.g. right after the search schema is deployed.
+     */
+    void backfill();
+}
@@ -0,0 +1,145 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsResponse;
+import com.campusmarket.dto.GoodsSearchHitResponse;
+import com.campusmarket.dto.GoodsSearchMatch;
+import com.campusmarket.dto.GoodsSearchResponse;
+import com.campusmarket.entity.Goods;
+import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.entity.User;
+import com.campusmarket.mapper.GoodsMapper;
+import com.campusmarket.service.GoodsSearchService;
+import com.campusmarket.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class GoodsSearchServiceImpl implements GoodsSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(GoodsSearchServiceImpl.class);
+
+    private static final int MAX_OFFSET = 1000;
+    private static final int MAX_SUGGESTIONS = 10;
+
+    private final GoodsSearchIndex searchIndex;
+    private final GoodsMapper goodsMapper;
+    private final UserService userService;
+
+    public GoodsSearchServiceImpl(GoodsSearchIndex searchIndex,
+                                  GoodsMapper goodsMapper,
+                                  UserService userService) {
+        this.searchIndex = searchIndex;
+        this.goodsMapper = goodsMapper;
+        this.userService = userService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIndex() {
+        try {
+            searchIndex.backfill();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to backfill goods search index", ex);
+        }
+    }
+
+    @Override
+    public GoodsSearchResponse search(GoodsFilterRequest request, int offset, Integer size) {
+        if (request == null || !StringUtils.hasText(request.getKeyword())) {
+            throw new IllegalArgumentException("Keyword is required");
+        }
+        if (offset < 0 || offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + MAX_OFFSET);
+        }
+        int pageSize = KeysetPage.resolveSize(size);
+        String query = request.getKeyword().trim();
+
+        KeysetPage<GoodsSearchMatch> matches = KeysetPage.of(
+                searchIndex.search(query, request, offset, KeysetPage.fetchSize(pageSize)), pageSize);
+        List<GoodsSearchMatch> page = matches.getRows();
+        if (page.isEmpty()) {
+            return new GoodsSearchResponse(List.of(), null, false);
+        }
+
+        Map<Long, Goods> goodsMap = goodsMapper.selectBatchIds(page.stream()
+                        .map(GoodsSearchMatch::getGoodsId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Goods::getId, Function.identity()));
+        Map<Long, User> sellers = userService.findByIds(goodsMap.values().stream()
+                .map(Goods::getSellerId)
+                .collect(Collectors.toSet()));
+        GoodsSearchHighlighter highlighter = new GoodsSearchHighlighter(query);
+        List<GoodsSearchHitResponse> items = new ArrayList<>(page.size());
+        for (GoodsSearchMatch match : page) {
+            Goods goods = goodsMap.get(match.getGoodsId());
+            // The index can trail the table by one event; never return goods that are no longer listed.
+            if (goods == null || !isListed(goods)) {
+                continue;
+            }
+            items.add(new GoodsSearchHitResponse(
+                    toResponse(goods, sellers.get(goods.getSellerId())),
+                    match.getRank(),
+                    highlighter.highlight(goods.getTitle()),
+                    highlighter.snippet(goods.getDescription())));
+        }
+        return new GoodsSearchResponse(items, matches.hasMore() ? offset + pageSize : null, matches.hasMore());
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        if (!StringUtils.hasText(prefix) || limit <= 0) {
+            return List.of();
+        }
+        return searchIndex.suggest(prefix.trim(), Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    @Override
+    public void reindex(Long goodsId) {
+        if (goodsId == null) {
+            return;
+        }
+        Goods goods = goodsMapper.selectById(goodsId);
+        if (goods == null || !isListed(goods)) {
+            searchIndex.remove(goodsId);
+        } else {
+            searchIndex.index(goods);
+        }
+    }
+
+    private boolean isListed(Goods goods) {
+        return GoodsStatus.APPROVED.name().equals(goods.getStatus())
+                && !Boolean.TRUE.equals(goods.getDeleted())
+                && !Boolean.TRUE.equals(goods.getSold())
+                && goods.getQuantity() != null
+                && goods.getQuantity() > 0;
+    }
+
+    private GoodsResponse toResponse(Goods goods, User seller) {
+        String nickname = seller == null ? null : seller.getNickname();
+        return new GoodsResponse(
+                goods.getId(),
+                goods.getTitle(),
+                goods.getDescription(),
+                goods.getCategory(),
+                goods.getPrice(),
+                goods.getCoverImageUrl(),
+                goods.getPublishedAt(),
+                goods.getSellerId(),
+                nickname,
+                Boolean.TRUE.equals(goods.getSold()),
+                goods.getStatus(),
+                goods.getQuantity()
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package com.campusmarket.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits goods text into lower-cased search terms. Latin and digit runs become one term each; Han
+ * runs, which carry no word separators, become overlapping bigrams so that any two-character
+ * substring of a Chinese title is searchable.
+ */
+final class GoodsSearchTokenizer {
+
+    private GoodsSearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        StringBuilder word = new StringBuilder();
+        StringBuilder han = new StringBuilder();
+        text.toLowerCase(Locale.ROOT).codePoints().forEach(cp -> {
+            if (Character.UnicodeScript.of(cp) == Character.UnicodeScript.HAN) {
+                flushWord(word, terms);
+                han.appendCodePoint(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushHan(han, terms);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, terms);
+                flushHan(han, terms);
+            }
+        });
+        flushWord(word, terms);
+        flushHan(han, terms);
+        return terms;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (word.length() > 0) {
+            terms.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushHan(StringBuilder han, List<String> terms) {
+        int[] cps = han.codePoints().toArray();
+        if (cps.length == 1) {
+            terms.add(new String(cps, 0, 1));
+        }
+        for (int i = 0; i + 1 < cps.length; i++) {
+            terms.add(new String(cps, i, 2));
+        }
+        han.setLength(0);
+    }
+}
@@ -2,10 +2,12 @@ package com.campusmarket.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsPageResponse;
 import com.campusmarket.dto.GoodsResponse;
 import com.campusmarket.dto.GoodsUpdateRequest;
 import com.campusmarket.entity.Goods;
 import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.entity.User;
 import com.campusmarket.mapper.GoodsMapper;
 import com.campusmarket.messaging.GoodsEventPublisher;
 import com.campusmarket.service.CartService;
@@ -14,11 +16,11 @@ import com.campusmarket.service.GoodsMetricsService;
 import com.campusmarket.service.GoodsService;
 import com.campusmarket.service.HotGoodsService;
 import com.campusmarket.service.UserService;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
@@ -28,12 +30,12 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import static com.campusmarket.service.impl.GoodsCacheServiceImpl.GOODS_DETAIL_KEY_PREFIX;
-import static com.campusmarket.service.impl.GoodsCacheServiceImpl.GOODS_LIST_KEY_PREFIX;
 
 @Service
 public class GoodsServiceImpl implements GoodsService {
@@ -53,6 +55,9 @@ public class GoodsServiceImpl implements GoodsService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
     private final GoodsEventPublisher goodsEventPublisher;
+    private final RefreshAheadCache refreshAheadCache;
+    private final GoodsNearCache nearCache;
+    private final GoodsIdBloomFilter goodsIdFilter;
 
     public GoodsServiceImpl(GoodsMapper goodsMapper,
                             UserService userService,
@@ -62,7 +67,10 @@ public class GoodsServiceImpl implements GoodsService {
                             GoodsCacheService goodsCacheService,
                             RedisTemplate<String, Object> redisTemplate,
                             ObjectMapper objectMapper,
-                            GoodsEventPublisher goodsEventPublisher) {
+                            GoodsEventPublisher goodsEventPublisher,
+                            RefreshAheadCache refreshAheadCache,
+                            GoodsNearCache nearCache,
+                            GoodsIdBloomFilter goodsIdFilter) {
         this.goodsMapper = goodsMapper;
         this.userService = userService;
         this.cartService = cartService;
@@ -72,6 +80,9 @@ public class GoodsServiceImpl implements GoodsService {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
         this.goodsEventPublisher = goodsEventPublisher;
+        this.refreshAheadCache = refreshAheadCache;
+        this.nearCache = nearCache;
+        this.goodsIdFilter = goodsIdFilter;
     }
 
     @PostConstruct
@@ -122,67 +133,42 @@ public class GoodsServiceImpl implements GoodsService {
         goodsMapper.insert(laptop);
         goodsMapper.insert(textbook);
         goodsMapper.insert(bike);
+        goodsIdFilter.add(laptop.getId());
+        goodsIdFilter.add(textbook.getId());
+        goodsIdFilter.add(bike.getId());
         hotGoodsService.evictHotCache();
     }
 
     @Override
-    public List<GoodsResponse> listGoods(GoodsFilterRequest request) {
-        String cacheKey = buildListCacheKey(request);
-        List<GoodsResponse> cached = getCachedGoodsList(cacheKey);
-        if (cached != null) {
-            return cached;
-        }
-
-        LambdaQueryWrapper<Goods> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Goods::getSold, false);
-        wrapper.eq(Goods::getDeleted, false);
-        wrapper.eq(Goods::getStatus, GoodsStatus.APPROVED.name());
-        wrapper.gt(Goods::getQuantity, 0);
-        if (request != null) {
-            if (StringUtils.hasText(request.getCategory())) {
-                wrapper.eq(Goods::getCategory, request.getCategory());
-            }
-            if (request.getMinPrice() != null) {
-                wrapper.ge(Goods::getPrice, request.getMinPrice());
-            }
-            if (request.getMaxPrice() != null) {
-                wrapper.le(Goods::getPrice, request.getMaxPrice());
-            }
-            if (StringUtils.hasText(request.getKeyword())) {
-                wrapper.like(Goods::getTitle, request.getKeyword());
-            }
-        }
-        wrapper.orderByDesc(Goods::getPublishedAt);
-        List<GoodsResponse> result = goodsMapper.selectList(wrapper)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
-
-        cacheGoodsList(cacheKey, result);
-        return result;
+    public GoodsPageResponse listGoods(GoodsFilterRequest request) {
+        KeysetCursor cursor = KeysetCursor.decode(request == null ? null : request.getCursor());
+        int size = KeysetPage.resolveSize(request == null ? null : request.getSize());
+        String cacheKey = buildListCacheKey(request, size);
+        Object cached = refreshAheadCache.get(GoodsCacheServiceImpl.LIST_CACHE, cacheKey, randomizeTtl(LIST_TTL_SECONDS),
+                () -> loadGoodsPage(request, cursor, size));
+        return convertValue(cached, GoodsPageResponse.class);
     }
 
     @Override
     public GoodsResponse getGoods(Long id, Long viewerId, boolean adminView) {
-        GoodsResponse cached = getCachedGoodsDetail(id);
-        if (cached != null) {
-            validateAccess(cached, viewerId, adminView);
-            return cached;
-        }
-
-        Goods goods = getGoodsEntity(id);
-        if (Boolean.TRUE.equals(goods.getDeleted())) {
-            cacheGoodsNotFound(id);
-            throw new IllegalArgumentException("Goods not found");
+        requireKnownId(id);
+        GoodsResponse response = nearCache.getDetail(id);
+        if (response == null) {
+            Object cached = refreshAheadCache.get(GoodsNearCache.DETAIL_CACHE, GOODS_DETAIL_KEY_PREFIX + id,
+                    randomizeTtl(DETAIL_TTL_SECONDS), () -> loadGoodsDetail(id));
+            if (NULL_MARKER.equals(cached)) {
+                throw new IllegalArgumentException("Goods not found");
+            }
+            response = convertValue(cached, GoodsResponse.class);
+            nearCache.putDetail(response);
         }
-        GoodsResponse response = toResponse(goods);
         validateAccess(response, viewerId, adminView);
-        cacheGoodsDetail(response);
         return response;
     }
 
     @Override
     public Goods getGoodsEntity(Long id) {
+        requireKnownId(id);
         Goods goods = goodsMapper.selectById(id);
         if (goods == null) {
             cacheGoodsNotFound(id);
@@ -198,6 +184,7 @@ public class GoodsServiceImpl implements GoodsService {
     }
 
     @Override
+    @Transactional
     public Goods createGoods(Goods goods) {
         Integer quantity = goods.getQuantity();
         if (quantity == null || quantity < 1) {
@@ -211,12 +198,14 @@ public class GoodsServiceImpl implements GoodsService {
             goods.setCoverImageUrl(getFallbackImage(goods.getCategory()));
         }
         goodsMapper.insert(goods);
-        evictCachesForGoods(goods.getId());
+        goodsIdFilter.add(goods.getId());
+        evictCachesForGoods(goods);
         goodsEventPublisher.publishGoodsCreated(goods);
         return goods;
     }
 
     @Override
+    @Transactional
     public GoodsResponse updateGoods(Long id, GoodsUpdateRequest request, Long sellerId) {
         Goods goods = getGoodsEntity(id);
         if (goods == null || Boolean.TRUE.equals(goods.getDeleted())) {
@@ -239,13 +228,14 @@ public class GoodsServiceImpl implements GoodsService {
         goods.setQuantity(request.getQuantity());
         goods.setSold(goods.getQuantity() <= 0);
         goods.setStatus(GoodsStatus.PENDING_REVIEW.name());
-        goodsMapper.updateById(goods);
-        evictCachesForGoods(goods.getId());
+        updateWithVersionCheck(goods);
+        evictCachesForGoods(goods);
         goodsEventPublisher.publishGoodsUpdated(goods, sellerId, "Seller updated goods and reset status to pending review");
         return toResponse(goods);
     }
 
     @Override
+    @Transactional
     public void deleteGoods(Long id, Long sellerId) {
         Goods goods = getGoodsEntity(id);
         if (goods == null || Boolean.TRUE.equals(goods.getDeleted())) {
@@ -258,35 +248,30 @@ public class GoodsServiceImpl implements GoodsService {
             throw new IllegalArgumentException("商品已售出，无法删除");
         }
         goods.setDeleted(true);
-        goodsMapper.updateById(goods);
-        evictCachesForGoods(id);
+        updateWithVersionCheck(goods);
+        evictCachesForGoods(goods);
         goodsMetricsService.removeMetrics(id);
         goodsEventPublisher.publishGoodsDeleted(goods, sellerId);
     }
 
     @Override
     public List<GoodsResponse> listGoodsBySeller(Long sellerId) {
-        return goodsMapper.selectList(new LambdaQueryWrapper<Goods>()
-                        .eq(Goods::getSellerId, sellerId)
-                        .eq(Goods::getDeleted, false)
-                        .orderByDesc(Goods::getPublishedAt))
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(goodsMapper.selectList(new LambdaQueryWrapper<Goods>()
+                .eq(Goods::getSellerId, sellerId)
+                .eq(Goods::getDeleted, false)
+                .orderByDesc(Goods::getPublishedAt)));
     }
 
     @Override
     public List<GoodsResponse> listGoodsByStatus(GoodsStatus status) {
-        return goodsMapper.selectList(new LambdaQueryWrapper<Goods>()
-                        .eq(Goods::getStatus, status.name())
-                        .eq(Goods::getDeleted, false)
-                        .orderByDesc(Goods::getPublishedAt))
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(goodsMapper.selectList(new LambdaQueryWrapper<Goods>()
+                .eq(Goods::getStatus, status.name())
+                .eq(Goods::getDeleted, false)
+                .orderByDesc(Goods::getPublishedAt)));
     }
 
     @Override
+    @Transactional
     public GoodsResponse reviewGoods(Long id, GoodsStatus status) {
         Goods goods = getGoodsEntity(id);
         if (Boolean.TRUE.equals(goods.getDeleted())) {
@@ -304,39 +289,69 @@ public class GoodsServiceImpl implements GoodsService {
             goods.setPublishedAt(LocalDateTime.now());
         }
         goods.setSold(goods.getQuantity() != null && goods.getQuantity() <= 0);
-        goodsMapper.updateById(goods);
-        evictCachesForGoods(id);
+        updateWithVersionCheck(goods);
+        evictCachesForGoods(goods);
         goodsEventPublisher.publishGoodsReviewed(goods, null, "Status updated to " + status.name());
         return toResponse(goods);
     }
 
+    /**
+     * Adjust stock by one unit with a single conditional UPDATE, so concurrent buyers cannot both take
+     * the last unit and no other column of the row is rewritten.
+     */
     @Override
+    @Transactional
     public void markSold(Long goodsId, boolean soldOperation) {
-        Goods goods = goodsMapper.selectById(goodsId);
+        Goods goods = soldOperation
+                ? goodsMapper.decrementStock(goodsId, 1)
+                : goodsMapper.incrementStock(goodsId, 1);
         if (goods == null) {
-            cacheGoodsNotFound(goodsId);
-            throw new IllegalArgumentException("Goods not found");
-        }
-        int quantity = goods.getQuantity() == null ? 0 : goods.getQuantity();
-        if (soldOperation) {
-            if (quantity <= 0) {
+            if (soldOperation) {
                 throw new IllegalStateException("Insufficient stock for this item");
             }
-            goods.setQuantity(quantity - 1);
-        } else {
-            goods.setQuantity(quantity + 1);
+            cacheGoodsNotFound(goodsId);
+            throw new IllegalArgumentException("Goods not found");
         }
-        goods.setSold(goods.getQuantity() <= 0);
-        goodsMapper.updateById(goods);
-        if (Boolean.TRUE.equals(goods.getSold()) || goods.getQuantity() == null || goods.getQuantity() <= 0) {
+        if (Boolean.TRUE.equals(goods.getSold())) {
             cartService.removeCartItemsByGoodsId(goodsId);
         }
-        evictCachesForGoods(goodsId);
+        evictCachesForGoods(goods);
         goodsEventPublisher.publishGoodsMarkedSold(goods, null);
     }
 
+    private GoodsPageResponse loadGoodsPage(GoodsFilterRequest request, KeysetCursor cursor, int size) {
+        KeysetPage<Goods> page = KeysetPage.of(goodsMapper.selectListedPage(request,
+                cursor == null ? null : cursor.getTimestamp(),
+                cursor == null ? null : cursor.getId(),
+                KeysetPage.fetchSize(size)), size);
+        return new GoodsPageResponse(toResponses(page.getRows()),
+                page.nextCursor(Goods::getPublishedAt, Goods::getId), page.hasMore());
+    }
+
+    private GoodsResponse loadGoodsDetail(Long id) {
+        Goods goods = getGoodsEntity(id);
+        if (Boolean.TRUE.equals(goods.getDeleted())) {
+            cacheGoodsNotFound(id);
+            throw new IllegalArgumentException("Goods not found");
+        }
+        return toResponse(goods);
+    }
+
+    private List<GoodsResponse> toResponses(List<Goods> goodsList) {
+        Map<Long, User> sellers = userService.findByIds(goodsList.stream()
+                .map(Goods::getSellerId)
+                .collect(Collectors.toSet()));
+        return goodsList.stream()
+                .map(goods -> toResponse(goods, sellers.get(goods.getSellerId())))
+                .collect(Collectors.toList());
+    }
+
     private GoodsResponse toResponse(Goods goods) {
-        String nickname = userService.findById(goods.getSellerId()).getNickname();
+        return toResponse(goods, userService.findByIds(List.of(goods.getSellerId())).get(goods.getSellerId()));
+    }
+
+    private GoodsResponse toResponse(Goods goods, User seller) {
+        String nickname = seller == null ? null : seller.getNickname();
         return new GoodsResponse(
                 goods.getId(),
                 goods.getTitle(),
@@ -366,58 +381,43 @@ public class GoodsServiceImpl implements GoodsService {
         return "https://dummyimage.com/600x360/f97316/ffffff.png&text=Goods";
     }
 
-    private void cacheGoodsDetail(GoodsResponse goods) {
-        redisTemplate.opsForValue()
-                .set(GOODS_DETAIL_KEY_PREFIX + goods.getId(), goods, randomizeTtl(DETAIL_TTL_SECONDS));
-    }
-
-    private void cacheGoodsNotFound(Long goodsId) {
-        redisTemplate.opsForValue()
-                .set(GOODS_DETAIL_KEY_PREFIX + goodsId, NULL_MARKER, Duration.ofSeconds(NULL_TTL_SECONDS));
-    }
-
-    private GoodsResponse getCachedGoodsDetail(Long goodsId) {
-        Object cached = redisTemplate.opsForValue().get(GOODS_DETAIL_KEY_PREFIX + goodsId);
-        if (cached == null) {
-            return null;
-        }
-        if (cached instanceof String && NULL_MARKER.equals(cached)) {
+    /**
+     * Reject ids the bloom filter has never seen before any cache or database lookup. Null markers
+     * below only cover its false positives and deleted goods.
+     */
+    private void requireKnownId(Long goodsId) {
+        if (!goodsIdFilter.mightContain(goodsId)) {
             throw new IllegalArgumentException("Goods not found");
         }
-        return convertValue(cached, GoodsResponse.class);
     }
 
-    private void cacheGoodsList(String key, List<GoodsResponse> data) {
-        redisTemplate.opsForValue().set(key, data, randomizeTtl(LIST_TTL_SECONDS));
+    /**
+     * Whole-row updates only apply if nobody changed the row since it was read (optimistic version).
+     */
+    private void updateWithVersionCheck(Goods goods) {
+        if (goodsMapper.updateById(goods) == 0) {
+            throw new IllegalStateException("商品信息已被修改，请刷新后重试");
+        }
     }
 
-    private List<GoodsResponse> getCachedGoodsList(String key) {
-        Object cached = redisTemplate.opsForValue().get(key);
-        if (cached == null) {
-            return null;
-        }
-        if (cached instanceof List<?>) {
-            List<?> list = (List<?>) cached;
-            if (list.isEmpty() || list.get(0) instanceof GoodsResponse) {
-                @SuppressWarnings("unchecked")
-                List<GoodsResponse> typed = (List<GoodsResponse>) list;
-                return typed;
-            }
-        }
-        return objectMapper.convertValue(cached, new TypeReference<List<GoodsResponse>>() {});
+    private void cacheGoodsNotFound(Long goodsId) {
+        redisTemplate.opsForValue()
+                .set(GOODS_DETAIL_KEY_PREFIX + goodsId, NULL_MARKER, Duration.ofSeconds(NULL_TTL_SECONDS));
     }
 
-    private String buildListCacheKey(GoodsFilterRequest request) {
+    private String buildListCacheKey(GoodsFilterRequest request, int size) {
         if (request == null) {
-            return GOODS_LIST_KEY_PREFIX + "all";
+            return goodsCacheService.goodsListNamespace(null) + "all:" + size;
         }
-        String raw = String.format("category=%s|minPrice=%s|maxPrice=%s|keyword=%s",
+        String raw = String.format("category=%s|minPrice=%s|maxPrice=%s|keyword=%s|cursor=%s|size=%d",
                 defaultString(request.getCategory()),
                 Objects.toString(request.getMinPrice(), ""),
                 Objects.toString(request.getMaxPrice(), ""),
-                defaultString(request.getKeyword()));
+                defaultString(request.getKeyword()),
+                defaultString(request.getCursor()),
+                size);
         String digest = DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8));
-        return GOODS_LIST_KEY_PREFIX + digest;
+        return goodsCacheService.goodsListNamespace(request.getCategory()) + digest;
     }
 
     private Duration randomizeTtl(int baseSeconds) {
@@ -425,8 +425,9 @@ public class GoodsServiceImpl implements GoodsService {
         return Duration.ofSeconds(baseSeconds + jitter);
     }
 
-    private void evictCachesForGoods(Long goodsId) {
-        goodsCacheService.evictAllForGoods(goodsId);
+    private void evictCachesForGoods(Goods goods) {
+        goodsCacheService.evictAllForGoods(goods.getId(), goods.getCategory());
+        nearCache.invalidateDetail(goods.getId());
         hotGoodsService.evictHotCache();
     }
 
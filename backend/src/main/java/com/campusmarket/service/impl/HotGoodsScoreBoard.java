@@ -0,0 +1,202 @@
+package com.campusmarket.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Incrementally maintained hot score per goods id, kept in a single Redis sorted set.
+ * <p>
+ * Every flushed metric delta adds {@code weight * delta} with forward time decay (see
+ * {@code lua/hot_goods_increment.lua}), so reading the top N is a plain {@code ZREVRANGE} and never
+ * touches the goods table or scales with catalog size.
+ */
+@Component
+public class HotGoodsScoreBoard {
+
+    private static final Logger log = LoggerFactory.getLogger(HotGoodsScoreBoard.class);
+
+    static final String SCORE_KEY = "{goods:hot}:score";
+    static final String EPOCH_KEY = "{goods:hot}:epoch";
+    private static final String RANKING_ORDERS = "goods:ranking:orders";
+    private static final String RANKING_CARTS = "goods:ranking:carts";
+    private static final String RANKING_VIEWS = "goods:ranking:views";
+    private static final int SEED_CHUNK = 500;
+
+    private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = RedisScripts.load("hot_goods_increment.lua", Long.class);
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = RedisScripts.load("hot_goods_seed.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TOP_SCRIPT = RedisScripts.load("hot_goods_top.lua", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.hot-goods.weights.order:10}")
+    private double orderWeight = 10;
+    @Value("${app.hot-goods.weights.cart:4}")
+    private double cartWeight = 4;
+    @Value("${app.hot-goods.weights.view:1}")
+    private double viewWeight = 1;
+    @Value("${app.hot-goods.weights.listing:20}")
+    private double listingWeight = 20;
+    @Value("${app.hot-goods.half-life-hours:24}")
+    private long halfLifeHours = 24;
+
+    public HotGoodsScoreBoard(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Seed the board from the cumulative ranking sets the first time it is deployed.
+     * <p>
+     * The ranking sets hash to other cluster slots than the hash-tagged board, so they are read one by
+     * one and combined here rather than with a server-side {@code ZUNIONSTORE}.
+     */
+    @PostConstruct
+    public void seedIfEmpty() {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(SCORE_KEY))) {
+                return;
+            }
+            Map<String, Double> scores = new LinkedHashMap<>();
+            addRanking(scores, RANKING_ORDERS, orderWeight);
+            addRanking(scores, RANKING_CARTS, cartWeight);
+            addRanking(scores, RANKING_VIEWS, viewWeight);
+            if (scores.isEmpty()) {
+                return;
+            }
+            String now = String.valueOf(System.currentTimeMillis());
+            List<Map.Entry<String, Double>> entries = new ArrayList<>(scores.entrySet());
+            for (int from = 0; from < entries.size(); from += SEED_CHUNK) {
+                List<String> args = new ArrayList<>(SEED_CHUNK * 2 + 2);
+                args.add(from == 0 ? "1" : "0");
+                args.add(now);
+                for (Map.Entry<String, Double> entry : entries.subList(from, Math.min(entries.size(), from + SEED_CHUNK))) {
+                    args.add(entry.getKey());
+                    args.add(String.valueOf(entry.getValue()));
+                }
+                Long applied = redisTemplate.execute(SEED_SCRIPT, List.of(SCORE_KEY, EPOCH_KEY), args.toArray());
+                if (from == 0 && (applied == null || applied == 0L)) {
+                    log.debug("Hot goods scores were already seeded by another instance");
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to seed hot goods scores from rankings", ex);
+        }
+    }
+
+    /**
+     * Add weighted metric deltas for a batch of goods in one script call.
+     */
+    public void increment(Map<Long, Long> orders, Map<Long, Long> carts, Map<Long, Long> views) {
+        Map<Long, Double> weighted = new HashMap<>();
+        addWeighted(weighted, orders, orderWeight);
+        addWeighted(weighted, carts, cartWeight);
+        addWeighted(weighted, views, viewWeight);
+        apply(weighted);
+    }
+
+    /**
+     * Give newly approved goods a starting score so they can surface before any activity.
+     */
+    public void recordListing(Long goodsId) {
+        if (goodsId != null && listingWeight > 0) {
+            apply(Map.of(goodsId, listingWeight));
+        }
+    }
+
+    public void remove(Long goodsId) {
+        if (goodsId == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(SCORE_KEY, goodsId.toString());
+        } catch (RuntimeException ex) {
+            log.debug("Failed to remove hot score for goodsId={}", goodsId, ex);
+        }
+    }
+
+    /**
+     * Goods ids ranked by current (decayed) hot score, highest first.
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedHashMap<Long, Double> top(long offset, long count) {
+        LinkedHashMap<Long, Double> result = new LinkedHashMap<>();
+        List<Object> reply = redisTemplate.execute(TOP_SCRIPT, List.of(SCORE_KEY, EPOCH_KEY),
+                String.valueOf(offset), String.valueOf(offset + count - 1));
+        if (CollectionUtils.isEmpty(reply)) {
+            return result;
+        }
+        double decay = decaySince(String.valueOf(reply.get(0)));
+        for (int i = 1; i + 1 < reply.size(); i += 2) {
+            double score = Double.parseDouble(String.valueOf(reply.get(i + 1)));
+            result.put(Long.parseLong(String.valueOf(reply.get(i))), score / decay);
+        }
+        return result;
+    }
+
+    private double decaySince(String epoch) {
+        if (epoch.isEmpty()) {
+            return 1D;
+        }
+        return Math.pow(2, (System.currentTimeMillis() - Long.parseLong(epoch)) / (double) halfLifeMillis());
+    }
+
+    private void addRanking(Map<String, Double> scores, String rankingKey, double weight) {
+        if (weight == 0) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet().rangeWithScores(rankingKey, 0, -1);
+        if (tuples == null) {
+            return;
+        }
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                scores.merge(tuple.getValue(), tuple.getScore() * weight, Double::sum);
+            }
+        }
+    }
+
+    private void apply(Map<Long, Double> weighted) {
+        if (weighted.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(weighted.size() * 2 + 2);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(halfLifeMillis()));
+        weighted.forEach((goodsId, delta) -> {
+            args.add(goodsId.toString());
+            args.add(String.valueOf(delta));
+        });
+        try {
+            redisTemplate.execute(INCREMENT_SCRIPT, List.of(SCORE_KEY, EPOCH_KEY), args.toArray());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to update hot scores for {} goods", weighted.size(), ex);
+        }
+    }
+
+    private long halfLifeMillis() {
+        return Duration.ofHours(Math.max(1, halfLifeHours)).toMillis();
+    }
+
+    private static void addWeighted(Map<Long, Double> target, Map<Long, Long> deltas, double weight) {
+        if (deltas == null || weight == 0) {
+            return;
+        }
+        deltas.forEach((goodsId, delta) -> target.merge(goodsId, delta * weight, Double::sum));
+    }
+}
@@ -4,8 +4,8 @@ import com.campusmarket.dto.GoodsResponse;
 import com.campusmarket.dto.HotGoodsItemResponse;
 import com.campusmarket.entity.Goods;
 import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.entity.User;
 import com.campusmarket.mapper.GoodsMapper;
-import com.campusmarket.service.GoodsMetricsService;
 import com.campusmarket.service.HotGoodsService;
 import com.campusmarket.service.UserService;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -14,10 +14,8 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,6 +28,8 @@ public class HotGoodsServiceImpl implements HotGoodsService {
 
     private static final String HOT_CACHE_KEY = "goods:hot:cache";
     private static final long HOT_CACHE_TTL_SECONDS = 300;
+    private static final int HOT_CACHE_SIZE = 50;
+    private static final int MAX_SCAN_PAGES = 5;
     private static final Map<String, String> RANKING_KEYS = Map.of(
             "orders", "goods:ranking:orders",
             "carts", "goods:ranking:carts",
@@ -37,84 +37,64 @@ public class HotGoodsServiceImpl implements HotGoodsService {
     );
 
     private final GoodsMapper goodsMapper;
-    private final GoodsMetricsService metricsService;
+    private final HotGoodsScoreBoard scoreBoard;
     private final UserService userService;
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
+    private final GoodsNearCache nearCache;
+    private final CacheMetrics cacheMetrics;
 
     public HotGoodsServiceImpl(GoodsMapper goodsMapper,
-                               GoodsMetricsService metricsService,
+                               HotGoodsScoreBoard scoreBoard,
                                UserService userService,
                                StringRedisTemplate redisTemplate,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               GoodsNearCache nearCache,
+                               CacheMetrics cacheMetrics) {
         this.goodsMapper = goodsMapper;
-        this.metricsService = metricsService;
+        this.scoreBoard = scoreBoard;
         this.userService = userService;
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.nearCache = nearCache;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @Override
     public List<HotGoodsItemResponse> getTopHotGoods(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<HotGoodsItemResponse> local = nearCache.getHotList();
+        if (covers(local, limit)) {
+            return local.stream().limit(limit).collect(Collectors.toList());
+        }
         List<HotGoodsItemResponse> cached = readCache();
-        if (!CollectionUtils.isEmpty(cached)) {
+        cacheMetrics.record(GoodsNearCache.HOT_CACHE, CacheMetrics.L2, covers(cached, limit));
+        if (covers(cached, limit)) {
+            nearCache.putHotList(cached);
             return cached.stream().limit(limit).collect(Collectors.toList());
         }
 
-        List<Goods> goodsList = goodsMapper.selectList(null).stream()
-                .filter(goods -> goods != null
-                        && !Boolean.TRUE.equals(goods.getDeleted())
-                        && GoodsStatus.APPROVED.name().equals(goods.getStatus())
-                        && Boolean.FALSE.equals(goods.getSold())
-                        && goods.getQuantity() != null
-                        && goods.getQuantity() > 0)
-                .collect(Collectors.toList());
-        if (goodsList.isEmpty()) {
-            return List.of();
-        }
-
-        List<Long> goodsIds = goodsList.stream().map(Goods::getId).collect(Collectors.toList());
-        Map<Long, Long> orderCounts = metricsService.getOrderCounts(goodsIds);
-        Map<Long, Long> cartCounts = metricsService.getCartCounts(goodsIds);
-        Map<Long, Long> viewCounts = metricsService.getViewCounts(goodsIds);
-
-        double maxOrder = maxValue(orderCounts);
-        double maxCart = maxValue(cartCounts);
-        double maxView = maxValue(viewCounts);
-
-        LocalDateTime now = LocalDateTime.now();
-
-        List<HotGoodsItemResponse> scored = new ArrayList<>();
-        for (Goods goods : goodsList) {
-            long orders = orderCounts.getOrDefault(goods.getId(), 0L);
-            long carts = cartCounts.getOrDefault(goods.getId(), 0L);
-            long views = viewCounts.getOrDefault(goods.getId(), 0L);
-
-            double orderScore = maxOrder > 0 ? orders / maxOrder : 0;
-            double cartScore = maxCart > 0 ? carts / maxCart : 0;
-            double viewScore = maxView > 0 ? views / maxView : 0;
-            double timeScore = computeTimeDecay(goods.getPublishedAt(), now);
-
-            double score = orderScore * 0.4
-                    + cartScore * 0.25
-                    + viewScore * 0.25
-                    + timeScore * 0.1;
-
-            GoodsResponse goodsResponse = buildGoodsResponse(goods);
-
-            scored.add(new HotGoodsItemResponse(goodsResponse, score));
-        }
+        List<HotGoodsItemResponse> top = cacheMetrics.recordLoad(GoodsNearCache.HOT_CACHE,
+                () -> collectTop(Math.max(limit, HOT_CACHE_SIZE)));
+        writeCache(top);
+        nearCache.putHotList(top);
+        return top.stream().limit(limit).collect(Collectors.toList());
+    }
 
-        scored.sort(Comparator.comparingDouble(HotGoodsItemResponse::getScore).reversed());
-        List<HotGoodsItemResponse> top = scored.stream().limit(limit).collect(Collectors.toList());
-        writeCache(scored);
-        return top;
+    @Override
+    public void recordListing(Long goodsId) {
+        scoreBoard.recordListing(goodsId);
     }
 
     @Override
     public void evictHotCache() {
+        nearCache.invalidateHotList();
         try {
-            redisTemplate.delete(HOT_CACHE_KEY);
+            if (Boolean.TRUE.equals(redisTemplate.delete(HOT_CACHE_KEY))) {
+                cacheMetrics.recordEviction(GoodsNearCache.HOT_CACHE, CacheMetrics.L2, CacheMetrics.EXPLICIT);
+            }
         } catch (RuntimeException ignored) {
         }
     }
@@ -149,7 +129,8 @@ public class HotGoodsServiceImpl implements HotGoodsService {
                             && GoodsStatus.APPROVED.name().equals(g.getStatus()))
                     .collect(Collectors.toMap(Goods::getId, g -> g));
 
-            List<HotGoodsItemResponse> responses = new ArrayList<>();
+            List<Goods> ranked = new ArrayList<>();
+            List<Double> scores = new ArrayList<>();
             for (org.springframework.data.redis.core.ZSetOperations.TypedTuple<String> tuple : tuples) {
                 if (tuple.getValue() == null) {
                     continue;
@@ -159,18 +140,29 @@ public class HotGoodsServiceImpl implements HotGoodsService {
                 if (goods == null) {
                     continue;
                 }
-                GoodsResponse response = buildGoodsResponse(goods);
-                double score = tuple.getScore() == null ? 0D : tuple.getScore();
-                responses.add(new HotGoodsItemResponse(response, score));
+                ranked.add(goods);
+                scores.add(tuple.getScore() == null ? 0D : tuple.getScore());
             }
-            return responses;
+            return buildItems(ranked, scores);
         } catch (RuntimeException ex) {
             return List.of();
         }
     }
 
-    private GoodsResponse buildGoodsResponse(Goods goods) {
-        String nickname = userService.findById(goods.getSellerId()).getNickname();
+    private List<HotGoodsItemResponse> buildItems(List<Goods> goodsList, List<Double> scores) {
+        Map<Long, User> sellers = userService.findByIds(goodsList.stream()
+                .map(Goods::getSellerId)
+                .collect(Collectors.toSet()));
+        List<HotGoodsItemResponse> items = new ArrayList<>(goodsList.size());
+        for (int i = 0; i < goodsList.size(); i++) {
+            Goods goods = goodsList.get(i);
+            items.add(new HotGoodsItemResponse(buildGoodsResponse(goods, sellers.get(goods.getSellerId())), scores.get(i)));
+        }
+        return items;
+    }
+
+    private GoodsResponse buildGoodsResponse(Goods goods, User seller) {
+        String nickname = seller == null ? null : seller.getNickname();
         return new GoodsResponse(
                 goods.getId(),
                 goods.getTitle(),
@@ -187,17 +179,61 @@ public class HotGoodsServiceImpl implements HotGoodsService {
         );
     }
 
-    private double maxValue(Map<Long, Long> counts) {
-        return counts.values().stream().mapToLong(Long::longValue).max().orElse(0);
+    /**
+     * Walk the score board from the top, skipping goods that are no longer listed, until {@code size}
+     * items are collected. Sold or deleted goods found on the way are dropped from the board.
+     */
+    private List<HotGoodsItemResponse> collectTop(int size) {
+        List<HotGoodsItemResponse> top = new ArrayList<>();
+        long offset = 0;
+        long pageSize = size * 2L;
+        for (int page = 0; page < MAX_SCAN_PAGES && top.size() < size; page++) {
+            Map<Long, Double> scores;
+            try {
+                scores = scoreBoard.top(offset, pageSize);
+            } catch (RuntimeException ex) {
+                return top;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+            List<Goods> listed = new ArrayList<>();
+            List<Double> listedScores = new ArrayList<>();
+            Map<Long, Goods> goodsMap = goodsMapper.selectBatchIds(scores.keySet()).stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toMap(Goods::getId, g -> g));
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Goods goods = goodsMap.get(entry.getKey());
+                if (goods == null || Boolean.TRUE.equals(goods.getDeleted()) || Boolean.TRUE.equals(goods.getSold())) {
+                    scoreBoard.remove(entry.getKey());
+                    continue;
+                }
+                if (!isListed(goods) || top.size() + listed.size() >= size) {
+                    continue;
+                }
+                listed.add(goods);
+                listedScores.add(entry.getValue());
+            }
+            top.addAll(buildItems(listed, listedScores));
+            if (scores.size() < pageSize) {
+                break;
+            }
+            offset += pageSize;
+        }
+        return top;
     }
 
-    private double computeTimeDecay(LocalDateTime publishedAt, LocalDateTime now) {
-        if (publishedAt == null) {
-            return 0.5;
-        }
-        long hours = Duration.between(publishedAt, now).toHours();
-        double days = hours / 24.0;
-        return Math.exp(-0.2 * days);
+    /**
+     * A cached list shorter than HOT_CACHE_SIZE already holds every ranked goods item.
+     */
+    private static boolean covers(List<HotGoodsItemResponse> cached, int limit) {
+        return !CollectionUtils.isEmpty(cached) && (cached.size() >= limit || cached.size() < HOT_CACHE_SIZE);
+    }
+
+    private boolean isListed(Goods goods) {
+        return GoodsStatus.APPROVED.name().equals(goods.getStatus())
+                && goods.getQuantity() != null
+                && goods.getQuantity() > 0;
     }
 
     private List<HotGoodsItemResponse> readCache() {
@@ -218,8 +254,10 @@ public class HotGoodsServiceImpl implements HotGoodsService {
 
     private void writeCache(List<HotGoodsItemResponse> items) {
         try {
-            String payload = objectMapper.writeValueAsString(items);
-            redisTemplate.opsForValue().set(HOT_CACHE_KEY, payload, HOT_CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+            byte[] payload = objectMapper.writeValueAsBytes(items);
+            redisTemplate.opsForValue().set(HOT_CACHE_KEY, new String(payload, StandardCharsets.UTF_8),
+                    HOT_CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+            cacheMetrics.recordPayloadSize(GoodsNearCache.HOT_CACHE, payload.length);
         } catch (Exception ignored) {
         }
     }
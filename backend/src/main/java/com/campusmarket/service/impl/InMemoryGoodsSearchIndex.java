@@ -0,0 +1,191 @@
+package com.campusmarket.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsSearchMatch;
+import com.campusmarket.entity.Goods;
+import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.mapper.GoodsMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-instance inverted index with the same contract as {@link PostgresGoodsSearchIndex}: AND
+ * semantics over {@link GoodsSearchTokenizer} terms, tf-idf ranking with title weighted above
+ * category above description, and prefix suggestions from a sorted title-term dictionary.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemoryGoodsSearchIndex implements GoodsSearchIndex {
+
+    private static final double TITLE_WEIGHT = 3;
+    private static final double CATEGORY_WEIGHT = 2;
+    private static final double DESCRIPTION_WEIGHT = 1;
+
+    private final GoodsMapper goodsMapper;
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> titlePostings = new ConcurrentSkipListMap<>();
+
+    public InMemoryGoodsSearchIndex(GoodsMapper goodsMapper) {
+        this.goodsMapper = goodsMapper;
+    }
+
+    @Override
+    public List<GoodsSearchMatch> search(String query, GoodsFilterRequest filter, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(GoodsSearchTokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> candidates = null;
+        for (String term : terms) {
+            Set<Long> ids = postings.getOrDefault(term, Set.of());
+            if (candidates == null) {
+                candidates = new HashSet<>(ids);
+            } else {
+                candidates.retainAll(ids);
+            }
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+        int total = Math.max(1, documents.size());
+        Map<String, Double> idf = new HashMap<>();
+        for (String term : terms) {
+            idf.put(term, Math.log(1 + (double) total / Math.max(1, postings.getOrDefault(term, Set.of()).size())));
+        }
+        return candidates.stream()
+                .map(documents::get)
+                .filter(doc -> doc != null && doc.matches(filter))
+                .map(doc -> new GoodsSearchMatch(doc.id, terms.stream()
+                        .mapToDouble(term -> doc.weights.getOrDefault(term, 0D) * idf.get(term))
+                        .sum()))
+                .sorted(Comparator.comparingDouble(GoodsSearchMatch::getRank).reversed()
+                        .thenComparing(GoodsSearchMatch::getGoodsId, Comparator.reverseOrder()))
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        List<String> terms = GoodsSearchTokenizer.tokenize(prefix);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String last = terms.get(terms.size() - 1);
+        Set<Long> candidates = new HashSet<>();
+        NavigableMap<String, Set<Long>> range = titlePostings.subMap(last, true, last + Character.MAX_VALUE, true);
+        range.values().forEach(candidates::addAll);
+        for (String term : terms.subList(0, terms.size() - 1)) {
+            candidates.retainAll(titlePostings.getOrDefault(term, Set.of()));
+        }
+        return candidates.stream()
+                .map(documents::get)
+                .filter(doc -> doc != null)
+                .sorted(Comparator.comparing((Document doc) -> doc.publishedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(doc -> doc.title)
+                .distinct()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void index(Goods goods) {
+        remove(goods.getId());
+        Document doc = new Document(goods);
+        documents.put(doc.id, doc);
+        doc.weights.keySet().forEach(term -> postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(doc.id));
+        doc.titleTerms.forEach(term -> titlePostings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(doc.id));
+    }
+
+    @Override
+    public synchronized void remove(Long goodsId) {
+        Document doc = documents.remove(goodsId);
+        if (doc == null) {
+            return;
+        }
+        unlink(postings, doc.weights.keySet(), goodsId);
+        unlink(titlePostings, doc.titleTerms, goodsId);
+    }
+
+    @Override
+    public void backfill() {
+        List<Goods> listed = goodsMapper.selectList(new LambdaQueryWrapper<Goods>()
+                .eq(Goods::getStatus, GoodsStatus.APPROVED.name())
+                .eq(Goods::getSold, false)
+                .eq(Goods::getDeleted, false)
+                .gt(Goods::getQuantity, 0));
+        listed.stream()
+                .filter(goods -> !documents.containsKey(goods.getId()))
+                .forEach(this::index);
+    }
+
+    private static void unlink(ConcurrentSkipListMap<String, Set<Long>> index, Collection<String> terms, Long goodsId) {
+        for (String term : terms) {
+            index.computeIfPresent(term, (t, ids) -> {
+                ids.remove(goodsId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static final class Document {
+
+        private final Long id;
+        private final String title;
+        private final String category;
+        private final BigDecimal price;
+        private final LocalDateTime publishedAt;
+        private final Map<String, Double> weights = new HashMap<>();
+        private final Set<String> titleTerms;
+
+        private Document(Goods goods) {
+            this.id = goods.getId();
+            this.title = goods.getTitle();
+            this.category = goods.getCategory();
+            this.price = goods.getPrice();
+            this.publishedAt = goods.getPublishedAt();
+            List<String> titleTokens = GoodsSearchTokenizer.tokenize(goods.getTitle());
+            this.titleTerms = new HashSet<>(titleTokens);
+            addTerms(titleTokens, TITLE_WEIGHT);
+            addTerms(GoodsSearchTokenizer.tokenize(goods.getCategory()), CATEGORY_WEIGHT);
+            addTerms(GoodsSearchTokenizer.tokenize(goods.getDescription()), DESCRIPTION_WEIGHT);
+        }
+
+        private void addTerms(List<String> terms, double weight) {
+            terms.forEach(term -> weights.merge(term, weight, Double::sum));
+        }
+
+        private boolean matches(GoodsFilterRequest filter) {
+            if (filter == null) {
+                return true;
+            }
+            if (StringUtils.hasText(filter.getCategory()) && !filter.getCategory().equals(category)) {
+                return false;
+            }
+            if (filter.getMinPrice() != null && (price == null || price.compareTo(filter.getMinPrice()) < 0)) {
+                return false;
+            }
+            return filter.getMaxPrice() == null || (price != null && price.compareTo(filter.getMaxPrice()) <= 0);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.campusmarket.service.impl;
+
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for lists ordered by {@code (timestamp, id)} descending: the sort key of the last
+ * item on a page ({@code published_at} for goods, {@code created_at} for orders), URL-safe Base64 encoded.
+ */
+final class KeysetCursor {
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    KeysetCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for the first page
+     * @throws IllegalArgumentException when the cursor was not produced by {@link #encode()}
+     */
+    static KeysetCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.campusmarket.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a list read with a row to spare: the query asks for {@link #fetchSize(int)} rows, and the
+ * extra one, if it comes back, only tells that another page exists, so no COUNT query is needed.
+ */
+final class KeysetPage<T> {
+
+    static final int DEFAULT_SIZE = 20;
+    static final int MAX_SIZE = 50;
+
+    private final List<T> rows;
+    private final boolean hasMore;
+
+    private KeysetPage(List<T> rows, boolean hasMore) {
+        this.rows = rows;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * The requested page size, defaulted when missing and capped at {@link #MAX_SIZE}.
+     */
+    static int resolveSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(requested, MAX_SIZE);
+    }
+
+    static int fetchSize(int size) {
+        return size + 1;
+    }
+
+    /**
+     * @param fetched rows read with a limit of {@link #fetchSize(int)}
+     */
+    static <T> KeysetPage<T> of(List<T> fetched, int size) {
+        boolean hasMore = fetched.size() > size;
+        return new KeysetPage<>(hasMore ? fetched.subList(0, size) : fetched, hasMore);
+    }
+
+    List<T> getRows() {
+        return rows;
+    }
+
+    boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return the cursor of the last row on this page, or {@code null} when this is the last page
+     */
+    String nextCursor(Function<T, LocalDateTime> timestamp, Function<T, Long> id) {
+        if (!hasMore) {
+            return null;
+        }
+        T last = rows.get(rows.size() - 1);
+        return new KeysetCursor(timestamp.apply(last), id.apply(last)).encode();
+    }
+}
@@ -0,0 +1,105 @@
+package com.campusmarket.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment deadlines of unpaid orders, shared by all instances: a sorted set of order ids scored by
+ * deadline (epoch ms). Entries are claimed with a lease and removed once the order has been handled.
+ */
+@Component
+public class OrderPaymentDeadlineQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPaymentDeadlineQueue.class);
+
+    static final String DEADLINES_KEY = "order:payment-deadlines";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = RedisScripts.load("order_deadline_claim.lua", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public OrderPaymentDeadlineQueue(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Register an order's deadline once the surrounding transaction commits, so a rolled-back order is
+     * never queued. Failures are logged; the periodic backfill in {@link OrderTimeoutScheduler} picks
+     * such orders up.
+     */
+    public void schedule(Long orderId, long deadlineMillis) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(orderId, deadlineMillis);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(orderId, deadlineMillis);
+            }
+        });
+    }
+
+    private void add(Long orderId, long deadlineMillis) {
+        try {
+            redisTemplate.opsForZSet().add(DEADLINES_KEY, String.valueOf(orderId), deadlineMillis);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to schedule payment deadline for order {}", orderId, ex);
+        }
+    }
+
+    /**
+     * Register a deadline unless the order is already queued, keeping any lease in place.
+     */
+    public void scheduleIfAbsent(Long orderId, long deadlineMillis) {
+        redisTemplate.opsForZSet().addIfAbsent(DEADLINES_KEY, String.valueOf(orderId), deadlineMillis);
+    }
+
+    /**
+     * Claim up to {@code limit} orders due within {@code lookAheadMillis}, leasing them for {@code leaseMillis}.
+     *
+     * @return order id to deadline (epoch ms), in deadline order
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, Long> claimDue(long lookAheadMillis, long leaseMillis, int limit) {
+        List<Object> reply = redisTemplate.execute(CLAIM_SCRIPT, List.of(DEADLINES_KEY),
+                String.valueOf(lookAheadMillis), String.valueOf(leaseMillis), String.valueOf(limit));
+        Map<Long, Long> due = new LinkedHashMap<>();
+        if (reply == null) {
+            return due;
+        }
+        for (int i = 0; i + 1 < reply.size(); i += 2) {
+            due.put(Long.valueOf(String.valueOf(reply.get(i))),
+                    (long) Double.parseDouble(String.valueOf(reply.get(i + 1))));
+        }
+        return due;
+    }
+
+    /**
+     * Drop orders that no longer need a timeout: handled, paid or canceled by the buyer.
+     */
+    public void remove(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Object> members = new ArrayList<>(orderIds.size());
+        orderIds.forEach(id -> members.add(String.valueOf(id)));
+        try {
+            redisTemplate.opsForZSet().remove(DEADLINES_KEY, members.toArray());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to remove payment deadlines for orders {}", orderIds, ex);
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.campusmarket.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.campusmarket.dto.GoodsResponse;
 import com.campusmarket.dto.OrderCreateRequest;
+import com.campusmarket.dto.OrderPageResponse;
 import com.campusmarket.dto.OrderResponse;
 import com.campusmarket.dto.OrderUpdateStatusRequest;
 import com.campusmarket.entity.Goods;
 import com.campusmarket.entity.GoodsStatus;
 import com.campusmarket.entity.Order;
+import com.campusmarket.entity.OrderRole;
 import com.campusmarket.entity.OrderStatus;
 import com.campusmarket.entity.User;
 import com.campusmarket.mapper.OrderMapper;
@@ -17,56 +17,52 @@ import com.campusmarket.service.GoodsMetricsService;
 import com.campusmarket.service.GoodsService;
 import com.campusmarket.service.OrderService;
 import com.campusmarket.service.UserService;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
-    private static final String ORDER_RATE_KEY_PREFIX = "rate:order:";
-    private static final int ORDER_RATE_LIMIT = 5;
-    private static final long ORDER_RATE_WINDOW_SECONDS = 60;
-
     private final OrderMapper orderMapper;
     private final GoodsService goodsService;
     private final GoodsMetricsService goodsMetricsService;
     private final CartService cartService;
     private final UserService userService;
-    private final StringRedisTemplate stringRedisTemplate;
     private final OrderEventPublisher orderEventPublisher;
+    private final OrderPaymentDeadlineQueue paymentDeadlines;
+    private final Duration paymentTimeout;
 
     public OrderServiceImpl(OrderMapper orderMapper,
                             GoodsService goodsService,
                             GoodsMetricsService goodsMetricsService,
                             CartService cartService,
                             UserService userService,
-                            StringRedisTemplate stringRedisTemplate,
-                            OrderEventPublisher orderEventPublisher) {
+                            OrderEventPublisher orderEventPublisher,
+                            OrderPaymentDeadlineQueue paymentDeadlines,
+                            @Value("${app.order.payment-timeout-minutes:15}") long paymentTimeoutMinutes) {
         this.orderMapper = orderMapper;
         this.goodsService = goodsService;
         this.goodsMetricsService = goodsMetricsService;
         this.cartService = cartService;
         this.userService = userService;
-        this.stringRedisTemplate = stringRedisTemplate;
         this.orderEventPublisher = orderEventPublisher;
+        this.paymentDeadlines = paymentDeadlines;
+        this.paymentTimeout = Duration.ofMinutes(paymentTimeoutMinutes);
     }
 
     @Override
     @Transactional
     public OrderResponse createOrder(Long buyerId, OrderCreateRequest request) {
         Assert.notNull(buyerId, "buyerId must not be null");
-        enforceOrderRateLimit(buyerId);
         Goods goods = goodsService.getGoodsEntity(request.getGoodsId());
         if (Boolean.TRUE.equals(goods.getDeleted())) {
             throw new IllegalStateException("Goods has been removed");
@@ -83,16 +79,24 @@ public class OrderServiceImpl implements OrderService {
         if (Boolean.TRUE.equals(goods.getSold())) {
             throw new IllegalStateException("Goods already sold");
         }
-        userService.findById(buyerId);
+        User buyer = userService.findById(buyerId);
+        User seller = userService.findById(goods.getSellerId());
+        // Authoritative stock check: a conditional UPDATE that fails when another buyer got there first.
+        goodsService.markSold(goods.getId(), true);
 
         Order order = new Order();
         order.setGoodsId(goods.getId());
         order.setBuyerId(buyerId);
+        order.setSellerId(goods.getSellerId());
+        order.setGoodsTitle(goods.getTitle());
+        order.setGoodsCoverImageUrl(goods.getCoverImageUrl());
+        order.setBuyerNickname(buyer.getNickname());
+        order.setSellerNickname(seller.getNickname());
         order.setStatus(OrderStatus.PENDING_PAYMENT);
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
         orderMapper.insert(order);
-        goodsService.markSold(goods.getId(), true);
+        paymentDeadlines.schedule(order.getId(), toEpochMillis(order.getCreatedAt().plus(paymentTimeout)));
         goodsMetricsService.recordOrder(goods.getId());
         cartService.removeCartItemsForUserGoods(buyerId, goods.getId());
         orderEventPublisher.publishOrderCreated(order);
@@ -107,9 +111,11 @@ public class OrderServiceImpl implements OrderService {
         if (order == null) {
             throw new IllegalArgumentException("Order not found");
         }
-        Goods goods = goodsService.getGoodsEntity(order.getGoodsId());
+        Long sellerId = order.getSellerId() != null
+                ? order.getSellerId()
+                : goodsService.getGoodsEntity(order.getGoodsId()).getSellerId();
         boolean isBuyer = order.getBuyerId().equals(userId);
-        boolean isSeller = goods.getSellerId().equals(userId);
+        boolean isSeller = sellerId.equals(userId);
 
         OrderStatus current = order.getStatus();
         OrderStatus target = request.getStatus();
@@ -138,67 +144,67 @@ public class OrderServiceImpl implements OrderService {
                     throw new IllegalArgumentException("Only the buyer can cancel before payment");
                 }
                 order.setStatus(OrderStatus.CANCELED);
-                goodsService.markSold(order.getGoodsId(), false);
-                cartService.removeCartItemsForUserGoods(order.getBuyerId(), order.getGoodsId());
                 break;
             default:
                 throw new IllegalArgumentException("Unsupported status transition");
         }
         order.setUpdatedAt(LocalDateTime.now());
-        orderMapper.updateById(order);
+        // Conditional on the status read above, so a concurrent payment-timeout cancel cannot be overwritten.
+        if (orderMapper.updateStatusIfCurrent(order.getId(), current, order.getStatus(), order.getUpdatedAt()) == 0) {
+            throw new IllegalStateException("订单状态已变化，请刷新后重试");
+        }
+        if (order.getStatus() == OrderStatus.CANCELED) {
+            goodsService.markSold(order.getGoodsId(), false);
+            cartService.removeCartItemsForUserGoods(order.getBuyerId(), order.getGoodsId());
+        }
+        if (current == OrderStatus.PENDING_PAYMENT) {
+            paymentDeadlines.remove(List.of(order.getId()));
+        }
         orderEventPublisher.publishOrderStatusChanged(order, current);
         return toResponse(order);
     }
 
     @Override
-    public List<OrderResponse> listOrders(Long userId) {
-        userService.findById(userId);
-        List<Order> buyerOrders = orderMapper.selectList(new LambdaQueryWrapper<Order>()
-                .eq(Order::getBuyerId, userId));
-
-        List<GoodsResponse> sellerGoods = goodsService.listGoodsBySeller(userId);
-        List<Long> sellerGoodsIds = sellerGoods.stream()
-                .map(GoodsResponse::getId)
-                .collect(Collectors.toList());
-
-        List<Order> sellerOrders = sellerGoodsIds.isEmpty()
-                ? new ArrayList<>()
-                : orderMapper.selectList(new LambdaQueryWrapper<Order>()
-                .in(Order::getGoodsId, sellerGoodsIds));
-
-        Map<Long, Order> merged = new LinkedHashMap<>();
-        buyerOrders.forEach(order -> merged.put(order.getId(), order));
-        sellerOrders.forEach(order -> merged.put(order.getId(), order));
+    @Transactional
+    public List<Long> cancelUnpaidOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        List<Order> canceled = orderMapper.cancelUnpaid(orderIds, LocalDateTime.now());
+        for (Order order : canceled) {
+            goodsService.markSold(order.getGoodsId(), false);
+            orderEventPublisher.publishOrderStatusChanged(order, OrderStatus.PENDING_PAYMENT);
+        }
+        return canceled.stream().map(Order::getId).collect(Collectors.toList());
+    }
 
-        return merged.values()
-                .stream()
-                .sorted(Comparator.comparing(Order::getCreatedAt).reversed())
-                .map(this::toResponse)
+    @Override
+    public OrderPageResponse listOrders(Long userId, OrderRole role, String cursor, Integer size) {
+        Assert.notNull(userId, "userId must not be null");
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPage.resolveSize(size);
+        KeysetPage<Order> page = KeysetPage.of(orderMapper.selectPageForUser(userId, role == OrderRole.SELLER,
+                after == null ? null : after.getTimestamp(),
+                after == null ? null : after.getId(),
+                KeysetPage.fetchSize(pageSize)), pageSize);
+        List<OrderResponse> items = page.getRows().stream()
+                .map(OrderServiceImpl::toResponse)
                 .collect(Collectors.toList());
+        return new OrderPageResponse(items, page.nextCursor(Order::getCreatedAt, Order::getId), page.hasMore());
     }
 
-    private void enforceOrderRateLimit(Long userId) {
-        if (stringRedisTemplate == null) {
-            return;
-        }
-        try {
-            String key = ORDER_RATE_KEY_PREFIX + userId;
-            Long current = stringRedisTemplate.opsForValue().increment(key);
-            if (current != null && current == 1) {
-                stringRedisTemplate.expire(key, ORDER_RATE_WINDOW_SECONDS, TimeUnit.SECONDS);
-            }
-            if (current != null && current > ORDER_RATE_LIMIT) {
-                throw new IllegalStateException("下单过于频繁，请稍后再试");
-            }
-        } catch (Exception ignored) {
-            // 如果 Redis 异常，跳过限流逻辑，保证主流程可用
+    @Override
+    public void refreshGoodsSnapshot(Long goodsId) {
+        if (goodsId != null) {
+            orderMapper.refreshGoodsSnapshot(goodsId);
         }
     }
 
-    private OrderResponse toResponse(Order order) {
-        Goods goods = goodsService.getGoodsEntity(order.getGoodsId());
-        User buyer = userService.findById(order.getBuyerId());
-        User seller = userService.findById(goods.getSellerId());
+    static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static OrderResponse toResponse(Order order) {
         return new OrderResponse(
                 order.getId(),
                 order.getGoodsId(),
@@ -206,11 +212,11 @@ public class OrderServiceImpl implements OrderService {
                 order.getStatus(),
                 order.getCreatedAt(),
                 order.getUpdatedAt(),
-                goods.getTitle(),
-                goods.getCoverImageUrl(),
-                goods.getSellerId(),
-                seller.getNickname(),
-                buyer.getNickname()
+                order.getGoodsTitle(),
+                order.getGoodsCoverImageUrl(),
+                order.getSellerId(),
+                order.getSellerNickname(),
+                order.getBuyerNickname()
         );
     }
 }
@@ -0,0 +1,209 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.Order;
+import com.campusmarket.mapper.OrderMapper;
+import com.campusmarket.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels orders left unpaid past their payment deadline and returns their stock to sale.
+ * <p>
+ * Deadlines live in {@link OrderPaymentDeadlineQueue}. Every poll claims the deadlines due within the
+ * look-ahead window and arms them on an in-process single-thread timer, so each fires close to its own
+ * deadline without polling the set at that resolution. Fired orders are canceled in batches through one
+ * conditional UPDATE. A claim is a lease: if this instance dies before finishing, the deadline comes due
+ * again for another instance. Unpaid orders missing from the queue, e.g. placed while Redis was
+ * unreachable, are backfilled at startup and by a low-frequency sweep of {@code orders}.
+ */
+@Component
+public class OrderTimeoutScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTimeoutScheduler.class);
+
+    static final String BACKFILL_LOCK_KEY = "order:payment-deadlines:backfill-lock";
+    private static final int BACKFILL_BATCH_SIZE = 1_000;
+
+    private final OrderPaymentDeadlineQueue deadlines;
+    private final OrderService orderService;
+    private final OrderMapper orderMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final Duration paymentTimeout;
+    private final long lookAheadMillis;
+    private final long leaseMillis;
+    private final int batchSize;
+    private final Duration backfillInterval;
+
+    private final ScheduledThreadPoolExecutor timer;
+    /**
+     * Orders armed on the timer or waiting to be canceled, so a re-claim does not arm them twice.
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Long> expired = new LinkedBlockingQueue<>();
+    private final Counter canceled;
+    private final Counter skipped;
+    private final Counter failed;
+
+    public OrderTimeoutScheduler(OrderPaymentDeadlineQueue deadlines,
+                                 OrderService orderService,
+                                 OrderMapper orderMapper,
+                                 StringRedisTemplate redisTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.order.timeout.enabled:true}") boolean enabled,
+                                 @Value("${app.order.payment-timeout-minutes:15}") long paymentTimeoutMinutes,
+                                 @Value("${app.order.timeout.look-ahead-ms:5000}") long lookAheadMillis,
+                                 @Value("${app.order.timeout.lease-ms:60000}") long leaseMillis,
+                                 @Value("${app.order.timeout.batch-size:200}") int batchSize,
+                                 @Value("${app.order.timeout.backfill-interval-ms:300000}") long backfillIntervalMillis) {
+        this.deadlines = deadlines;
+        this.orderService = orderService;
+        this.orderMapper = orderMapper;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.paymentTimeout = Duration.ofMinutes(paymentTimeoutMinutes);
+        this.lookAheadMillis = Math.max(0, lookAheadMillis);
+        this.leaseMillis = Math.max(1_000, leaseMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.backfillInterval = Duration.ofMillis(Math.max(1_000, backfillIntervalMillis));
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "order-timeout-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+
+        this.canceled = outcomeCounter(meterRegistry, "canceled");
+        this.skipped = outcomeCounter(meterRegistry, "skipped");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        Gauge.builder("order.payment_timeout.pending", pending, Set::size)
+                .description("Unpaid orders armed on this instance's timer or awaiting cancellation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.order.timeout.poll-interval-ms:1000}")
+    public void claimDue() {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Long> due;
+        try {
+            due = deadlines.claimDue(lookAheadMillis, leaseMillis, batchSize * 10);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to claim due order payment deadlines", ex);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        due.forEach((orderId, deadline) -> {
+            if (pending.add(orderId)) {
+                timer.schedule(() -> expired.offer(orderId), Math.max(0, deadline - now), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.order.timeout.drain-interval-ms:200}")
+    public void drainExpired() {
+        while (!expired.isEmpty()) {
+            List<Long> batch = new ArrayList<>(batchSize);
+            if (expired.drainTo(batch, batchSize) == 0) {
+                return;
+            }
+            process(batch);
+        }
+    }
+
+    void process(List<Long> batch) {
+        try {
+            record(orderService.cancelUnpaidOrders(batch).size(), batch.size());
+            deadlines.remove(batch);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to cancel unpaid orders {} as a batch, retrying one by one", batch, ex);
+            for (Long orderId : batch) {
+                try {
+                    record(orderService.cancelUnpaidOrders(List.of(orderId)).size(), 1);
+                    deadlines.remove(List.of(orderId));
+                } catch (RuntimeException single) {
+                    // Left in the queue; comes due again once its lease runs out.
+                    failed.increment();
+                    log.warn("Failed to cancel unpaid order {}", orderId, single);
+                }
+            }
+        } finally {
+            batch.forEach(pending::remove);
+        }
+    }
+
+    /**
+     * Queue deadlines for unpaid orders whose registration was lost while Redis was unreachable, or that
+     * predate this scheduler. Runs at startup and then periodically; the lock lasts one interval, so a
+     * single instance sweeps per interval across the fleet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.order.timeout.backfill-interval-ms:300000}",
+            fixedDelayString = "${app.order.timeout.backfill-interval-ms:300000}")
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(BACKFILL_LOCK_KEY, "1", backfillInterval);
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+            long afterId = 0;
+            int queued = 0;
+            List<Order> orders;
+            do {
+                orders = orderMapper.selectUnpaidAfter(afterId, BACKFILL_BATCH_SIZE);
+                for (Order order : orders) {
+                    deadlines.scheduleIfAbsent(order.getId(),
+                            OrderServiceImpl.toEpochMillis(order.getCreatedAt().plus(paymentTimeout)));
+                    afterId = order.getId();
+                }
+                queued += orders.size();
+            } while (orders.size() == BACKFILL_BATCH_SIZE);
+            log.info("Checked {} unpaid orders for queued payment deadlines", queued);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to backfill order payment deadlines", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void record(int canceledCount, int processedCount) {
+        canceled.increment(canceledCount);
+        skipped.increment(processedCount - canceledCount);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("order.payment_timeout")
+                .description("Unpaid orders handled at their payment deadline; skipped ones were already paid or canceled")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsSearchMatch;
+import com.campusmarket.entity.Goods;
+import com.campusmarket.mapper.GoodsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Search backed by the {@code goods.search_document} tsvector (GIN) and the trigram index on
+ * {@code goods.title}. The document is rebuilt from goods events rather than on every write.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresGoodsSearchIndex implements GoodsSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresGoodsSearchIndex.class);
+
+    private final GoodsMapper goodsMapper;
+
+    public PostgresGoodsSearchIndex(GoodsMapper goodsMapper) {
+        this.goodsMapper = goodsMapper;
+    }
+
+    @Override
+    public List<GoodsSearchMatch> search(String query, GoodsFilterRequest filter, int offset, int limit) {
+        return goodsMapper.searchListed(filter, query, offset, limit);
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return goodsMapper.selectTitleSuggestions(escapeLike(prefix), limit);
+    }
+
+    @Override
+    public void index(Goods goods) {
+        goodsMapper.refreshSearchDocument(goods.getId());
+    }
+
+    @Override
+    public void remove(Long goodsId) {
+        goodsMapper.clearSearchDocument(goodsId);
+    }
+
+    @Override
+    public void backfill() {
+        int updated = goodsMapper.backfillSearchDocuments();
+        if (updated > 0) {
+            log.info("Built search documents for {} goods", updated);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,151 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.service.RateLimitExceededException;
+import com.campusmarket.service.RateLimitPolicy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared request limiter for {@link RateLimitPolicy} limits.
+ * <p>
+ * Each check is one atomic GCRA script call, so there is no INCR/EXPIRE gap that could leave a counter
+ * without TTL. A rejection tells the caller exactly when the next request would pass; policies that allow
+ * it remember that instant in-process, so a caller hammering an exhausted limit is turned away without a
+ * Redis round trip until then. When Redis is unavailable requests are let through.
+ * <p>
+ * Decisions are counted in {@code rate_limit.decisions{limit,outcome}} with outcomes {@code allowed},
+ * {@code rejected}, {@code rejected_local} and {@code error}.
+ */
+@Component
+public class RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    static final String KEY_PREFIX = "rate:";
+
+    private static final DefaultRedisScript<Long> GCRA_SCRIPT = RedisScripts.load("rate_limit_gcra.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final LongSupplier clock;
+    /**
+     * Key to the {@link #clock} time before which Redis is known to reject it.
+     */
+    private final Cache<String, Long> blockedUntil;
+
+    @Autowired
+    public RedisRateLimiter(StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${app.rate-limit.local-max-keys:100000}") long localMaxKeys) {
+        this(redisTemplate, meterRegistry, enabled, localMaxKeys, System::nanoTime);
+    }
+
+    RedisRateLimiter(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, boolean enabled,
+                     long localMaxKeys, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.clock = clock;
+        this.blockedUntil = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, localMaxKeys))
+                .expireAfterWrite(Duration.ofMinutes(15))
+                .build();
+    }
+
+    /**
+     * Take one request of {@code key}'s allowance.
+     *
+     * @throws RateLimitExceededException when the limit is exhausted
+     */
+    public void acquire(RateLimitPolicy policy, String key) {
+        long waitMillis = tryAcquire(policy, key);
+        if (waitMillis > 0) {
+            throw new RateLimitExceededException(policy.getMessage(),
+                    (long) Math.ceil(waitMillis / 1000D));
+        }
+    }
+
+    /**
+     * Take one request of {@code key}'s allowance without throwing.
+     *
+     * @return 0 when allowed, otherwise the milliseconds until the next request would be
+     */
+    public long tryAcquire(RateLimitPolicy policy, String key) {
+        if (!enabled) {
+            return 0;
+        }
+        String redisKey = redisKey(policy, key);
+        if (policy.isLocalPreCheck()) {
+            Long until = blockedUntil.getIfPresent(redisKey);
+            if (until != null) {
+                long remainingNanos = until - clock.getAsLong();
+                if (remainingNanos > 0) {
+                    count(policy, "rejected_local");
+                    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+                }
+                blockedUntil.invalidate(redisKey);
+            }
+        }
+        long periodMillis = policy.getPeriod().toMillis();
+        long intervalMillis = Math.max(1, periodMillis / policy.getLimit());
+        Long waitMillis;
+        try {
+            waitMillis = redisTemplate.execute(GCRA_SCRIPT, List.of(redisKey),
+                    String.valueOf(intervalMillis), String.valueOf(periodMillis));
+        } catch (RuntimeException ex) {
+            log.warn("Rate limit check failed for {}, letting the request through", redisKey, ex);
+            count(policy, "error");
+            return 0;
+        }
+        if (waitMillis == null || waitMillis <= 0) {
+            count(policy, "allowed");
+            return 0;
+        }
+        if (policy.isLocalPreCheck()) {
+            blockedUntil.put(redisKey, clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(waitMillis));
+        }
+        count(policy, "rejected");
+        return waitMillis;
+    }
+
+    /**
+     * Give {@code key} its full allowance back.
+     */
+    public void reset(RateLimitPolicy policy, String key) {
+        String redisKey = redisKey(policy, key);
+        blockedUntil.invalidate(redisKey);
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to reset rate limit {}", redisKey, ex);
+        }
+    }
+
+    static String redisKey(RateLimitPolicy policy, String key) {
+        return KEY_PREFIX + policy.getMetricName() + ":" + key;
+    }
+
+    private void count(RateLimitPolicy policy, String outcome) {
+        Counter.builder("rate_limit.decisions")
+                .description("Rate limit decisions per limit")
+                .tags("limit", policy.getMetricName(), "outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
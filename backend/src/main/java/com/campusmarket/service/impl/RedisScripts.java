@@ -0,0 +1,22 @@
+package com.campusmarket.service.impl;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+/**
+ * Loads the Lua scripts under {@code src/main/resources/lua}. Each script is read once into a static
+ * constant of its caller; {@code RedisTemplate.execute} then runs it by SHA and only sends the body
+ * again after a {@code NOSCRIPT} reply.
+ */
+final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    static <T> DefaultRedisScript<T> load(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/" + name));
+        script.setResultType(resultType);
+        return script;
+    }
+}
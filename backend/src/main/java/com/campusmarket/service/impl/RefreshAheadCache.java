@@ -0,0 +1,260 @@
+package com.campusmarket.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Read-through Redis cache that keeps cache expiry from turning into a database stampede.
+ * <p>
+ * Concurrent misses for one key on this node share a single load (single-flight), and a short
+ * {@code lock:{key}} mutex in Redis lets only one node load it; the others briefly poll for the
+ * result. Entries carry a logical expiry ({@link CacheEnvelope#getRefreshAt()}) well before the
+ * Redis TTL: past it the stale value is still returned while one background refresh replaces it.
+ */
+@Component
+public class RefreshAheadCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    static final String LOCK_PREFIX = "lock:";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(3);
+    private static final String NO_LOCK = "";
+    private static final long WAIT_STEP_MILLIS = 50;
+    private static final int MAX_WAIT_STEPS = 20;
+
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheMetrics metrics;
+    private final ExecutorService refreshExecutor;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public RefreshAheadCache(RedisTemplate<String, Object> redisTemplate,
+                             StringRedisTemplate stringRedisTemplate,
+                             CacheMetrics metrics) {
+        this(redisTemplate, stringRedisTemplate, metrics, newRefreshExecutor());
+    }
+
+    RefreshAheadCache(RedisTemplate<String, Object> redisTemplate,
+                      StringRedisTemplate stringRedisTemplate,
+                      CacheMetrics metrics,
+                      ExecutorService refreshExecutor) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.metrics = metrics;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Return the cached value for {@code key}, loading it with {@code loader} on a miss. The value is
+     * considered fresh for {@code ttl} and kept in Redis for twice that. Exceptions thrown by the
+     * loader reach every caller waiting on the same load. Lookups, load times and payload sizes are
+     * recorded under {@code cacheName}, level {@code l2}; a plain cached value counts as a null hit.
+     */
+    public Object get(String cacheName, String key, Duration ttl, Supplier<?> loader) {
+        Object cached = read(key);
+        if (cached instanceof CacheEnvelope) {
+            metrics.record(cacheName, CacheMetrics.L2, true);
+            CacheEnvelope envelope = (CacheEnvelope) cached;
+            if (envelope.getRefreshAt() <= System.currentTimeMillis()) {
+                refreshInBackground(cacheName, key, ttl, loader);
+            }
+            return envelope.getValue();
+        }
+        if (cached != null) {
+            // Plain values (null markers) have no logical expiry.
+            metrics.recordNullHit(cacheName, CacheMetrics.L2);
+            return cached;
+        }
+        metrics.record(cacheName, CacheMetrics.L2, false);
+        return loadOnce(cacheName, key, ttl, loader);
+    }
+
+    public void put(String cacheName, String key, Object value, Duration ttl) {
+        CacheEnvelope envelope = new CacheEnvelope(value, System.currentTimeMillis() + ttl.toMillis());
+        try {
+            redisTemplate.opsForValue().set(key, envelope, ttl.multipliedBy(2));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to cache key={}", key, ex);
+            return;
+        }
+        recordPayloadSize(cacheName, envelope);
+    }
+
+    private Object loadOnce(String cacheName, String key, Duration ttl, Supplier<?> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+        try {
+            Object value = loadAcrossNodes(cacheName, key, ttl, loader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Object loadAcrossNodes(String cacheName, String key, Duration ttl, Supplier<?> loader) {
+        String token = tryLock(key);
+        if (token == null) {
+            Object loadedElsewhere = awaitOtherNode(key);
+            if (loadedElsewhere != null) {
+                return loadedElsewhere;
+            }
+            // The holder is slow or gone; load ourselves rather than fail the request.
+        }
+        try {
+            Object value = metrics.recordLoad(cacheName, loader);
+            put(cacheName, key, value, ttl);
+            return value;
+        } finally {
+            unlock(key, token);
+        }
+    }
+
+    private Object awaitOtherNode(String key) {
+        for (int step = 0; step < MAX_WAIT_STEPS; step++) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(WAIT_STEP_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object cached = read(key);
+            if (cached != null) {
+                return cached instanceof CacheEnvelope ? ((CacheEnvelope) cached).getValue() : cached;
+            }
+        }
+        return null;
+    }
+
+    private void refreshInBackground(String cacheName, String key, Duration ttl, Supplier<?> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                String token = tryLock(key);
+                try {
+                    if (token != null) {
+                        put(cacheName, key, metrics.recordLoad(cacheName, loader), ttl);
+                    }
+                } catch (RuntimeException ex) {
+                    log.debug("Background refresh failed for key={}", key, ex);
+                } finally {
+                    unlock(key, token);
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Entries are written only after a load, so sizing them with a second serialization is cheap next
+     * to the load itself.
+     */
+    @SuppressWarnings("unchecked")
+    private void recordPayloadSize(String cacheName, CacheEnvelope envelope) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        if (serializer == null) {
+            return;
+        }
+        try {
+            byte[] payload = serializer.serialize(envelope);
+            if (payload != null) {
+                metrics.recordPayloadSize(cacheName, payload.length);
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Failed to size cache entry for {}", cacheName, ex);
+        }
+    }
+
+    private Object read(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read cache key={}", key, ex);
+            return null;
+        }
+    }
+
+    /**
+     * @return the lock token, {@link #NO_LOCK} when Redis is unavailable, or null when another node holds the lock
+     */
+    private String tryLock(String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + key, token, LOCK_TTL))
+                    ? token
+                    : null;
+        } catch (RuntimeException ex) {
+            return NO_LOCK;
+        }
+    }
+
+    private void unlock(String key, String token) {
+        if (token == null || NO_LOCK.equals(token)) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_PREFIX + key), token);
+        } catch (RuntimeException ex) {
+            log.debug("Failed to release cache lock for key={}", key, ex);
+        }
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,198 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Two-level cache of public user profiles (id, username, nickname, role, avatar) used to resolve
+ * sellers, buyers and chat partners in list responses.
+ * <p>
+ * L1 is a per-instance LRU, L2 is {@code user:profile:{id}} in Redis. Misses on both levels are
+ * loaded in one batch. {@link #evict(Long)} drops the Redis entry and tells every instance to drop
+ * its local copy over the {@link #CHANNEL} pub/sub channel. Password and phone are never cached.
+ */
+@Component
+public class UserProfileCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProfileCache.class);
+
+    static final String CHANNEL = "user:profile-evict";
+    private static final String KEY_PREFIX = "user:profile:";
+    private static final Duration REDIS_TTL = Duration.ofMinutes(30);
+    private static final String CACHE_NAME = "user.profile";
+
+    private final Cache<Long, User> local;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final CacheMetrics cacheMetrics;
+
+    public UserProfileCache(StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper,
+                            RedisMessageListenerContainer listenerContainer,
+                            CacheMetrics cacheMetrics) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.listenerContainer = listenerContainer;
+        this.cacheMetrics = cacheMetrics;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .removalListener(cacheMetrics.<Long, User>evictionListener(CACHE_NAME))
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Resolve profiles for the given ids, loading whatever neither cache level has in one call.
+     * Ids the loader does not return are absent from the result.
+     */
+    public Map<Long, User> getAll(Collection<Long> ids, Function<Set<Long>, Collection<User>> loader) {
+        Map<Long, User> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            User cached = local.getIfPresent(id);
+            cacheMetrics.record(CACHE_NAME, CacheMetrics.L1, cached != null);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        int lookedUp = missing.size();
+        readFromRedis(missing, result);
+        missing.removeAll(result.keySet());
+        cacheMetrics.record(CACHE_NAME, CacheMetrics.L2, lookedUp - missing.size(), missing.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<User> loaded = new ArrayList<>();
+        for (User user : cacheMetrics.recordLoad(CACHE_NAME, () -> loader.apply(missing))) {
+            if (user != null && user.getId() != null) {
+                User profile = toProfile(user);
+                local.put(profile.getId(), profile);
+                result.put(profile.getId(), profile);
+                loaded.add(profile);
+            }
+        }
+        writeToRedis(loaded);
+        return result;
+    }
+
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        local.invalidate(userId);
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.delete(KEY_PREFIX + userId))) {
+                cacheMetrics.recordEviction(CACHE_NAME, CacheMetrics.L2, CacheMetrics.EXPLICIT);
+            }
+            redisTemplate.convertAndSend(CHANNEL, userId.toString());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to evict cached profile for userId={}", userId, ex);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            local.invalidate(Long.valueOf(body));
+        } catch (NumberFormatException ex) {
+            log.debug("Ignore malformed profile eviction message: {}", body);
+        }
+    }
+
+    private void readFromRedis(Set<Long> ids, Map<Long, User> result) {
+        List<Long> order = new ArrayList<>(ids);
+        List<String> keys = order.stream().map(id -> KEY_PREFIX + id).collect(Collectors.toList());
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return;
+            }
+            for (int i = 0; i < order.size() && i < values.size(); i++) {
+                String json = values.get(i);
+                if (json == null) {
+                    continue;
+                }
+                User user = objectMapper.readValue(json, User.class);
+                local.put(order.get(i), user);
+                result.put(order.get(i), user);
+            }
+        } catch (Exception ex) {
+            log.warn("Failed to read cached user profiles", ex);
+        }
+    }
+
+    private void writeToRedis(List<User> profiles) {
+        if (profiles.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> payloads = new HashMap<>();
+            for (User profile : profiles) {
+                String json = objectMapper.writeValueAsString(profile);
+                payloads.put(KEY_PREFIX + profile.getId(), json);
+                cacheMetrics.recordPayloadSize(CACHE_NAME, json.getBytes(StandardCharsets.UTF_8).length);
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                payloads.forEach((key, json) -> redis.setEx(key, REDIS_TTL.getSeconds(), json));
+                return null;
+            });
+        } catch (Exception ex) {
+            log.warn("Failed to cache {} user profiles", profiles.size(), ex);
+        }
+    }
+
+    private static User toProfile(User user) {
+        User profile = new User();
+        profile.setId(user.getId());
+        profile.setUsername(user.getUsername());
+        profile.setNickname(user.getNickname());
+        profile.setRole(user.getRole());
+        profile.setAvatarUrl(user.getAvatarUrl());
+        profile.setCreatedAt(user.getCreatedAt());
+        return profile;
+    }
+}
@@ -8,6 +8,7 @@ import com.campusmarket.dto.UserProfileResponse;
 import com.campusmarket.entity.User;
 import com.campusmarket.mapper.UserMapper;
 import com.campusmarket.security.jwt.JwtTokenProvider;
+import com.campusmarket.service.RateLimitPolicy;
 import com.campusmarket.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,10 +16,14 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -26,25 +31,28 @@ import java.util.concurrent.TimeUnit;
 public class UserServiceImpl implements UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
-    private static final String LOGIN_FAIL_PREFIX = "auth:fail:";
     private static final String LOGIN_LOCK_PREFIX = "auth:lock:";
-    private static final int FAIL_THRESHOLD = 5;
-    private static final long FAIL_WINDOW_MINUTES = 15;
     private static final long LOCK_DURATION_MINUTES = 15;
 
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final StringRedisTemplate redisTemplate;
+    private final UserProfileCache profileCache;
+    private final RedisRateLimiter rateLimiter;
 
     public UserServiceImpl(UserMapper userMapper,
                            PasswordEncoder passwordEncoder,
                            JwtTokenProvider jwtTokenProvider,
-                           StringRedisTemplate redisTemplate) {
+                           StringRedisTemplate redisTemplate,
+                           UserProfileCache profileCache,
+                           RedisRateLimiter rateLimiter) {
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.redisTemplate = redisTemplate;
+        this.profileCache = profileCache;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostConstruct
@@ -122,6 +130,14 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
+    @Override
+    public Map<Long, User> findByIds(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return new HashMap<>();
+        }
+        return profileCache.getAll(ids, userMapper::selectBatchIds);
+    }
+
     @Override
     public User findByUsername(String username) {
         if (!StringUtils.hasText(username)) {
@@ -158,16 +174,13 @@ public class UserServiceImpl implements UserService {
         if (redisTemplate == null || !StringUtils.hasText(username)) {
             return;
         }
+        // The first failure beyond the LOGIN_FAILURE allowance locks the account.
+        if (rateLimiter.tryAcquire(RateLimitPolicy.LOGIN_FAILURE, username) <= 0) {
+            return;
+        }
         try {
-            String failKey = LOGIN_FAIL_PREFIX + username;
-            Long failures = redisTemplate.opsForValue().increment(failKey);
-            if (failures != null && failures == 1L) {
-                redisTemplate.expire(failKey, FAIL_WINDOW_MINUTES, TimeUnit.MINUTES);
-            }
-            if (failures != null && failures >= FAIL_THRESHOLD) {
-                String lockKey = LOGIN_LOCK_PREFIX + username;
-                redisTemplate.opsForValue().set(lockKey, "1", LOCK_DURATION_MINUTES, TimeUnit.MINUTES);
-            }
+            String lockKey = LOGIN_LOCK_PREFIX + username;
+            redisTemplate.opsForValue().set(lockKey, "1", LOCK_DURATION_MINUTES, TimeUnit.MINUTES);
         } catch (RuntimeException ex) {
             log.warn("Redis unavailable when recording login failure for {}", username, ex);
         }
@@ -177,8 +190,8 @@ public class UserServiceImpl implements UserService {
         if (redisTemplate == null || !StringUtils.hasText(username)) {
             return;
         }
+        rateLimiter.reset(RateLimitPolicy.LOGIN_FAILURE, username);
         try {
-            redisTemplate.delete(LOGIN_FAIL_PREFIX + username);
             redisTemplate.delete(LOGIN_LOCK_PREFIX + username);
         } catch (RuntimeException ex) {
             log.warn("Redis unavailable when clearing login failures for {}", username, ex);
@@ -1,8 +1,12 @@
 package com.campusmarket.websocket;
 
 import com.campusmarket.service.ChatMessageService;
+import com.campusmarket.service.RateLimitPolicy;
+import com.campusmarket.service.impl.RedisRateLimiter;
 import com.campusmarket.websocket.dto.ChatMessage;
 import com.campusmarket.websocket.dto.ChatPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Controller;
@@ -13,10 +17,14 @@ import java.security.Principal;
 @Controller
 public class ChatController {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatController.class);
+
     private final ChatMessageService chatMessageService;
+    private final RedisRateLimiter rateLimiter;
 
-    public ChatController(ChatMessageService chatMessageService) {
+    public ChatController(ChatMessageService chatMessageService, RedisRateLimiter rateLimiter) {
         this.chatMessageService = chatMessageService;
+        this.rateLimiter = rateLimiter;
     }
 
     @MessageMapping("/chat/send")
@@ -35,6 +43,11 @@ public class ChatController {
         if (sanitizedContent.isEmpty()) {
             return;
         }
+        // Same allowance as POST /api/chat/messages; over-limit frames are dropped.
+        if (rateLimiter.tryAcquire(RateLimitPolicy.CHAT_SEND, "user:" + senderId) > 0) {
+            log.debug("Dropping chat message from user {}: send rate limit exceeded", senderId);
+            return;
+        }
 
         ChatMessage response = chatMessageService.saveAndBroadcast(
                 senderId,
@@ -0,0 +1,27 @@
+-- Atomic flash sale purchase on one stock shard: dedupe + stock check + decrement + reservation record.
+-- KEYS[1] shard stock counter, KEYS[2] the user's marker in that shard
+-- ARGV[1] reservation value, ARGV[2] reservation ttl in milliseconds,
+-- ARGV[3] '1' when KEYS[2] is the user's home-shard marker. The home marker is the only dedupe key,
+--         so it is written even when this shard is drained; concurrent requests of the same user then
+--         stop here while this one goes on to a sibling shard.
+-- Returns remaining stock (>= 0) on success, otherwise a negative result code:
+--   -1 sold out, -2 duplicate purchase, -3 stock not initialised, -4 shard drained, home marker claimed
+-- A marker left by a failed reservation ('FAILED:<id>') does not count as a purchase.
+local held = redis.call('GET', KEYS[2])
+if held and string.sub(held, 1, 7) ~= 'FAILED:' then
+    return -2
+end
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+    return -3
+end
+if tonumber(stock) <= 0 then
+    if ARGV[3] == '1' then
+        redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+        return -4
+    end
+    return -1
+end
+local remaining = redis.call('DECR', KEYS[1])
+redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+return remaining
@@ -0,0 +1,18 @@
+-- Give back a reservation or claim taken by flash_sale_purchase.lua.
+-- Only acts while the marker still holds this reservation, so repeated or concurrent
+-- compensations can never double-count and never touch a later reservation of the user.
+-- KEYS[1] stock counter, KEYS[2] per-user marker in the same shard
+-- ARGV[1] reservation value, ARGV[2] '1' to return one unit of stock, '0' to only drop the marker,
+-- ARGV[3] optional value left in place of the marker (a failed reservation), ARGV[4] its ttl in milliseconds
+if redis.call('GET', KEYS[2]) ~= ARGV[1] then
+    return 0
+end
+if ARGV[3] then
+    redis.call('SET', KEYS[2], ARGV[3], 'PX', ARGV[4])
+else
+    redis.call('DEL', KEYS[2])
+end
+if ARGV[2] == '1' then
+    redis.call('INCR', KEYS[1])
+end
+return 1
@@ -0,0 +1,14 @@
+-- Set the bits of one goods id in the shared Bloom filter. Before the first build finishes the bits
+-- are parked in a set instead: a bitmap created from scratch by SETBIT would hold a single id and
+-- reject every other one, and the rebuild may already have scanned past the new row.
+-- KEYS[1] live bitmap, KEYS[2] pending offsets set
+-- ARGV[1..] bit offsets
+-- Returns 1 when the bits were set, 0 when they were parked.
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('SADD', KEYS[2], unpack(ARGV))
+    return 0
+end
+for i = 1, #ARGV do
+    redis.call('SETBIT', KEYS[1], ARGV[i], 1)
+end
+return 1
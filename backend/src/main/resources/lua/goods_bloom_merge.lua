@@ -0,0 +1,16 @@
+-- Swap a freshly built goods id Bloom filter in without losing bits set while it was being built.
+-- KEYS[1] rebuilt bitmap (staging), KEYS[2] live bitmap, KEYS[3] pending offsets set
+-- The live bitmap is OR-ed into the staging one before the rename, and offsets parked while no live
+-- bitmap existed are applied afterwards, so ids added between the table scan and this call are kept.
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('BITOP', 'OR', KEYS[1], KEYS[1], KEYS[2])
+end
+redis.call('RENAME', KEYS[1], KEYS[2])
+for _, offset in ipairs(redis.call('SMEMBERS', KEYS[3])) do
+    redis.call('SETBIT', KEYS[2], offset, 1)
+end
+redis.call('DEL', KEYS[3])
+return 1
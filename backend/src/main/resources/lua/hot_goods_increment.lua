@@ -0,0 +1,26 @@
+-- Forward-decayed hot score increment: each delta is stored as delta * 2^((now - epoch) / halfLife),
+-- so older activity loses weight without rewriting existing members. When the multiplier gets too
+-- large the whole set is rescaled once and the epoch moves to now.
+-- KEYS[1] hot score sorted set, KEYS[2] decay epoch (ms)
+-- ARGV[1] now (ms), ARGV[2] half-life (ms), ARGV[3..] member / weighted delta pairs
+-- Returns the epoch the scores are relative to.
+local now = tonumber(ARGV[1])
+local halfLife = tonumber(ARGV[2])
+local epoch = tonumber(redis.call('GET', KEYS[2]))
+if not epoch then
+    epoch = now
+    redis.call('SET', KEYS[2], epoch)
+end
+
+local factor = 2 ^ ((now - epoch) / halfLife)
+if factor > 1048576 then
+    redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', 1 / factor)
+    redis.call('SET', KEYS[2], now)
+    epoch = now
+    factor = 1
+end
+
+for i = 3, #ARGV, 2 do
+    redis.call('ZINCRBY', KEYS[1], tonumber(ARGV[i + 1]) * factor, ARGV[i])
+end
+return epoch
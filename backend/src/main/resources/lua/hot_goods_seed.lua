@@ -0,0 +1,14 @@
+-- Seed the hot score set from cumulative rankings read by the caller. The first chunk only applies
+-- when the set does not exist yet, so concurrent starts seed it once; later chunks of the same seed
+-- are added unconditionally.
+-- KEYS[1] hot score sorted set, KEYS[2] decay epoch (ms)
+-- ARGV[1] '1' for the first chunk, ARGV[2] now (ms), ARGV[3..] member / score pairs
+-- Returns 1 when the chunk was applied, 0 when the set was already seeded.
+if ARGV[1] == '1' and redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('SET', KEYS[2], ARGV[2], 'NX')
+for i = 3, #ARGV, 2 do
+    redis.call('ZINCRBY', KEYS[1], ARGV[i + 1], ARGV[i])
+end
+return 1
@@ -0,0 +1,8 @@
+-- Read a page of hot scores together with the epoch they are relative to, so a rescale by
+-- hot_goods_increment.lua can never fall between the two reads.
+-- KEYS[1] hot score sorted set, KEYS[2] decay epoch (ms)
+-- ARGV[1] start rank, ARGV[2] stop rank (inclusive, highest score first)
+-- Returns the epoch ('' when unset) followed by member / score pairs.
+local page = redis.call('ZREVRANGE', KEYS[1], ARGV[1], ARGV[2], 'WITHSCORES')
+table.insert(page, 1, redis.call('GET', KEYS[2]) or '')
+return page
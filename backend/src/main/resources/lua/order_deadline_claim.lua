@@ -0,0 +1,17 @@
+-- Claim order payment deadlines that fall due within the look-ahead window. Claimed entries stay in
+-- the set with their score pushed past now + lease, so they come due again if the claiming instance
+-- dies before completing them.
+-- KEYS[1] deadline sorted set (member order id, score deadline ms)
+-- ARGV[1] look-ahead (ms), ARGV[2] lease (ms), ARGV[3] max entries
+-- Returns member / original score pairs.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local lease = tonumber(ARGV[2])
+
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now + tonumber(ARGV[1]),
+    'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[3]))
+for i = 1, #due, 2 do
+    local deadline = tonumber(due[i + 1])
+    redis.call('ZADD', KEYS[1], 'XX', math.max(deadline, now) + lease, due[i])
+end
+return due
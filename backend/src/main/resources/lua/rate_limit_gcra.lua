@@ -0,0 +1,24 @@
+-- Generic cell rate algorithm: one key per limited caller holding the theoretical arrival time (TAT)
+-- of the next request in ms. Allows bursts of period / interval requests, then one per interval.
+-- The key expires when the caller has fully recovered, so idle callers cost nothing.
+-- KEYS[1] TAT key
+-- ARGV[1] emission interval (ms), ARGV[2] period (ms)
+-- Returns 0 when the request is allowed, otherwise ms until it would be.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local interval = tonumber(ARGV[1])
+local period = tonumber(ARGV[2])
+
+local tat = tonumber(redis.call('GET', KEYS[1]))
+if not tat or tat < now then
+    tat = now
+end
+
+local newTat = tat + interval
+local allowAt = newTat - period
+if allowAt > now then
+    return allowAt - now
+end
+
+redis.call('SET', KEYS[1], newTat, 'PX', newTat - now)
+return 0
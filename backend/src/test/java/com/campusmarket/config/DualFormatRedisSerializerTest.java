@@ -0,0 +1,71 @@
+package com.campusmarket.config;
+
+import com.campusmarket.dto.GoodsPageResponse;
+import com.campusmarket.dto.GoodsResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DualFormatRedisSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final DualFormatRedisSerializer json =
+            new DualFormatRedisSerializer(objectMapper, DualFormatRedisSerializer.Format.JSON);
+    private final DualFormatRedisSerializer smile =
+            new DualFormatRedisSerializer(objectMapper, DualFormatRedisSerializer.Format.SMILE);
+
+    @Test
+    void smileRoundTripsTypedValues() {
+        GoodsPageResponse page = page(3);
+
+        Object read = smile.deserialize(smile.serialize(page));
+
+        assertThat(read).isInstanceOf(GoodsPageResponse.class);
+        GoodsPageResponse copy = (GoodsPageResponse) read;
+        assertThat(copy.getItems()).hasSize(3);
+        assertThat(copy.getItems().get(0)).isInstanceOf(GoodsResponse.class);
+        assertThat(copy.getItems().get(2).getPublishedAt()).isEqualTo(page.getItems().get(2).getPublishedAt());
+        assertThat(smile.deserialize(smile.serialize("__NULL__"))).isEqualTo("__NULL__");
+    }
+
+    @Test
+    void eitherFormatReadsValuesWrittenByTheOther() {
+        GoodsPageResponse page = page(2);
+
+        assertThat(smile.deserialize(json.serialize(page))).usingRecursiveComparison().isEqualTo(page);
+        assertThat(json.deserialize(smile.serialize(page))).usingRecursiveComparison().isEqualTo(page);
+    }
+
+    @Test
+    void smileListPayloadIsAtLeastHalfTheJsonSize() {
+        GoodsPageResponse page = page(50);
+
+        int jsonSize = json.serialize(page).length;
+        int smileSize = smile.serialize(page).length;
+
+        assertThat(smileSize * 2).isLessThanOrEqualTo(jsonSize);
+    }
+
+    private static GoodsPageResponse page(int size) {
+        List<GoodsResponse> items = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2024, 5, 1, 10, 0);
+        for (int i = 0; i < size; i++) {
+            items.add(new GoodsResponse((long) i + 1, "Second-hand item " + i, "Lightly used, pick up at dorm " + (i % 5),
+                    i % 2 == 0 ? "Books" : "Electronics", new BigDecimal("25.00").add(BigDecimal.valueOf(i)),
+                    "https://dummyimage.com/600x360/34d399/ffffff.png&text=Books", base.minusHours(i),
+                    1L, "seller", false, "APPROVED", 3));
+        }
+        return new GoodsPageResponse(items, "cursor", true);
+    }
+}
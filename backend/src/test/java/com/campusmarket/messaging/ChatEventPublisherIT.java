@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -21,6 +22,9 @@ class ChatEventPublisherIT extends KafkaIntegrationTestBase {
     @Autowired
     private ChatEventPublisher chatEventPublisher;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @MockBean
     private ChatMetricsService chatMetricsService;
 
@@ -39,9 +43,11 @@ class ChatEventPublisherIT extends KafkaIntegrationTestBase {
             return null;
         }).when(chatCacheService).incrementUnread(200L, 100L, 500L);
 
-        chatEventPublisher.publishMessageCreated(500L, 100L, 200L, "TEXT", "hello preview");
+        // the event reaches the listener through the outbox relay
+        transactionTemplate.executeWithoutResult(status ->
+                chatEventPublisher.publishMessageCreated(500L, 100L, 200L, "TEXT", "hello preview"));
 
-        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        boolean completed = latch.await(10, TimeUnit.SECONDS);
         assertThat(completed).isTrue();
         verify(chatMetricsService).recordMessageCreated(100L, 200L);
         verify(chatCacheService).incrementUnread(200L, 100L, 500L);
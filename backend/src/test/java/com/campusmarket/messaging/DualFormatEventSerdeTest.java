@@ -0,0 +1,114 @@
+package com.campusmarket.messaging;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.beans.PropertyDescriptor;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DualFormatEventSerdeTest {
+
+    private final DualFormatEventSerializer serializer = new DualFormatEventSerializer();
+    private final DualFormatEventDeserializer deserializer = new DualFormatEventDeserializer();
+
+    DualFormatEventSerdeTest() {
+        serializer.configure(Map.of(DualFormatEventSerializer.BINARY_TOPICS_CONFIG, "goods-events,chat-events"), false);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.campusmarket.messaging"), false);
+    }
+
+    @Test
+    void everySchemaMapsToItsEventClass() {
+        assertThat(EventSchemaRegistry.shared().types()).containsExactlyInAnyOrder(
+                OrderEvent.class, GoodsEvent.class, ChatEvent.class, FlashSaleOrderEvent.class);
+    }
+
+    @Test
+    void binaryTopicRoundTripsWithoutTypeHeader() {
+        GoodsEvent event = goodsEvent();
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize("goods-events", headers, event);
+
+        assertThat(BinaryEventCodec.isBinary(data)).isTrue();
+        assertThat(headers.toArray()).isEmpty();
+        assertThat(deserializer.deserialize("goods-events", headers, data)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void retryTiersOfABinaryTopicAreBinaryToo() {
+        assertThat(BinaryEventCodec.isBinary(serializer.serialize("goods-events-failed-retry-1000", new RecordHeaders(),
+                goodsEvent()))).isTrue();
+        assertThat(BinaryEventCodec.isBinary(serializer.serialize("goods-events-failed.DLT", new RecordHeaders(),
+                goodsEvent()))).isTrue();
+    }
+
+    @Test
+    void otherTopicsStayJsonAndBothFormatsAreRead() {
+        OrderEvent event = new OrderEvent("e-1", OrderEventType.ORDER_CREATED, 7L, 3L, 5L, "PENDING", null,
+                LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_000_000));
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] json = serializer.serialize("order-events", headers, event);
+
+        assertThat(json[0]).isEqualTo((byte) '{');
+        assertThat(deserializer.deserialize("order-events", headers, json)).usingRecursiveComparison().isEqualTo(event);
+        byte[] binary = new BinaryEventCodec(EventSchemaRegistry.shared()).encode(event);
+        assertThat(deserializer.deserialize("order-events", new RecordHeaders(), binary))
+                .usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void binaryRecordIsAtMostHalfTheJsonRecord() {
+        ChatEvent event = new ChatEvent(ChatEventType.CHAT_MESSAGE_CREATED, 1234567L, 42L, 43L, "TEXT",
+                "Is the desk lamp still available?", LocalDateTime.now());
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json = serializer.serialize("order-events", jsonHeaders, event);
+        int jsonSize = json.length + jsonHeaders.lastHeader("__TypeId__").key().length()
+                + jsonHeaders.lastHeader("__TypeId__").value().length;
+
+        byte[] binary = serializer.serialize("chat-events", new RecordHeaders(), event);
+
+        assertThat(binary.length * 2).isLessThanOrEqualTo(jsonSize);
+    }
+
+    @Test
+    void schemasThatGrowAtTheEndStayCompatibleBothWays() {
+        EventSchemaRegistry.EventSchema current = EventSchemaRegistry.shared().forType(ChatEvent.class);
+        List<PropertyDescriptor> properties = current.properties();
+        EventSchemaRegistry older = new EventSchemaRegistry(List.of(new EventSchemaRegistry.EventSchema(
+                current.id(), ChatEvent.class, properties.subList(0, properties.size() - 1))));
+        BinaryEventCodec currentCodec = new BinaryEventCodec(EventSchemaRegistry.shared());
+        BinaryEventCodec olderCodec = new BinaryEventCodec(older);
+        ChatEvent event = new ChatEvent(ChatEventType.CHAT_MESSAGE_CREATED, 1L, 2L, 3L, "TEXT", "hi",
+                LocalDateTime.of(2024, 5, 1, 10, 0));
+        String dropped = properties.get(properties.size() - 1).getName();
+
+        assertThat(olderCodec.decode(currentCodec.encode(event)))
+                .usingRecursiveComparison().ignoringFields(dropped).isEqualTo(event);
+        assertThat(currentCodec.decode(olderCodec.encode(event))).hasFieldOrPropertyWithValue(dropped, null);
+    }
+
+    @Test
+    void unknownSchemaIdIsRejected() {
+        byte[] data = ByteBuffer.allocate(8).put(BinaryEventCodec.MAGIC).putInt(12345).array();
+
+        assertThatThrownBy(() -> deserializer.deserialize("goods-events", new RecordHeaders(), data))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("12345");
+    }
+
+    private static GoodsEvent goodsEvent() {
+        GoodsEvent event = new GoodsEvent(GoodsEventType.GOODS_UPDATED, 10L, 20L, 30L, "APPROVED", 5,
+                "Price changed", LocalDateTime.of(2024, 5, 1, 10, 0));
+        event.setCategory("Books");
+        return event;
+    }
+}
@@ -0,0 +1,108 @@
+package com.campusmarket.messaging;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialize/deserialize throughput and record size of the JSON and binary event formats. Not a test;
+ * run {@link #main} from the IDE or with the test classpath after {@code mvn test-compile}.
+ */
+public final class EventSerdeBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int RECORDS_PER_ROUND = 200_000;
+
+    private EventSerdeBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+        JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+        // Decoding reuses one record's headers, so the type header must survive each read.
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.campusmarket.messaging",
+                JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+        DualFormatEventSerializer binarySerializer = new DualFormatEventSerializer();
+        binarySerializer.configure(Map.of(DualFormatEventSerializer.BINARY_TOPICS_CONFIG, "bench"), false);
+        DualFormatEventDeserializer binaryDeserializer = new DualFormatEventDeserializer();
+        binaryDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.campusmarket.messaging"), false);
+
+        for (Object event : events()) {
+            String name = event.getClass().getSimpleName();
+            report(name, "json", jsonSerializer::serialize, jsonDeserializer::deserialize, event);
+            report(name, "binary", binarySerializer::serialize, binaryDeserializer::deserialize, event);
+        }
+    }
+
+    private static void report(String name, String format, Encoder encoder, Decoder decoder, Object event) {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = encoder.encode("bench", headers, event);
+        int size = data.length;
+        for (Header header : headers) {
+            size += header.key().length() + header.value().length;
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(encoder, decoder, event, headers, data);
+        }
+        long[] nanos = new long[2];
+        for (int i = 0; i < ROUNDS; i++) {
+            long[] round = run(encoder, decoder, event, headers, data);
+            nanos[0] += round[0];
+            nanos[1] += round[1];
+        }
+        long records = (long) ROUNDS * RECORDS_PER_ROUND;
+        System.out.printf("%-20s %-6s %5d B/record  serialize %,10.0f ops/s  deserialize %,10.0f ops/s%n",
+                name, format, size, records * 1e9 / nanos[0], records * 1e9 / nanos[1]);
+    }
+
+    private static long[] run(Encoder encoder, Decoder decoder, Object event, RecordHeaders headers, byte[] data) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < RECORDS_PER_ROUND; i++) {
+            sink += encoder.encode("bench", new RecordHeaders(), event).length;
+        }
+        long serialized = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < RECORDS_PER_ROUND; i++) {
+            sink += decoder.decode("bench", headers, data).hashCode() & 1;
+        }
+        long deserialized = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return new long[]{serialized, deserialized};
+    }
+
+    private static List<Object> events() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000);
+        OrderEvent order = new OrderEvent("order-event-1893021", OrderEventType.ORDER_STATUS_CHANGED, 1893021L,
+                55021L, 8812L, "PAID", "PENDING_PAYMENT", now);
+        order.setNote("Order paid");
+        GoodsEvent goods = new GoodsEvent(GoodsEventType.GOODS_UPDATED, 55021L, 7731L, 7731L, "APPROVED", 1,
+                "Goods updated", now);
+        goods.setCategory("Electronics");
+        GoodsEvent views = new GoodsEvent(GoodsEventType.GOODS_VIEWED, 55021L, 7731L, null, null, null,
+                "Goods viewed", now);
+        views.setViewCount(37L);
+        ChatEvent chat = new ChatEvent(ChatEventType.CHAT_MESSAGE_CREATED, 99120311L, 8812L, 7731L, "TEXT",
+                "Is the desk lamp still available?", now);
+        return List.of(order, goods, views, chat);
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encode(String topic, Headers headers, Object event);
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        Object decode(String topic, Headers headers, byte[] data);
+    }
+}
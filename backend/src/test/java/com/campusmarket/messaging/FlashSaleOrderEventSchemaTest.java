@@ -0,0 +1,26 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.messaging.schema.SchemaValidationUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+class FlashSaleOrderEventSchemaTest {
+
+    @Test
+    void flashSaleOrderEventMatchesSchema() throws IOException {
+        FlashSaleOrderEvent event = new FlashSaleOrderEvent(
+                FlashSaleOrderEventType.FLASH_SALE_ORDER_RESERVED,
+                100L,
+                7L,
+                3L,
+                LocalDateTime.now()
+        );
+
+        SchemaValidationUtil.assertValid(
+                "/schemas/flash-sale-order-event-schema.json",
+                event
+        );
+    }
+}
@@ -3,12 +3,16 @@ package com.campusmarket.messaging;
 import com.campusmarket.kafka.KafkaIntegrationTestBase;
 import com.campusmarket.service.GoodsCacheService;
 import com.campusmarket.service.GoodsMetricsService;
+import com.campusmarket.service.GoodsSearchService;
 import com.campusmarket.service.HotGoodsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -24,6 +28,9 @@ class GoodsEventPublisherIT extends KafkaIntegrationTestBase {
     @Autowired
     private GoodsEventPublisher goodsEventPublisher;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @MockBean
     private GoodsMetricsService goodsMetricsService;
 
@@ -33,19 +40,22 @@ class GoodsEventPublisherIT extends KafkaIntegrationTestBase {
     @MockBean
     private GoodsCacheService goodsCacheService;
 
+    @MockBean
+    private GoodsSearchService goodsSearchService;
+
     @Test
     void publishGoodsViewed_shouldRecordView() throws Exception {
         CountDownLatch latch = new CountDownLatch(1);
         doAnswer(invocation -> {
             latch.countDown();
             return null;
-        }).when(goodsMetricsService).recordView(1001L);
+        }).when(goodsMetricsService).recordViews(Map.of(1001L, 3L));
 
-        goodsEventPublisher.publishGoodsViewed(1001L, 2001L, 3001L);
+        goodsEventPublisher.publishGoodsViewed(1001L, 2001L, 3L);
 
         boolean completed = latch.await(5, TimeUnit.SECONDS);
         assertThat(completed).isTrue();
-        verify(goodsMetricsService).recordView(1001L);
+        verify(goodsMetricsService).recordViews(Map.of(1001L, 3L));
         verifyNoMoreInteractions(hotGoodsService);
         verifyNoInteractions(goodsCacheService);
     }
@@ -56,15 +66,17 @@ class GoodsEventPublisherIT extends KafkaIntegrationTestBase {
         doAnswer(invocation -> {
             latch.countDown();
             return null;
-        }).when(goodsMetricsService).removeMetrics(1002L);
+        }).when(goodsMetricsService).removeMetrics(Set.of(1002L));
 
-        goodsEventPublisher.publishGoodsDeleted(buildGoodsEventEntity(1002L, 2002L), 4002L);
+        // deletions and creations go through the outbox relay, so they need the writer's transaction
+        transactionTemplate.executeWithoutResult(status ->
+                goodsEventPublisher.publishGoodsDeleted(buildGoodsEventEntity(1002L, 2002L), 4002L));
 
-        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        boolean completed = latch.await(10, TimeUnit.SECONDS);
         assertThat(completed).isTrue();
 
-        verify(goodsMetricsService).removeMetrics(1002L);
-        verify(goodsCacheService).evictAllForGoods(1002L);
+        verify(goodsMetricsService).removeMetrics(Set.of(1002L));
+        verify(goodsCacheService).evictAllForGoods(Set.of(1002L), Set.of("Books"));
         verify(hotGoodsService).evictHotCache();
     }
 
@@ -74,14 +86,15 @@ class GoodsEventPublisherIT extends KafkaIntegrationTestBase {
         doAnswer(invocation -> {
             latch.countDown();
             return null;
-        }).when(goodsCacheService).evictAllForGoods(1003L);
+        }).when(goodsCacheService).evictAllForGoods(Set.of(1003L), Set.of("Books"));
 
-        goodsEventPublisher.publishGoodsCreated(buildGoodsEventEntity(1003L, 2003L));
+        transactionTemplate.executeWithoutResult(status ->
+                goodsEventPublisher.publishGoodsCreated(buildGoodsEventEntity(1003L, 2003L)));
 
-        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        boolean completed = latch.await(10, TimeUnit.SECONDS);
         assertThat(completed).isTrue();
 
-        verify(goodsCacheService).evictAllForGoods(1003L);
+        verify(goodsCacheService).evictAllForGoods(Set.of(1003L), Set.of("Books"));
         verify(hotGoodsService).evictHotCache();
         verifyNoMoreInteractions(goodsMetricsService);
     }
@@ -90,6 +103,7 @@ class GoodsEventPublisherIT extends KafkaIntegrationTestBase {
         com.campusmarket.entity.Goods goods = new com.campusmarket.entity.Goods();
         goods.setId(goodsId);
         goods.setSellerId(sellerId);
+        goods.setCategory("Books");
         goods.setStatus("APPROVED");
         goods.setQuantity(10);
         return goods;
@@ -20,6 +20,27 @@ class GoodsEventSchemaTest {
                 "integration-test",
                 LocalDateTime.now()
         );
+        event.setCategory("Books");
+
+        SchemaValidationUtil.assertValid(
+                "/schemas/goods-event-schema.json",
+                event
+        );
+    }
+
+    @Test
+    void windowedViewEventMatchesSchema() throws IOException {
+        GoodsEvent event = new GoodsEvent(
+                GoodsEventType.GOODS_VIEWED,
+                10L,
+                20L,
+                null,
+                null,
+                null,
+                "Goods viewed",
+                LocalDateTime.now()
+        );
+        event.setViewCount(42L);
 
         SchemaValidationUtil.assertValid(
                 "/schemas/goods-event-schema.json",
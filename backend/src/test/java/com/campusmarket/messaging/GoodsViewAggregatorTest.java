@@ -0,0 +1,91 @@
+package com.campusmarket.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class GoodsViewAggregatorTest {
+
+    @Mock
+    private GoodsEventPublisher goodsEventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GoodsViewAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new GoodsViewAggregator(goodsEventPublisher, meterRegistry);
+    }
+
+    @Test
+    void viewsInOneWindowArePublishedAsOneEventPerGoods() {
+        for (int i = 0; i < 300; i++) {
+            aggregator.recordView(1L + i % 3, 9L);
+        }
+
+        aggregator.flush();
+
+        verify(goodsEventPublisher).publishGoodsViewed(1L, 9L, 100L);
+        verify(goodsEventPublisher).publishGoodsViewed(2L, 9L, 100L);
+        verify(goodsEventPublisher).publishGoodsViewed(3L, 9L, 100L);
+        assertThat(meterRegistry.get("goods.views.aggregated").tag("stage", "recorded").counter().count())
+                .isEqualTo(300);
+        assertThat(meterRegistry.get("goods.views.aggregated").tag("stage", "published").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void emptyWindowPublishesNothing() {
+        aggregator.recordView(1L, 9L);
+        aggregator.flush();
+        verify(goodsEventPublisher).publishGoodsViewed(1L, 9L, 1L);
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verifyNoMoreInteractions(goodsEventPublisher);
+    }
+
+    @Test
+    void failedPublishDoesNotStopTheWindow() {
+        doThrow(new IllegalStateException("producer closed")).when(goodsEventPublisher).publishGoodsViewed(1L, 9L, 1L);
+        aggregator.recordView(1L, 9L);
+        aggregator.recordView(2L, 9L);
+
+        aggregator.flush();
+
+        verify(goodsEventPublisher).publishGoodsViewed(2L, 9L, 1L);
+    }
+
+    @Test
+    void viewsRecordedWhileAWindowClosesCountTowardsTheNextOne() throws Exception {
+        int views = 50_000;
+        Thread viewer = new Thread(() -> {
+            for (int i = 0; i < views; i++) {
+                aggregator.recordView(1L, 9L);
+            }
+        });
+        viewer.start();
+        while (viewer.isAlive()) {
+            aggregator.flush();
+        }
+        viewer.join();
+        aggregator.flush();
+
+        ArgumentCaptor<Long> counts = ArgumentCaptor.forClass(Long.class);
+        verify(goodsEventPublisher, atLeastOnce()).publishGoodsViewed(eq(1L), eq(9L), counts.capture());
+        assertThat(counts.getAllValues().stream().mapToLong(Long::longValue).sum()).isEqualTo(views);
+    }
+}
@@ -5,6 +5,7 @@ import com.campusmarket.entity.OrderStatus;
 import com.campusmarket.kafka.KafkaIntegrationTestBase;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -13,8 +14,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,6 +32,9 @@ class OrderEventPublisherIT extends KafkaIntegrationTestBase {
     @Autowired
     private OrderEventPublisher orderEventPublisher;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private Consumer<String, OrderEvent> consumer;
 
     @BeforeEach
@@ -52,12 +59,17 @@ class OrderEventPublisherIT extends KafkaIntegrationTestBase {
         order.setBuyerId(303L);
         order.setStatus(OrderStatus.PENDING_PAYMENT);
 
-        orderEventPublisher.publishOrderCreated(order);
+        // the event is written to the outbox with the order and reaches Kafka through the relay
+        transactionTemplate.executeWithoutResult(status -> orderEventPublisher.publishOrderCreated(order));
 
         ConsumerRecords<String, OrderEvent> records = pollForRecords();
         assertThat(records.count()).isGreaterThan(0);
 
-        OrderEvent event = records.iterator().next().value();
+        ConsumerRecord<String, OrderEvent> record = records.iterator().next();
+        assertThat(record.key()).isEqualTo("101");
+        assertThat(new String(record.headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME).value(),
+                StandardCharsets.UTF_8)).isEqualTo(OrderEvent.class.getName());
+        OrderEvent event = record.value();
         assertThat(event.getEventType()).isEqualTo(OrderEventType.ORDER_CREATED);
         assertThat(event.getOrderId()).isEqualTo(order.getId());
         assertThat(event.getGoodsId()).isEqualTo(order.getGoodsId());
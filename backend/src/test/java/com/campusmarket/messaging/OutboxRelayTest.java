@@ -0,0 +1,229 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.entity.OutboxEvent;
+import com.campusmarket.mapper.OutboxEventMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventMapper outboxEventMapper;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventMapper, transactionTemplate, kafkaTemplate, meterRegistry,
+                true, 2, 1_000, 3, Set.of("chat-events"), new BinaryEventCodec(EventSchemaRegistry.shared()));
+    }
+
+    @Test
+    void sendsEventsInOrderWithTheirTypeHeaderAndDeletesAcknowledgedRows() {
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectOldest(2)).thenReturn(List.of(
+                event(1L, "order-events", "7", OrderEvent.class, "{\"orderId\":7}"),
+                event(2L, "order-events", "7", OrderEvent.class, "{\"orderId\":7,\"currentStatus\":\"PAID\"}")));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acknowledged()).thenReturn(acknowledged());
+
+        boolean full = relay.relayBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        ProducerRecord<String, byte[]> first = records.getAllValues().get(0);
+        assertThat(first.topic()).isEqualTo("order-events");
+        assertThat(first.key()).isEqualTo("7");
+        assertThat(new String(first.value(), StandardCharsets.UTF_8)).isEqualTo("{\"orderId\":7}");
+        assertThat(new String(first.headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME).value(),
+                StandardCharsets.UTF_8)).isEqualTo(OrderEvent.class.getName());
+        assertThat(new String(records.getAllValues().get(1).value(), StandardCharsets.UTF_8)).contains("PAID");
+
+        verify(outboxEventMapper).deleteBatchIds(List.of(1L, 2L));
+        assertThat(full).isTrue();
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "published").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("outbox.relay.lag").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void failedSendStaysInTheOutbox() {
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectOldest(2)).thenReturn(List.of(
+                event(1L, "goods-events", "3", GoodsEvent.class, "{}"),
+                event(2L, "chat-events", "9", ChatEvent.class, "{}")));
+        SettableListenableFuture<SendResult<String, byte[]>> broken = new SettableListenableFuture<>();
+        broken.setException(new IllegalStateException("broker unavailable"));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(broken).thenReturn(acknowledged());
+
+        boolean full = relay.relayBatch();
+
+        verify(outboxEventMapper).deleteBatchIds(List.of(2L));
+        assertThat(full).isFalse();
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void laterEventsOfAFailedKeyStayInTheOutbox() {
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectOldest(2)).thenReturn(List.of(
+                event(1L, "order-events", "7", OrderEvent.class, "{}"),
+                event(2L, "order-events", "7", OrderEvent.class, "{}")));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(failed(new TimeoutException("Expiring 1 record(s)")))
+                .thenReturn(acknowledged());
+
+        boolean full = relay.relayBatch();
+
+        verify(outboxEventMapper, never()).deleteBatchIds(anyList());
+        verify(outboxEventMapper, never()).incrementAttempts(anyList());
+        assertThat(full).isFalse();
+    }
+
+    @Test
+    void permanentFailureCountsAnAttemptAndIsDeadLetteredAtTheLimit() {
+        OutboxEvent tooLarge = event(1L, "goods-events", "3", GoodsEvent.class, "{}");
+        tooLarge.setAttempts(2);
+        OutboxEvent rejected = event(2L, "goods-events", "4", GoodsEvent.class, "{}");
+        rejected.setAttempts(0);
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectOldest(2)).thenReturn(List.of(tooLarge, rejected));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(failed(new RecordTooLargeException("too large")))
+                .thenReturn(failed(new RecordTooLargeException("too large")));
+
+        relay.relayBatch();
+
+        verify(outboxEventMapper).copyToDeadLetter(eq(1L), anyString());
+        verify(outboxEventMapper).deleteBatchIds(List.of(1L));
+        verify(outboxEventMapper).incrementAttempts(List.of(2L));
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "dead_lettered").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reencodesEventsForBinaryTopics() {
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectOldest(2)).thenReturn(List.of(
+                event(1L, "chat-events", "9", ChatEvent.class,
+                        "{\"eventType\":\"CHAT_MESSAGE_CREATED\",\"messageId\":9,\"eventTime\":\"2024-05-01T10:00:00\"}")));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acknowledged());
+
+        relay.relayBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(records.capture());
+        ProducerRecord<String, byte[]> record = records.getValue();
+        assertThat(BinaryEventCodec.isBinary(record.value())).isTrue();
+        assertThat(record.headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME)).isNull();
+        ChatEvent decoded = (ChatEvent) new BinaryEventCodec(EventSchemaRegistry.shared()).decode(record.value());
+        assertThat(decoded.getMessageId()).isEqualTo(9L);
+        assertThat(decoded.getEventTime()).isEqualTo(LocalDateTime.of(2024, 5, 1, 10, 0));
+    }
+
+    @Test
+    void stopsSendingOnceTheBatchDeadlineHasPassed() {
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectOldest(2)).thenReturn(List.of(
+                event(1L, "order-events", "7", OrderEvent.class, "{}"),
+                event(2L, "order-events", "7", OrderEvent.class, "{}")));
+        when(kafkaTemplate.send(anyRecord())).thenAnswer(invocation -> {
+            Thread.sleep(1_100);
+            return acknowledged();
+        });
+
+        boolean full = relay.relayBatch();
+
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+        verify(outboxEventMapper).deleteBatchIds(List.of(1L));
+        assertThat(full).isFalse();
+    }
+
+    @Test
+    void boundsProducerBlockingAndDeliveryBySendTimeout() {
+        Map<String, Object> config = OutboxRelay.producerFactory(new KafkaProperties(), 10_000)
+                .getConfigurationProperties();
+
+        assertThat(config.get(ProducerConfig.MAX_BLOCK_MS_CONFIG)).isEqualTo(5_000L);
+        assertThat(config.get(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG)).isEqualTo(10_000);
+        assertThat((int) config.get(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG)
+                + (int) config.get(ProducerConfig.LINGER_MS_CONFIG)).isLessThanOrEqualTo(10_000);
+    }
+
+    @Test
+    void skipsThePassWhileAnotherInstanceHoldsTheRelayLock() {
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(false);
+
+        assertThat(relay.relayBatch()).isFalse();
+
+        verify(outboxEventMapper, never()).selectOldest(anyInt());
+        verify(kafkaTemplate, never()).send(anyRecord());
+    }
+
+    private static OutboxEvent event(Long id, String topic, String key, Class<?> type, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setTopic(topic);
+        event.setMessageKey(key);
+        event.setPayloadType(type.getName());
+        event.setPayload(payload);
+        event.setCreatedAt(LocalDateTime.now().minusSeconds(1));
+        return event;
+    }
+
+    private static ProducerRecord<String, byte[]> anyRecord() {
+        return any();
+    }
+
+    private static SettableListenableFuture<SendResult<String, byte[]>> failed(Exception cause) {
+        SettableListenableFuture<SendResult<String, byte[]>> future = new SettableListenableFuture<>();
+        future.setException(new KafkaException("send failed", cause));
+        return future;
+    }
+
+    private static SettableListenableFuture<SendResult<String, byte[]>> acknowledged() {
+        SettableListenableFuture<SendResult<String, byte[]>> future = new SettableListenableFuture<>();
+        future.set(null);
+        return future;
+    }
+}
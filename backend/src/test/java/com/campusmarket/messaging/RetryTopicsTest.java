@@ -0,0 +1,76 @@
+package com.campusmarket.messaging;
+
+import com.campusmarket.config.KafkaListenerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.DestinationTopic;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryTopicsTest {
+
+    private final RetryTopics retryTopics = new RetryTopics(
+            "order-events", "goods-events", "chat-events", "flash-sale-order-events");
+
+    @Test
+    void failedRecordIsParkedOnItsFailedTopicInTheSamePartition() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("goods-events", 2, 10L, "7", "{}");
+
+        TopicPartition destination = retryTopics.destination(record, new IllegalStateException("redis down"));
+
+        assertThat(destination).isEqualTo(new TopicPartition("goods-events-failed", 2));
+    }
+
+    @Test
+    void undeserializablePayloadGoesStraightToTheDeadLetterTopic() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("chat-events", 0, 3L, "9", null);
+        DeserializationException failure = new DeserializationException("bad json", new byte[0], false, null);
+
+        assertThat(retryTopics.destination(record, new RuntimeException(failure)).topic())
+                .isEqualTo("chat-events-failed.DLT");
+        assertThat(retryTopics.deadLetterTopic("chat-events")).isEqualTo("chat-events-failed.DLT");
+    }
+
+    @Test
+    void failedTopicIsRetriedOnceThenWalksTheTiersIntoTheDeadLetterTopic() {
+        KafkaTemplate<Object, Object> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of()));
+        RetryTopicConfiguration configuration = new KafkaListenerConfig()
+                .eventRetryTopics(template, retryTopics, 4, 1_000, 10, 60_000, 3);
+
+        List<DestinationTopic.Properties> destinations = configuration.getDestinationTopicProperties();
+
+        assertThat(destinations.stream().map(properties -> "goods-events-failed" + properties.suffix()))
+                .containsExactly("goods-events-failed", "goods-events-failed-retry-1000",
+                        "goods-events-failed-retry-10000", "goods-events-failed-retry-60000",
+                        "goods-events-failed.DLT");
+        assertThat(destinations.stream().map(DestinationTopic.Properties::delay).collect(Collectors.toList()))
+                .containsExactly(0L, 1_000L, 10_000L, 60_000L, 0L);
+        assertThat(configuration.hasConfigurationForTopics(new String[]{"goods-events-failed"})).isTrue();
+        assertThat(configuration.hasConfigurationForTopics(new String[]{"goods-events"})).isFalse();
+    }
+
+    @Test
+    void replayDropsTheFrameworkRoutingHeaders() {
+        assertThat(RetryTopics.isRoutingHeader("retry_topic-attempts")).isTrue();
+        assertThat(RetryTopics.isRoutingHeader("kafka_dlt-original-topic")).isTrue();
+        assertThat(RetryTopics.isRoutingHeader("__TypeId__")).isFalse();
+    }
+
+    @Test
+    void findsTheFirstRecordWithoutAValue() {
+        assertThat(RetryTopics.firstUndeserializable(List.of(
+                new ConsumerRecord<>("goods-events", 0, 0L, "1", "{}"),
+                new ConsumerRecord<>("goods-events", 0, 1L, "2", null)))).isEqualTo(1);
+        assertThat(RetryTopics.firstUndeserializable(List.of(
+                new ConsumerRecord<>("goods-events", 0, 0L, "1", "{}")))).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.service.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlashSaleAdmissionGateTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry registry;
+    private FlashSaleAdmissionGate gate;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        gate = new FlashSaleAdmissionGate(registry, true, 2.0, 1, 2000, 1000, 0, 0, 0, 0, now::get);
+    }
+
+    @Test
+    void bucketShouldBeSizedFromStockAndRejectWithRetryAfter() {
+        for (int i = 0; i < 10; i++) {
+            gate.acquire(7L, 5);
+        }
+
+        assertThatThrownBy(() -> gate.acquire(7L, 5))
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(ex -> assertThat(((RateLimitExceededException) ex).getRetryAfterSeconds()).isEqualTo(1));
+        assertThat(registry.get("flash_sale.admission").tag("outcome", "admitted").counter().count()).isEqualTo(10);
+        assertThat(registry.get("flash_sale.admission").tag("outcome", "rejected_queue_full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketShouldRefillOverTheWindow() {
+        for (int i = 0; i < 4; i++) {
+            gate.acquire(7L, 2);
+        }
+        assertThatThrownBy(() -> gate.acquire(7L, 2)).isInstanceOf(RateLimitExceededException.class);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+
+        assertThatCode(() -> gate.acquire(7L, 2)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void bucketShouldShrinkWithRemainingStock() {
+        gate.acquire(7L, 100);
+        gate.updateRemainingStock(7L, 1);
+
+        gate.acquire(7L, 100);
+        gate.acquire(7L, 100);
+        assertThatThrownBy(() -> gate.acquire(7L, 100)).isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void queueShouldBeSizedPerItemFromRemainingStock() {
+        FlashSaleAdmissionGate queued = new FlashSaleAdmissionGate(registry, true, 2.0, 1, 2000, 1000, 1.0, 200, 0, 50, now::get);
+        for (int i = 0; i < 2; i++) {
+            queued.acquire(7L, 1);
+            queued.acquire(8L, 1);
+        }
+        queued.updateRemainingStock(8L, 0);
+
+        // Item 7 still has stock, so the request gets a queue slot and times out waiting.
+        assertThatThrownBy(() -> queued.acquire(7L, 1)).isInstanceOf(RateLimitExceededException.class);
+        // Item 8 is drained: its queue is empty, so the request is turned away without waiting.
+        assertThatThrownBy(() -> queued.acquire(8L, 1)).isInstanceOf(RateLimitExceededException.class);
+
+        assertThat(registry.get("flash_sale.admission").tag("outcome", "rejected_timeout").counter().count()).isEqualTo(1);
+        assertThat(registry.get("flash_sale.admission").tag("outcome", "rejected_queue_full").counter().count()).isEqualTo(1);
+        assertThat(queued.queueCapacityFor(150)).isEqualTo(150);
+        assertThat(queued.queueCapacityFor(5_000)).isEqualTo(200);
+    }
+
+    @Test
+    void waitersShouldBeCappedAcrossAllItems() throws Exception {
+        // A registry of its own: the gauge registered by setUp's gate would shadow this gate's.
+        registry = new SimpleMeterRegistry();
+        FlashSaleAdmissionGate queued = new FlashSaleAdmissionGate(registry, true, 2.0, 1, 2000, 1000, 1.0, 200,
+                5_000, 1, now::get);
+        for (int i = 0; i < 2; i++) {
+            queued.acquire(7L, 1);
+            queued.acquire(8L, 1);
+        }
+        // The clock stands still, so this request holds the only waiter slot until it is interrupted.
+        Thread waiter = new Thread(() -> assertThatThrownBy(() -> queued.acquire(7L, 1))
+                .isInstanceOf(RateLimitExceededException.class));
+        waiter.start();
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("flash_sale.admission.waiting").gauge().value() < 1 && System.nanoTime() < giveUp) {
+            Thread.sleep(1);
+        }
+
+        // Item 8 has its own queue room, but the gate-wide limit turns the request away at once.
+        assertThatThrownBy(() -> queued.acquire(8L, 1)).isInstanceOf(RateLimitExceededException.class);
+        assertThat(registry.get("flash_sale.admission").tag("outcome", "rejected_queue_full").counter().count()).isEqualTo(1);
+        waiter.interrupt();
+        waiter.join();
+    }
+}
@@ -0,0 +1,65 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.FlashSaleOrder;
+import com.campusmarket.mapper.FlashSaleOrderMapper;
+import com.campusmarket.messaging.FlashSaleOrderEvent;
+import com.campusmarket.messaging.FlashSaleOrderEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FlashSaleOrderEventProcessorTest {
+
+    @Mock
+    private FlashSaleOrderMapper flashSaleOrderMapper;
+
+    @InjectMocks
+    private FlashSaleOrderEventProcessor processor;
+
+    @Test
+    void batchShouldBeInsertedAsPreparingThenConfirmed() {
+        processor.handleBatch(List.of(reserved(100L, 1L), reserved(101L, 2L), reserved(100L, 1L)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FlashSaleOrder>> inserted = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(flashSaleOrderMapper);
+        order.verify(flashSaleOrderMapper).insertBatchIgnoreExisting(inserted.capture());
+        order.verify(flashSaleOrderMapper).updateStatusBatch(eq(Set.of(100L, 101L)),
+                eq("PREPARING"), eq("CONFIRMED"), any(LocalDateTime.class));
+        assertThat(inserted.getValue()).extracting(FlashSaleOrder::getStatus).containsExactly("PREPARING", "PREPARING");
+    }
+
+    @Test
+    void batchWithoutReservationsShouldNotTouchTheDatabase() {
+        FlashSaleOrderEvent unknown = new FlashSaleOrderEvent();
+        processor.handleBatch(List.of(unknown));
+
+        verify(flashSaleOrderMapper, never()).insertBatchIgnoreExisting(anyList());
+    }
+
+    private static FlashSaleOrderEvent reserved(Long orderId, Long userId) {
+        FlashSaleOrderEvent event = new FlashSaleOrderEvent();
+        event.setEventType(FlashSaleOrderEventType.FLASH_SALE_ORDER_RESERVED);
+        event.setOrderId(orderId);
+        event.setFlashSaleItemId(7L);
+        event.setUserId(userId);
+        return event;
+    }
+}
@@ -0,0 +1,259 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.FlashSaleOrderStatusResponse;
+import com.campusmarket.entity.FlashSaleItem;
+import com.campusmarket.entity.FlashSaleOrder;
+import com.campusmarket.mapper.FlashSaleItemMapper;
+import com.campusmarket.mapper.FlashSaleOrderMapper;
+import com.campusmarket.messaging.FlashSaleOrderEvent;
+import com.campusmarket.messaging.FlashSaleOrderEventPublisher;
+import com.campusmarket.service.DistributedIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FlashSaleServiceImplTest {
+
+    @Mock
+    private FlashSaleItemMapper flashSaleItemMapper;
+    @Mock
+    private FlashSaleOrderMapper flashSaleOrderMapper;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private DistributedIdGenerator idGenerator;
+    @Mock
+    private FlashSaleOrderEventPublisher flashSaleOrderEventPublisher;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private FlashSaleServiceImpl flashSaleService;
+
+    @BeforeEach
+    void setUp() {
+        CacheMetrics cacheMetrics = new CacheMetrics(new SimpleMeterRegistry());
+        flashSaleService = new FlashSaleServiceImpl(flashSaleItemMapper, flashSaleOrderMapper, redisTemplate,
+                new ObjectMapper().findAndRegisterModules(), idGenerator, flashSaleOrderEventPublisher,
+                new FlashSaleLocalCache(redisTemplate, listenerContainer, cacheMetrics),
+                new FlashSaleAdmissionGate(new SimpleMeterRegistry(), true, 2.0, 10, 2000, 1000, 0, 0, 0, 0, 200),
+                cacheMetrics);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(idGenerator.nextId("flash-sale-order")).thenReturn(100L);
+
+        FlashSaleItem item = new FlashSaleItem();
+        item.setId(7L);
+        item.setTitle("Flash");
+        item.setTotalStock(10);
+        item.setStartTime(LocalDateTime.now().minusMinutes(5));
+        item.setEndTime(LocalDateTime.now().plusMinutes(30));
+        lenient().when(flashSaleItemMapper.selectById(7L)).thenReturn(item);
+
+        FlashSaleItem sharded = new FlashSaleItem();
+        sharded.setId(8L);
+        sharded.setTitle("Sharded");
+        sharded.setTotalStock(10);
+        sharded.setStockShards(4);
+        sharded.setStartTime(LocalDateTime.now().minusMinutes(5));
+        sharded.setEndTime(LocalDateTime.now().plusMinutes(30));
+        lenient().when(flashSaleItemMapper.selectById(8L)).thenReturn(sharded);
+    }
+
+    @Test
+    void purchaseShouldPublishReservationWhenScriptReserves() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), anyString())).thenReturn(9L);
+        SettableListenableFuture<SendResult<String, FlashSaleOrderEvent>> future = new SettableListenableFuture<>();
+        when(flashSaleOrderEventPublisher.publishOrderReserved(100L, 7L, 1L)).thenReturn(future);
+
+        Long orderId = flashSaleService.attemptPurchase(1L, 7L);
+
+        assertThat(orderId).isEqualTo(100L);
+        verify(redisTemplate).execute(anyScript(),
+                eq(List.of("flash:stock:{7:0}", "flash:user:{7:0}:1")),
+                eq("100"), anyString(), eq("0"));
+        verify(flashSaleOrderMapper, never()).insert(any(FlashSaleOrder.class));
+    }
+
+    @Test
+    void purchaseShouldRejectDuplicateWithoutTouchingDatabase() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), anyString())).thenReturn(-2L);
+
+        assertThatThrownBy(() -> flashSaleService.attemptPurchase(1L, 7L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("请勿重复");
+
+        verify(flashSaleOrderMapper, never()).insert(any(FlashSaleOrder.class));
+    }
+
+    @Test
+    void purchaseShouldRejectWhenSoldOut() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), anyString())).thenReturn(-1L);
+
+        assertThatThrownBy(() -> flashSaleService.attemptPurchase(1L, 7L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("售罄");
+
+        verify(flashSaleOrderMapper, never()).insert(any(FlashSaleOrder.class));
+    }
+
+    @Test
+    void soldOutItemShouldBeRejectedLocallyAfterFirstSoldOutResult() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), anyString())).thenReturn(-1L);
+
+        assertThatThrownBy(() -> flashSaleService.attemptPurchase(1L, 7L))
+                .hasMessageContaining("售罄");
+        assertThatThrownBy(() -> flashSaleService.attemptPurchase(2L, 7L))
+                .hasMessageContaining("售罄");
+
+        verify(redisTemplate, times(1)).execute(anyScript(), anyList(), anyString(), anyString(), anyString());
+        verify(redisTemplate).convertAndSend(FlashSaleLocalCache.CHANNEL, "SOLD_OUT:7");
+    }
+
+    @Test
+    void purchaseShouldReleaseReservationWhenPublishFails() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), anyString())).thenReturn(3L);
+        SettableListenableFuture<SendResult<String, FlashSaleOrderEvent>> future = new SettableListenableFuture<>();
+        when(flashSaleOrderEventPublisher.publishOrderReserved(100L, 7L, 1L)).thenReturn(future);
+
+        flashSaleService.attemptPurchase(1L, 7L);
+        future.setException(new KafkaException("send failed", new RecordTooLargeException("too large")));
+
+        verify(redisTemplate).execute(anyScript(),
+                eq(List.of("flash:stock:{7:0}", "flash:user:{7:0}:1")), eq("100"), eq("1"), eq("FAILED:100"), anyString());
+    }
+
+    @Test
+    void purchaseShouldKeepReservationWhenPublishTimesOut() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), anyString())).thenReturn(3L);
+        SettableListenableFuture<SendResult<String, FlashSaleOrderEvent>> future = new SettableListenableFuture<>();
+        when(flashSaleOrderEventPublisher.publishOrderReserved(100L, 7L, 1L)).thenReturn(future);
+
+        flashSaleService.attemptPurchase(1L, 7L);
+        // A delivery timeout does not say whether the broker wrote the record, which the consumer will confirm.
+        future.setException(new KafkaException("send failed", new TimeoutException("Expiring 1 record(s)")));
+
+        verify(redisTemplate, times(1)).execute(anyScript(), anyList(), anyString(), anyString(), anyString());
+        verify(redisTemplate, never()).execute(anyScript(), anyList(), anyString(), anyString());
+        verify(redisTemplate, never()).execute(anyScript(), anyList(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void statusShouldReportFailedReservation() {
+        when(valueOperations.multiGet(List.of("flash:user:{7:0}:1"))).thenReturn(List.of("FAILED:100"));
+
+        FlashSaleOrderStatusResponse status = flashSaleService.getOrderStatus(1L, 7L);
+
+        assertThat(status.getOrderId()).isEqualTo(100L);
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void purchaseShouldClaimHomeShardAndFallBackToSibling() {
+        List<String> homeKeys = List.of("flash:stock:{8:1}", "flash:user:{8:1}:1");
+        List<String> siblingKeys = List.of("flash:stock:{8:2}", "flash:user:{8:2}:1");
+        when(redisTemplate.execute(anyScript(), eq(homeKeys), anyString(), anyString(), eq("1"))).thenReturn(-4L);
+        when(redisTemplate.execute(anyScript(), eq(siblingKeys), anyString(), anyString(), eq("0"))).thenReturn(4L);
+        SettableListenableFuture<SendResult<String, FlashSaleOrderEvent>> future = new SettableListenableFuture<>();
+        when(flashSaleOrderEventPublisher.publishOrderReserved(100L, 8L, 1L)).thenReturn(future);
+
+        Long orderId = flashSaleService.attemptPurchase(1L, 8L);
+
+        assertThat(orderId).isEqualTo(100L);
+        verify(valueOperations, never()).set(eq("flash:user:{8:1}:1"), anyString(), any(Duration.class));
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void purchaseShouldDropHomeClaimWhenEveryShardIsDrained() {
+        List<String> homeKeys = List.of("flash:stock:{8:1}", "flash:user:{8:1}:1");
+        when(redisTemplate.execute(anyScript(), eq(homeKeys), anyString(), anyString(), eq("1"))).thenReturn(-4L);
+        when(redisTemplate.execute(anyScript(), anyList(), anyString(), anyString(), eq("0"))).thenReturn(-1L);
+
+        assertThatThrownBy(() -> flashSaleService.attemptPurchase(1L, 8L))
+                .hasMessageContaining("售罄");
+
+        verify(redisTemplate).execute(anyScript(), eq(homeKeys), eq("100"), eq("0"));
+        verify(redisTemplate).convertAndSend(FlashSaleLocalCache.CHANNEL, "SOLD_OUT:8");
+    }
+
+    @Test
+    void prewarmShouldSeedFullStockBeforeTheSaleStarts() {
+        FlashSaleItem upcoming = new FlashSaleItem();
+        upcoming.setId(9L);
+        upcoming.setTotalStock(10);
+        upcoming.setStockShards(2);
+        upcoming.setStartTime(LocalDateTime.now().plusMinutes(10));
+        upcoming.setEndTime(LocalDateTime.now().plusMinutes(40));
+        when(flashSaleItemMapper.selectList(any())).thenReturn(List.of(upcoming));
+
+        flashSaleService.prewarmUpcomingItems();
+
+        verify(valueOperations).setIfAbsent(eq("flash:stock:{9:0}"), eq("5"), any(Duration.class));
+        verify(valueOperations).setIfAbsent(eq("flash:stock:{9:1}"), eq("5"), any(Duration.class));
+        verify(flashSaleOrderMapper, never()).selectList(any());
+    }
+
+    @Test
+    void prewarmShouldReseedRunningSaleFromPersistedOrdersAndLegacyCounter() {
+        FlashSaleItem running = flashSaleItemMapper.selectById(8L);
+        when(flashSaleItemMapper.selectList(any())).thenReturn(List.of(running));
+        when(valueOperations.multiGet(List.of("flash:stock:{8:0}", "flash:stock:{8:1}", "flash:stock:{8:2}", "flash:stock:{8:3}")))
+                .thenReturn(Arrays.asList(null, "1", null, null));
+        FlashSaleOrder sold = new FlashSaleOrder();
+        sold.setId(55L);
+        sold.setUserId(6L);
+        when(flashSaleOrderMapper.selectList(any())).thenReturn(List.of(sold, new FlashSaleOrder(), new FlashSaleOrder()));
+        when(valueOperations.get("flash:stock:8")).thenReturn("5");
+
+        flashSaleService.prewarmUpcomingItems();
+
+        // min(10 - 3 persisted, 5 legacy) minus the 1 still on shard 1 leaves 4 for the three missing shards.
+        verify(valueOperations).setIfAbsent(eq("flash:stock:{8:0}"), eq("2"), any(Duration.class));
+        verify(valueOperations).setIfAbsent(eq("flash:stock:{8:2}"), eq("1"), any(Duration.class));
+        verify(valueOperations).setIfAbsent(eq("flash:stock:{8:3}"), eq("1"), any(Duration.class));
+        verify(valueOperations, never()).setIfAbsent(eq("flash:stock:{8:1}"), anyString(), any(Duration.class));
+        verify(valueOperations).setIfAbsent(eq("flash:user:{8:2}:6"), eq("55"), any(Duration.class));
+    }
+
+    @Test
+    void splitShouldSpreadRemainderOverLowestShards() {
+        assertThat(FlashSaleStockShards.split(10, 4)).containsExactly(3, 3, 2, 2);
+        assertThat(FlashSaleStockShards.split(2, 4)).containsExactly(1, 1, 0, 0);
+    }
+
+    private static <T> RedisScript<T> anyScript() {
+        return any();
+    }
+}
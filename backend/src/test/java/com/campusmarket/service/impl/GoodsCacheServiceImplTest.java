@@ -0,0 +1,63 @@
+package com.campusmarket.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GoodsCacheServiceImplTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private GoodsCacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        cacheService = new GoodsCacheServiceImpl(redisTemplate, stringRedisTemplate,
+                new CacheMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void namespaceFoldsInGlobalAndScopeGenerations() {
+        when(valueOperations.multiGet(List.of(GoodsCacheServiceImpl.LIST_GENERATION_GLOBAL_KEY,
+                GoodsCacheServiceImpl.LIST_GENERATION_CATEGORY_PREFIX + "Books")))
+                .thenReturn(Arrays.asList("3", "7"));
+        when(valueOperations.multiGet(List.of(GoodsCacheServiceImpl.LIST_GENERATION_GLOBAL_KEY,
+                GoodsCacheServiceImpl.LIST_GENERATION_ANY_KEY)))
+                .thenReturn(Arrays.asList("3", null));
+
+        assertThat(cacheService.goodsListNamespace("Books")).isEqualTo("goods:list:g3.7:");
+        assertThat(cacheService.goodsListNamespace(null)).isEqualTo("goods:list:g3.0:");
+    }
+
+    @Test
+    void evictingAllListsIsOneIncrementAndNeverScansKeys() {
+        cacheService.evictGoodsLists();
+
+        verify(valueOperations).increment(GoodsCacheServiceImpl.LIST_GENERATION_GLOBAL_KEY);
+        verify(redisTemplate, never()).keys(anyString());
+        verify(stringRedisTemplate, never()).keys(anyString());
+    }
+}
@@ -0,0 +1,162 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.messaging.GoodsEvent;
+import com.campusmarket.messaging.GoodsEventType;
+import com.campusmarket.service.GoodsCacheService;
+import com.campusmarket.service.GoodsMetricsService;
+import com.campusmarket.service.GoodsSearchService;
+import com.campusmarket.service.HotGoodsService;
+import com.campusmarket.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GoodsEventProcessorTest {
+
+    @Mock
+    private GoodsMetricsService goodsMetricsService;
+    @Mock
+    private HotGoodsService hotGoodsService;
+    @Mock
+    private GoodsCacheService goodsCacheService;
+    @Mock
+    private GoodsSearchService goodsSearchService;
+    @Mock
+    private GoodsNearCache nearCache;
+    @Mock
+    private GoodsIdBloomFilter goodsIdFilter;
+    @Mock
+    private OrderService orderService;
+
+    private GoodsEventProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new GoodsEventProcessor(goodsMetricsService, hotGoodsService, goodsCacheService,
+                goodsSearchService, nearCache, goodsIdFilter, orderService);
+    }
+
+    @Test
+    void burstOfUpdatesIsEvictedAndReindexedOncePerGoods() {
+        List<GoodsEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            events.add(event(GoodsEventType.GOODS_UPDATED, 1L + i % 2, "Books"));
+        }
+
+        processor.handleBatch(events);
+
+        ArgumentCaptor<Collection<Long>> ids = idsCaptor();
+        ArgumentCaptor<Collection<String>> categories = categoriesCaptor();
+        verify(goodsCacheService).evictAllForGoods(ids.capture(), categories.capture());
+        assertThat(ids.getValue()).containsExactly(1L, 2L);
+        assertThat(categories.getValue()).containsExactly("Books");
+        verify(hotGoodsService, times(1)).evictHotCache();
+        verify(goodsSearchService, times(1)).reindex(1L);
+        verify(goodsSearchService, times(1)).reindex(2L);
+        verify(orderService, times(1)).refreshGoodsSnapshot(1L);
+        verify(orderService, times(1)).refreshGoodsSnapshot(2L);
+    }
+
+    @Test
+    void viewsAreMergedPerGoodsAndNeverEvict() {
+        processor.handleBatch(List.of(
+                event(GoodsEventType.GOODS_VIEWED, 5L, null),
+                event(GoodsEventType.GOODS_VIEWED, 5L, null),
+                event(GoodsEventType.GOODS_VIEWED, 6L, null)));
+
+        verify(goodsMetricsService).recordViews(Map.of(5L, 2L, 6L, 1L));
+        verify(goodsCacheService, never()).evictAllForGoods(anyCollection(), anyCollection());
+        verify(hotGoodsService, never()).evictHotCache();
+    }
+
+    @Test
+    void windowedViewCountsAreAddedToSingleViews() {
+        GoodsEvent window = event(GoodsEventType.GOODS_VIEWED, 5L, null);
+        window.setViewCount(40L);
+
+        processor.handleBatch(List.of(window, event(GoodsEventType.GOODS_VIEWED, 5L, null)));
+
+        verify(goodsMetricsService).recordViews(Map.of(5L, 41L));
+    }
+
+    @Test
+    void failedViewRecordingIsNotRetried() {
+        doThrow(new IllegalStateException("redis down")).when(goodsMetricsService).recordViews(any());
+
+        assertThat(processor.handleBatch(List.of(event(GoodsEventType.GOODS_VIEWED, 5L, null)))).isEmpty();
+    }
+
+    @Test
+    void mixedBatchDropsMetricsOnceAndWidensToAllListsForUnknownCategory() {
+        GoodsEvent approved = event(GoodsEventType.GOODS_REVIEWED, 3L, "Bikes");
+        approved.setCurrentStatus(GoodsStatus.APPROVED.name());
+        doThrow(new IllegalStateException("db down")).when(orderService).refreshGoodsSnapshot(4L);
+
+        Map<Long, RuntimeException> failures = processor.handleBatch(List.of(
+                approved,
+                event(GoodsEventType.GOODS_UPDATED, 4L, null),
+                event(GoodsEventType.GOODS_MARKED_SOLD, 7L, "Books"),
+                event(GoodsEventType.GOODS_DELETED, 8L, "Books")));
+
+        verify(hotGoodsService).recordListing(3L);
+        verify(goodsMetricsService).removeMetrics(Set.of(7L, 8L));
+        ArgumentCaptor<Collection<Long>> ids = idsCaptor();
+        ArgumentCaptor<Collection<String>> categories = categoriesCaptor();
+        // The failed snapshot refresh does not stop the rest of the batch.
+        verify(goodsCacheService).evictAllForGoods(ids.capture(), categories.capture());
+        assertThat(ids.getValue()).containsExactly(3L, 4L, 7L, 8L);
+        assertThat(categories.getValue()).containsExactlyInAnyOrder("Bikes", null, "Books");
+        assertThat(failures).containsOnlyKeys(4L);
+    }
+
+    @Test
+    void nearCacheDropsEachChangedDetailAndTheHotListOnce() {
+        processor.invalidateNearCache(List.of(
+                event(GoodsEventType.GOODS_VIEWED, 1L, null),
+                event(GoodsEventType.GOODS_CREATED, 2L, null),
+                event(GoodsEventType.GOODS_UPDATED, 3L, null)));
+
+        verify(nearCache, never()).invalidateDetail(1L);
+        verify(goodsIdFilter).addLocal(2L);
+        verify(nearCache).invalidateDetail(2L);
+        verify(nearCache).invalidateDetail(3L);
+        verify(nearCache, times(1)).invalidateHotList();
+        verify(goodsMetricsService, never()).recordViews(any());
+    }
+
+    private static GoodsEvent event(GoodsEventType type, Long goodsId, String category) {
+        GoodsEvent event = new GoodsEvent(type, goodsId, 9L, null, null, 1, type.name(), LocalDateTime.now());
+        event.setCategory(category);
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Long>> idsCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<String>> categoriesCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
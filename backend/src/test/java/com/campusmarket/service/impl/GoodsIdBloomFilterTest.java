@@ -0,0 +1,112 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.mapper.GoodsMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GoodsIdBloomFilterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private GoodsMapper goodsMapper;
+
+    private final AtomicReference<byte[]> storedBitmap = new AtomicReference<>();
+    private GoodsIdBloomFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        lenient().when(connection.stringCommands()).thenReturn(stringCommands);
+        lenient().when(stringCommands.set(any(byte[].class), any(byte[].class))).thenAnswer(invocation -> {
+            storedBitmap.set(invocation.getArgument(1));
+            return true;
+        });
+        lenient().when(stringCommands.get(any(byte[].class))).thenAnswer(invocation -> storedBitmap.get());
+        lenient().when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        filter = new GoodsIdBloomFilter(redisTemplate, goodsMapper, new SimpleMeterRegistry(),
+                true, 1_000, 0.01, 3_600_000);
+    }
+
+    @Test
+    void sizesBitmapForExpectedInsertionsAndFalsePositiveRate() {
+        assertThat(filter.bitCount()).isBetween(9_500L, 9_700L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuiltIdsAreConfirmedLocallyAndUnknownIdsRejectedByRedis() {
+        when(goodsMapper.selectIdsAfter(anyLong(), anyInt())).thenReturn(List.of(1L, 2L, 3L));
+
+        filter.rebuild();
+
+        assertThat(filter.mightContain(1L)).isTrue();
+        assertThat(filter.mightContain(3L)).isTrue();
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+
+        // The shared bitmap exists but does not hold every bit of the unknown id.
+        List<Object> replies = new ArrayList<>();
+        replies.add(true);
+        for (int i = 0; i < filter.hashCount(); i++) {
+            replies.add(i == 0);
+        }
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(replies);
+        assertThat(filter.mightContain(424242L)).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void letsLookupsThroughWhileTheSharedBitmapIsMissing() {
+        List<Object> replies = new ArrayList<>();
+        replies.add(false);
+        for (int i = 0; i < filter.hashCount(); i++) {
+            replies.add(false);
+        }
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(replies);
+
+        assertThat(filter.mightContain(99L)).isTrue();
+    }
+
+    @Test
+    void localBitmapUsesRedisBitOrder() {
+        // SETBIT key 0 1 and SETBIT key 9 1 produce bytes 0x80 0x40.
+        byte[] bitmap = {(byte) 0x80, 0x40};
+
+        assertThat(GoodsIdBloomFilter.fromRedisBitmap(bitmap).get(0)).isEqualTo((1L) | (1L << 9));
+    }
+}
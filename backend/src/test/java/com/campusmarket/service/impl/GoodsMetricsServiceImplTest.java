@@ -0,0 +1,176 @@
+package com.campusmarket.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GoodsMetricsServiceImplTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private StringRedisConnection connection;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private HotGoodsScoreBoard hotGoodsScoreBoard;
+
+    private GoodsMetricsServiceImpl metricsService;
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new GoodsMetricsServiceImpl(redisTemplate, hotGoodsScoreBoard);
+        lenient().when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return List.of();
+        });
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    void flushShouldWriteAggregatedDeltasInOnePipeline() {
+        for (int i = 0; i < 500; i++) {
+            metricsService.recordView(1L);
+        }
+        metricsService.recordOrder(1L);
+        metricsService.recordView(2L);
+
+        metricsService.flush();
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(connection).hIncrBy("goods:metrics:views", "1", 500L);
+        verify(connection).zIncrBy("goods:ranking:views", 500D, "1");
+        verify(connection).hIncrBy("goods:metrics:orders", "1", 1L);
+        verify(connection).hIncrBy("goods:metrics:views", "2", 1L);
+        verify(hotGoodsScoreBoard).increment(Map.of(1L, 1L), null, Map.of(1L, 500L, 2L, 1L));
+    }
+
+    @Test
+    void flushShouldSkipRedisWhenNothingIsPending() {
+        metricsService.flush();
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verify(hotGoodsScoreBoard, never()).increment(any(), any(), any());
+    }
+
+    @Test
+    void countsShouldIncludeUnflushedIncrements() {
+        when(hashOperations.multiGet(eq("goods:metrics:views"), anyCollection())).thenReturn(Arrays.asList("10", null));
+        metricsService.recordView(1L);
+        metricsService.recordView(2L);
+
+        Map<Long, Long> counts = metricsService.getViewCounts(List.of(1L, 2L));
+
+        assertThat(counts).containsEntry(1L, 11L).containsEntry(2L, 1L);
+    }
+
+    @Test
+    void incrementsRecordedDuringFlushesShouldNotBeLost() throws Exception {
+        int threads = 4;
+        int viewsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < viewsPerThread; i++) {
+                    metricsService.recordView(1L);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+            metricsService.flush();
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        metricsService.flush();
+
+        ArgumentCaptor<Long> deltas = ArgumentCaptor.forClass(Long.class);
+        verify(connection, atLeastOnce()).hIncrBy(eq("goods:metrics:views"), eq("1"), deltas.capture());
+        assertThat(deltas.getAllValues().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo((long) threads * viewsPerThread);
+    }
+
+    @Test
+    void removalShouldWaitForAnInFlightFlushOfTheSameGoods() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return List.of();
+        }).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return List.of();
+        });
+        metricsService.recordView(7L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> flush = executor.submit(metricsService::flush);
+            flushing.await();
+            Future<?> removal = executor.submit(() -> metricsService.removeMetrics(List.of(7L)));
+            Thread.sleep(100);
+            assertThat(removal.isDone()).isFalse();
+
+            release.countDown();
+            flush.get();
+            removal.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        InOrder order = inOrder(connection, hotGoodsScoreBoard);
+        order.verify(connection).hIncrBy("goods:metrics:views", "7", 1L);
+        order.verify(hotGoodsScoreBoard).increment(any(), any(), any());
+        order.verify(hotGoodsScoreBoard).remove(7L);
+        order.verify(connection).hDel("goods:metrics:views", "7");
+    }
+
+    @Test
+    void batchRemovalShouldSurfaceRedisFailuresForRetry() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new IllegalStateException("down"));
+
+        assertThatThrownBy(() -> metricsService.removeMetrics(List.of(7L))).isInstanceOf(IllegalStateException.class);
+    }
+}
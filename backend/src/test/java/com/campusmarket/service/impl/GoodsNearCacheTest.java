@@ -0,0 +1,27 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoodsNearCacheTest {
+
+    private final CacheMetrics metrics = new CacheMetrics(new SimpleMeterRegistry());
+    private final GoodsNearCache nearCache = new GoodsNearCache(metrics, 100, 60, 60);
+
+    @Test
+    void servesDetailsUntilInvalidatedAndTracksHitRatio() {
+        GoodsResponse goods = new GoodsResponse();
+        goods.setId(5L);
+
+        assertThat(nearCache.getDetail(5L)).isNull();
+        nearCache.putDetail(goods);
+        assertThat(nearCache.getDetail(5L)).isSameAs(goods);
+        assertThat(metrics.hitRatio(GoodsNearCache.DETAIL_CACHE, CacheMetrics.L1)).isEqualTo(0.5);
+
+        nearCache.invalidateDetail(5L);
+        assertThat(nearCache.getDetail(5L)).isNull();
+    }
+}
@@ -0,0 +1,27 @@
+package com.campusmarket.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoodsSearchHighlighterTest {
+
+    @Test
+    void wrapsMatchesCaseInsensitivelyAndEscapesTheRest() {
+        GoodsSearchHighlighter highlighter = new GoodsSearchHighlighter("laptop <b>");
+
+        assertThat(highlighter.highlight("Cheap LAPTOP <script>"))
+                .isEqualTo("Cheap <em>LAPTOP</em> &lt;script&gt;");
+    }
+
+    @Test
+    void snippetCentersOnFirstMatch() {
+        GoodsSearchHighlighter highlighter = new GoodsSearchHighlighter("bike");
+        String text = "x".repeat(200) + " bike " + "y".repeat(200);
+
+        String snippet = highlighter.snippet(text);
+
+        assertThat(snippet).startsWith("...").endsWith("...").contains("<em>bike</em>");
+        assertThat(snippet.length()).isLessThan(GoodsSearchHighlighter.SNIPPET_LENGTH + 20);
+    }
+}
@@ -0,0 +1,120 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsUpdateRequest;
+import com.campusmarket.entity.Goods;
+import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.mapper.GoodsMapper;
+import com.campusmarket.messaging.GoodsEventPublisher;
+import com.campusmarket.service.CartService;
+import com.campusmarket.service.GoodsCacheService;
+import com.campusmarket.service.GoodsMetricsService;
+import com.campusmarket.service.HotGoodsService;
+import com.campusmarket.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GoodsServiceImplTest {
+
+    @Mock
+    private GoodsMapper goodsMapper;
+    @Mock
+    private UserService userService;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private HotGoodsService hotGoodsService;
+    @Mock
+    private GoodsMetricsService goodsMetricsService;
+    @Mock
+    private GoodsCacheService goodsCacheService;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private GoodsEventPublisher goodsEventPublisher;
+    @Mock
+    private RefreshAheadCache refreshAheadCache;
+    @Mock
+    private GoodsNearCache nearCache;
+    @Mock
+    private GoodsIdBloomFilter goodsIdFilter;
+
+    private GoodsServiceImpl goodsService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(goodsIdFilter.mightContain(anyLong())).thenReturn(true);
+        goodsService = new GoodsServiceImpl(goodsMapper, userService, cartService, hotGoodsService,
+                goodsMetricsService, goodsCacheService, redisTemplate, new ObjectMapper(), goodsEventPublisher,
+                refreshAheadCache, nearCache, goodsIdFilter);
+    }
+
+    @Test
+    void markSoldTakesStockWithOneConditionalUpdate() {
+        Goods updated = goods(7L, 0);
+        updated.setSold(true);
+        when(goodsMapper.decrementStock(7L, 1)).thenReturn(updated);
+
+        goodsService.markSold(7L, true);
+
+        verify(goodsMapper, never()).selectById(any());
+        verify(goodsMapper, never()).updateById(any(Goods.class));
+        verify(cartService).removeCartItemsByGoodsId(7L);
+        verify(goodsEventPublisher).publishGoodsMarkedSold(updated, null);
+    }
+
+    @Test
+    void markSoldFailsWhenNoStockIsLeft() {
+        when(goodsMapper.decrementStock(7L, 1)).thenReturn(null);
+
+        assertThatThrownBy(() -> goodsService.markSold(7L, true))
+                .isInstanceOf(IllegalStateException.class);
+        verify(goodsEventPublisher, never()).publishGoodsMarkedSold(any(), any());
+    }
+
+    @Test
+    void sellerUpdateIsRejectedWhenTheRowChangedSinceItWasRead() {
+        when(goodsMapper.selectById(7L)).thenReturn(goods(7L, 3));
+        when(goodsMapper.updateById(any(Goods.class))).thenReturn(0);
+        GoodsUpdateRequest request = new GoodsUpdateRequest();
+        request.setDescription("updated");
+        request.setPrice(new BigDecimal("10.00"));
+        request.setQuantity(5);
+
+        assertThatThrownBy(() -> goodsService.updateGoods(7L, request, 1L))
+                .isInstanceOf(IllegalStateException.class);
+        verify(goodsEventPublisher, never()).publishGoodsUpdated(any(), any(), any());
+    }
+
+    private static Goods goods(Long id, int quantity) {
+        Goods goods = new Goods();
+        goods.setId(id);
+        goods.setSellerId(1L);
+        goods.setCategory("Books");
+        goods.setQuantity(quantity);
+        goods.setSold(quantity <= 0);
+        goods.setDeleted(false);
+        goods.setStatus(GoodsStatus.APPROVED.name());
+        goods.setVersion(2);
+        return goods;
+    }
+}
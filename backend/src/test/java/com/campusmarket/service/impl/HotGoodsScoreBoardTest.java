@@ -0,0 +1,80 @@
+package com.campusmarket.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotGoodsScoreBoardTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private HotGoodsScoreBoard scoreBoard;
+
+    @BeforeEach
+    void setUp() {
+        scoreBoard = new HotGoodsScoreBoard(redisTemplate);
+    }
+
+    @Test
+    void topShouldScaleScoresByTheEpochReadWithThem() {
+        String epoch = String.valueOf(System.currentTimeMillis());
+        when(redisTemplate.execute(anyScript(),
+                eq(List.of(HotGoodsScoreBoard.SCORE_KEY, HotGoodsScoreBoard.EPOCH_KEY)), eq("0"), eq("1")))
+                .thenReturn(List.of(epoch, "5", "20.0", "6", "10.0"));
+
+        LinkedHashMap<Long, Double> top = scoreBoard.top(0, 2);
+
+        assertThat(top.keySet()).containsExactly(5L, 6L);
+        assertThat(top.get(5L)).isCloseTo(20.0, within(0.01));
+        assertThat(top.get(6L)).isCloseTo(10.0, within(0.01));
+    }
+
+    @Test
+    void seedShouldCombineRankingsClientSideInOneSlot() {
+        when(redisTemplate.hasKey(HotGoodsScoreBoard.SCORE_KEY)).thenReturn(false);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeWithScores("goods:ranking:orders", 0, -1))
+                .thenReturn(Set.of(new DefaultTypedTuple<>("1", 2D)));
+        when(zSetOperations.rangeWithScores("goods:ranking:carts", 0, -1))
+                .thenReturn(Set.of(new DefaultTypedTuple<>("1", 1D)));
+        when(zSetOperations.rangeWithScores("goods:ranking:views", 0, -1))
+                .thenReturn(Set.of(new DefaultTypedTuple<>("2", 7D)));
+        List<String> keys = List.of(HotGoodsScoreBoard.SCORE_KEY, HotGoodsScoreBoard.EPOCH_KEY);
+        when(redisTemplate.execute(anyScript(), eq(keys), eq("1"), anyString(),
+                eq("1"), eq("24.0"), eq("2"), eq("7.0"))).thenReturn(1L);
+
+        scoreBoard.seedIfEmpty();
+
+        verify(redisTemplate).execute(anyScript(), eq(keys), eq("1"), anyString(),
+                eq("1"), eq("24.0"), eq("2"), eq("7.0"));
+        verify(zSetOperations, never()).unionAndStore(anyString(), anyList(), anyString(), any(), any());
+    }
+
+    private static <T> RedisScript<T> anyScript() {
+        return any();
+    }
+}
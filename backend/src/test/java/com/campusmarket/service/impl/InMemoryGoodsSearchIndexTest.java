@@ -0,0 +1,68 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.GoodsFilterRequest;
+import com.campusmarket.dto.GoodsSearchMatch;
+import com.campusmarket.entity.Goods;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryGoodsSearchIndexTest {
+
+    private InMemoryGoodsSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryGoodsSearchIndex(null);
+        index.index(goods(1L, "Second-hand Laptop", "Electronics", "Ultrabook for course work", "3200", 3));
+        index.index(goods(2L, "Laptop Stand", "Daily", "Aluminium stand", "60", 2));
+        index.index(goods(3L, "Linear Algebra Textbook", "Books", "Good for laptop-free study", "25", 1));
+        index.index(goods(4L, "二手笔记本电脑", "Electronics", "九成新", "2800", 4));
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatchesAndRequiresEveryTerm() {
+        assertThat(ids(index.search("laptop", null, 0, 10))).startsWith(2L, 1L).endsWith(3L);
+        assertThat(ids(index.search("laptop stand", null, 0, 10))).containsExactly(2L);
+        assertThat(ids(index.search("笔记本", null, 0, 10))).containsExactly(4L);
+    }
+
+    @Test
+    void appliesFiltersPagingAndRemoval() {
+        GoodsFilterRequest filter = new GoodsFilterRequest();
+        filter.setMinPrice(new BigDecimal("100"));
+        assertThat(ids(index.search("laptop", filter, 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("laptop", null, 1, 1))).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(ids(index.search("stand", null, 0, 10))).isEmpty();
+    }
+
+    @Test
+    void suggestsTitlesByWordPrefixNewestFirst() {
+        assertThat(index.suggest("lap", 10)).containsExactly("Laptop Stand", "Second-hand Laptop");
+        assertThat(index.suggest("second-ha", 10)).containsExactly("Second-hand Laptop");
+        assertThat(index.suggest("笔", 10)).containsExactly("二手笔记本电脑");
+    }
+
+    private static List<Long> ids(List<GoodsSearchMatch> matches) {
+        return matches.stream().map(GoodsSearchMatch::getGoodsId).collect(Collectors.toList());
+    }
+
+    private static Goods goods(Long id, String title, String category, String description, String price, int ageDays) {
+        Goods goods = new Goods();
+        goods.setId(id);
+        goods.setTitle(title);
+        goods.setCategory(category);
+        goods.setDescription(description);
+        goods.setPrice(new BigDecimal(price));
+        goods.setPublishedAt(LocalDateTime.now().minusDays(ageDays));
+        return goods;
+    }
+}
@@ -0,0 +1,32 @@
+package com.campusmarket.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorRoundTrips() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+        String encoded = new KeysetCursor(timestamp, 42L).encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(encoded);
+
+        assertThat(encoded).doesNotContain("|", "=", "+", "/");
+        assertThat(decoded.getTimestamp()).isEqualTo(timestamp);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void blankCursorMeansFirstPageAndGarbageIsRejected() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
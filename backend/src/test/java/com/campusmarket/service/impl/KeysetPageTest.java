@@ -0,0 +1,54 @@
+package com.campusmarket.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPageTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    void extraRowIsDroppedAndBecomesTheNextCursor() {
+        List<Row> fetched = List.of(new Row(3L, T0.plusMinutes(2)), new Row(2L, T0.plusMinutes(1)), new Row(1L, T0));
+
+        KeysetPage<Row> page = KeysetPage.of(fetched, 2);
+
+        assertThat(page.getRows()).extracting(row -> row.id).containsExactly(3L, 2L);
+        assertThat(page.hasMore()).isTrue();
+        KeysetCursor next = KeysetCursor.decode(page.nextCursor(row -> row.at, row -> row.id));
+        assertThat(next.getId()).isEqualTo(2L);
+        assertThat(next.getTimestamp()).isEqualTo(T0.plusMinutes(1));
+    }
+
+    @Test
+    void shortFetchIsTheLastPage() {
+        KeysetPage<Row> page = KeysetPage.of(List.of(new Row(1L, T0)), 2);
+
+        assertThat(page.getRows()).hasSize(1);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor(row -> row.at, row -> row.id)).isNull();
+    }
+
+    @Test
+    void sizeIsDefaultedAndCapped() {
+        assertThat(KeysetPage.resolveSize(null)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+        assertThat(KeysetPage.resolveSize(0)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+        assertThat(KeysetPage.resolveSize(500)).isEqualTo(KeysetPage.MAX_SIZE);
+        assertThat(KeysetPage.fetchSize(20)).isEqualTo(21);
+    }
+
+    private static final class Row {
+
+        private final Long id;
+        private final LocalDateTime at;
+
+        private Row(Long id, LocalDateTime at) {
+            this.id = id;
+            this.at = at;
+        }
+    }
+}
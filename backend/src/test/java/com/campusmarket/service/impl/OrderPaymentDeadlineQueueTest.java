@@ -0,0 +1,62 @@
+package com.campusmarket.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPaymentDeadlineQueueTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private OrderPaymentDeadlineQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new OrderPaymentDeadlineQueue(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void scheduleInsideTransactionWaitsForCommit() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        TransactionSynchronizationManager.initSynchronization();
+
+        queue.schedule(7L, 1_000L);
+
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(zSetOperations).add(OrderPaymentDeadlineQueue.DEADLINES_KEY, "7", 1_000D);
+    }
+
+    @Test
+    void scheduleWithoutTransactionAddsImmediately() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        queue.schedule(7L, 1_000L);
+
+        verify(zSetOperations).add(OrderPaymentDeadlineQueue.DEADLINES_KEY, "7", 1_000D);
+    }
+}
@@ -0,0 +1,176 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.dto.OrderCreateRequest;
+import com.campusmarket.dto.OrderPageResponse;
+import com.campusmarket.dto.OrderResponse;
+import com.campusmarket.dto.OrderUpdateStatusRequest;
+import com.campusmarket.entity.Goods;
+import com.campusmarket.entity.GoodsStatus;
+import com.campusmarket.entity.Order;
+import com.campusmarket.entity.OrderRole;
+import com.campusmarket.entity.OrderStatus;
+import com.campusmarket.entity.User;
+import com.campusmarket.mapper.OrderMapper;
+import com.campusmarket.messaging.OrderEventPublisher;
+import com.campusmarket.service.CartService;
+import com.campusmarket.service.GoodsMetricsService;
+import com.campusmarket.service.GoodsService;
+import com.campusmarket.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private GoodsService goodsService;
+    @Mock
+    private GoodsMetricsService goodsMetricsService;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private UserService userService;
+    @Mock
+    private OrderEventPublisher orderEventPublisher;
+    @Mock
+    private OrderPaymentDeadlineQueue paymentDeadlines;
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderServiceImpl(orderMapper, goodsService, goodsMetricsService, cartService,
+                userService, orderEventPublisher, paymentDeadlines, 15);
+    }
+
+    @Test
+    void sellerPageIsOneKeysetQueryWithoutGoodsOrUserLookups() {
+        when(orderMapper.selectPageForUser(7L, true, null, null, 3))
+                .thenReturn(List.of(order(30L, NOW), order(29L, NOW), order(28L, NOW.minusMinutes(1))));
+
+        OrderPageResponse page = orderService.listOrders(7L, OrderRole.SELLER, null, 2);
+
+        assertThat(page.getItems()).extracting(OrderResponse::getId).containsExactly(30L, 29L);
+        assertThat(page.getItems().get(0).getGoodsTitle()).isEqualTo("Calculus");
+        assertThat(page.getItems().get(0).getSellerNickname()).isEqualTo("seller");
+        assertThat(page.isHasMore()).isTrue();
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertThat(next.getTimestamp()).isEqualTo(NOW);
+        assertThat(next.getId()).isEqualTo(29L);
+        verifyNoInteractions(goodsService, userService);
+    }
+
+    @Test
+    void nextPageStartsAfterTheCursor() {
+        String cursor = new KeysetCursor(NOW, 29L).encode();
+        when(orderMapper.selectPageForUser(eq(5L), eq(false), eq(NOW), eq(29L), anyInt()))
+                .thenReturn(List.of(order(28L, NOW.minusMinutes(1))));
+
+        OrderPageResponse page = orderService.listOrders(5L, OrderRole.BUYER, cursor, null);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void createdOrderCarriesTheListSnapshot() {
+        Goods goods = new Goods();
+        goods.setId(3L);
+        goods.setSellerId(7L);
+        goods.setTitle("Calculus");
+        goods.setCoverImageUrl("cover.png");
+        goods.setQuantity(1);
+        goods.setStatus(GoodsStatus.APPROVED.name());
+        when(goodsService.getGoodsEntity(3L)).thenReturn(goods);
+        when(userService.findById(5L)).thenReturn(user(5L, "buyer"));
+        when(userService.findById(7L)).thenReturn(user(7L, "seller"));
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setGoodsId(3L);
+
+        OrderResponse response = orderService.createOrder(5L, request);
+
+        ArgumentCaptor<Order> inserted = ArgumentCaptor.forClass(Order.class);
+        verify(orderMapper).insert(inserted.capture());
+        assertThat(inserted.getValue().getSellerId()).isEqualTo(7L);
+        assertThat(inserted.getValue().getGoodsTitle()).isEqualTo("Calculus");
+        assertThat(inserted.getValue().getGoodsCoverImageUrl()).isEqualTo("cover.png");
+        assertThat(inserted.getValue().getBuyerNickname()).isEqualTo("buyer");
+        assertThat(inserted.getValue().getSellerNickname()).isEqualTo("seller");
+        assertThat(response.getSellerNickname()).isEqualTo("seller");
+        verify(goodsService, never()).listGoodsBySeller(anyLong());
+        verify(paymentDeadlines).schedule(eq(inserted.getValue().getId()),
+                eq(OrderServiceImpl.toEpochMillis(inserted.getValue().getCreatedAt().plusMinutes(15))));
+    }
+
+    @Test
+    void expiredOrdersAreCanceledInOneStatementAndTheirStockReleased() {
+        Order expired = order(28L, NOW.minusMinutes(20));
+        expired.setStatus(OrderStatus.CANCELED);
+        when(orderMapper.cancelUnpaid(eq(List.of(28L, 29L)), any(LocalDateTime.class))).thenReturn(List.of(expired));
+
+        List<Long> canceled = orderService.cancelUnpaidOrders(List.of(28L, 29L));
+
+        assertThat(canceled).containsExactly(28L);
+        verify(goodsService).markSold(3L, false);
+        verify(orderEventPublisher).publishOrderStatusChanged(expired, OrderStatus.PENDING_PAYMENT);
+    }
+
+    @Test
+    void paymentLosesToATimeoutCancelThatGotThereFirst() {
+        when(orderMapper.selectById(28L)).thenReturn(order(28L, NOW));
+        when(userService.findById(5L)).thenReturn(user(5L, "buyer"));
+        when(orderMapper.updateStatusIfCurrent(eq(28L), eq(OrderStatus.PENDING_PAYMENT),
+                eq(OrderStatus.PENDING_SHIPMENT), any(LocalDateTime.class))).thenReturn(0);
+        OrderUpdateStatusRequest request = new OrderUpdateStatusRequest();
+        request.setStatus(OrderStatus.PENDING_SHIPMENT);
+
+        assertThatThrownBy(() -> orderService.updateStatus(28L, request, 5L))
+                .isInstanceOf(IllegalStateException.class);
+        verify(orderEventPublisher, never()).publishOrderStatusChanged(any(), any());
+    }
+
+    private static Order order(Long id, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setGoodsId(3L);
+        order.setBuyerId(5L);
+        order.setSellerId(7L);
+        order.setStatus(OrderStatus.PENDING_PAYMENT);
+        order.setGoodsTitle("Calculus");
+        order.setBuyerNickname("buyer");
+        order.setSellerNickname("seller");
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(createdAt);
+        return order;
+    }
+
+    private static User user(Long id, String nickname) {
+        User user = new User();
+        user.setId(id);
+        user.setNickname(nickname);
+        return user;
+    }
+}
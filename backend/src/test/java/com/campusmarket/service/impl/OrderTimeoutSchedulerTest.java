@@ -0,0 +1,132 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.Order;
+import com.campusmarket.mapper.OrderMapper;
+import com.campusmarket.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderTimeoutSchedulerTest {
+
+    @Mock
+    private OrderPaymentDeadlineQueue deadlines;
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderTimeoutScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new OrderTimeoutScheduler(deadlines, orderService, orderMapper, redisTemplate, meterRegistry,
+                true, 15, 5_000, 60_000, 200, 300_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void claimedDeadlinesFireOnTheTimerAndAreCanceledAsOneBatch() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> due = new LinkedHashMap<>();
+        due.put(1L, now - 1_000);
+        due.put(2L, now + 50);
+        when(deadlines.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(due);
+        when(orderService.cancelUnpaidOrders(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        scheduler.claimDue();
+        Thread.sleep(300);
+        scheduler.drainExpired();
+
+        verify(orderService).cancelUnpaidOrders(List.of(1L, 2L));
+        verify(deadlines).remove(List.of(1L, 2L));
+        assertThat(outcome("canceled")).isEqualTo(1);
+        assertThat(outcome("skipped")).isEqualTo(1);
+    }
+
+    @Test
+    void reclaimedDeadlineIsNotArmedTwice() {
+        Map<Long, Long> due = Map.of(1L, System.currentTimeMillis() + 60_000);
+        when(deadlines.claimDue(anyLong(), anyLong(), anyInt())).thenReturn(due);
+
+        scheduler.claimDue();
+        scheduler.claimDue();
+
+        assertThat(meterRegistry.get("order.payment_timeout.pending").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleOrdersAndKeepsFailuresQueued() {
+        when(orderService.cancelUnpaidOrders(List.of(1L, 2L))).thenThrow(new IllegalStateException("boom"));
+        when(orderService.cancelUnpaidOrders(List.of(1L))).thenReturn(List.of(1L));
+        when(orderService.cancelUnpaidOrders(List.of(2L))).thenThrow(new IllegalArgumentException("Goods not found"));
+
+        scheduler.process(new ArrayList<>(List.of(1L, 2L)));
+
+        verify(deadlines).remove(List.of(1L));
+        verify(deadlines, never()).remove(List.of(2L));
+        verify(deadlines, never()).remove(List.of(1L, 2L));
+        assertThat(outcome("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void backfillRequeuesUnpaidOrdersUnderTheIntervalLock() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(OrderTimeoutScheduler.BACKFILL_LOCK_KEY, "1", Duration.ofMinutes(5)))
+                .thenReturn(true);
+        Order order = new Order();
+        order.setId(7L);
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        when(orderMapper.selectUnpaidAfter(0L, 1_000)).thenReturn(List.of(order));
+
+        scheduler.backfill();
+
+        verify(deadlines).scheduleIfAbsent(7L,
+                OrderServiceImpl.toEpochMillis(LocalDateTime.of(2024, 5, 1, 10, 15)));
+    }
+
+    @Test
+    void backfillIsSkippedWhileAnotherInstanceHoldsTheLock() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(OrderTimeoutScheduler.BACKFILL_LOCK_KEY, "1", Duration.ofMinutes(5)))
+                .thenReturn(false);
+
+        scheduler.backfill();
+
+        verify(orderMapper, never()).selectUnpaidAfter(anyLong(), anyInt());
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("order.payment_timeout").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,99 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.service.RateLimitExceededException;
+import com.campusmarket.service.RateLimitPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private RedisRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new RedisRateLimiter(redisTemplate, meterRegistry, true, 1_000, now::get);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void passesEmissionIntervalAndPeriodToOneScriptCall() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(0L);
+
+        limiter.acquire(RateLimitPolicy.ORDER_CREATE, "user:1");
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rate:order.create:user:1")),
+                eq("12000"), eq("60000"));
+        assertThat(decisions("order.create", "allowed")).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectedCallerIsTurnedAwayLocallyUntilRetryAfter() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(2_500L, 0L);
+
+        assertThatThrownBy(() -> limiter.acquire(RateLimitPolicy.ORDER_CREATE, "user:1"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(ex -> assertThat(((RateLimitExceededException) ex).getRetryAfterSeconds()).isEqualTo(3));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(limiter.tryAcquire(RateLimitPolicy.ORDER_CREATE, "user:1")).isEqualTo(500);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire(RateLimitPolicy.ORDER_CREATE, "user:1")).isZero();
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), anyString(), anyString());
+        assertThat(decisions("order.create", "rejected")).isEqualTo(1);
+        assertThat(decisions("order.create", "rejected_local")).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loginFailuresAlwaysConsultRedis() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(60_000L);
+
+        limiter.tryAcquire(RateLimitPolicy.LOGIN_FAILURE, "demo");
+        limiter.tryAcquire(RateLimitPolicy.LOGIN_FAILURE, "demo");
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), anyString(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void letsRequestsThroughWhenRedisIsDown() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(limiter.tryAcquire(RateLimitPolicy.CHAT_SEND, "user:1")).isZero();
+        assertThat(decisions("chat.send", "error")).isEqualTo(1);
+    }
+
+    private double decisions(String limit, String outcome) {
+        return meterRegistry.get("rate_limit.decisions").tags("limit", limit, "outcome", outcome).counter().count();
+    }
+}
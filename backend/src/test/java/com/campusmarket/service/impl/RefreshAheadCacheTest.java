@@ -0,0 +1,152 @@
+package com.campusmarket.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshAheadCacheTest {
+
+    private static final String CACHE = "goods.detail";
+    private static final String KEY = "goods:detail:1";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ValueOperations<String, String> stringValueOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheMetrics metrics = new CacheMetrics(meterRegistry);
+    private ExecutorService refreshExecutor;
+    private RefreshAheadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        lenient().when(stringValueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        refreshExecutor = Executors.newSingleThreadExecutor();
+        cache = new RefreshAheadCache(redisTemplate, stringRedisTemplate, metrics, refreshExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.get(CACHE, KEY, TTL, () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "loaded";
+                })));
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+            release.countDown();
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        verify(valueOperations).set(eq(KEY), any(CacheEnvelope.class), eq(TTL.multipliedBy(2)));
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshedInBackground() {
+        when(valueOperations.get(KEY)).thenReturn(new CacheEnvelope("stale", System.currentTimeMillis() - 1));
+
+        Object value = cache.get(CACHE, KEY, TTL, () -> "fresh");
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(metrics.hitRatio(CACHE, CacheMetrics.L2)).isEqualTo(1.0);
+        verify(valueOperations, timeout(2000)).set(eq(KEY),
+                argThat(envelope -> "fresh".equals(((CacheEnvelope) envelope).getValue())),
+                eq(TTL.multipliedBy(2)));
+    }
+
+    @Test
+    void recordsMissLoadPayloadSizeAndNullHits() {
+        doReturn(new RedisSerializer<Object>() {
+            @Override
+            public byte[] serialize(Object value) {
+                return new byte[42];
+            }
+
+            @Override
+            public Object deserialize(byte[] bytes) {
+                return null;
+            }
+        }).when(redisTemplate).getValueSerializer();
+        when(valueOperations.get(KEY)).thenReturn(null, "__NULL__");
+
+        assertThat(cache.get(CACHE, KEY, TTL, () -> "loaded")).isEqualTo("loaded");
+        assertThat(cache.get(CACHE, KEY, TTL, () -> "unused")).isEqualTo("__NULL__");
+
+        assertThat(meterRegistry.get("cache.gets").tags("cache", CACHE, "result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", CACHE, "result", "null_hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.load.duration").tags("cache", CACHE, "result", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.payload.size").tag("cache", CACHE).summary().totalAmount()).isEqualTo(42);
+        assertThat(metrics.hitRatio(CACHE, CacheMetrics.L2)).isEqualTo(0.5);
+    }
+
+    @Test
+    void waitsForAnotherNodeHoldingTheLock() {
+        when(stringValueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn(null, null, new CacheEnvelope("from-peer", Long.MAX_VALUE));
+
+        Object value = cache.get(CACHE, KEY, TTL, () -> {
+            throw new AssertionError("loader must not run while a peer holds the lock");
+        });
+
+        assertThat(value).isEqualTo("from-peer");
+    }
+}
@@ -0,0 +1,88 @@
+package com.campusmarket.service.impl;
+
+import com.campusmarket.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private UserProfileCache cache;
+    private final List<Set<Long>> loads = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProfileCache(redisTemplate, new ObjectMapper().findAndRegisterModules(), listenerContainer,
+                new CacheMetrics(new SimpleMeterRegistry()));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void shouldLoadOnlyMissingIdsInOneBatchAndStripSecrets() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(
+                "{\"id\":1,\"nickname\":\"cached\"}", null, null));
+
+        Map<Long, User> users = cache.getAll(List.of(1L, 2L, 3L), this::load);
+
+        assertThat(loads).containsExactly(Set.of(2L, 3L));
+        assertThat(users.get(1L).getNickname()).isEqualTo("cached");
+        assertThat(users.get(2L).getNickname()).isEqualTo("user-2");
+        assertThat(users.get(2L).getPassword()).isNull();
+        assertThat(users.get(2L).getPhone()).isNull();
+    }
+
+    @Test
+    void secondLookupShouldBeServedLocallyUntilEvicted() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList((String) null));
+
+        cache.getAll(List.of(2L), this::load);
+        cache.getAll(List.of(2L), this::load);
+        assertThat(loads).hasSize(1);
+
+        cache.evict(2L);
+        cache.getAll(List.of(2L), this::load);
+
+        assertThat(loads).hasSize(2);
+        verify(redisTemplate).convertAndSend(UserProfileCache.CHANNEL, "2");
+    }
+
+    private List<User> load(Set<Long> ids) {
+        loads.add(Set.copyOf(ids));
+        return ids.stream().map(id -> {
+            User user = new User();
+            user.setId(id);
+            user.setNickname("user-" + id);
+            user.setPassword("hash");
+            user.setPhone("13800000000");
+            return user;
+        }).collect(Collectors.toList());
+    }
+}
@@ -4,6 +4,7 @@ import com.campusmarket.dto.AuthRequest;
 import com.campusmarket.entity.User;
 import com.campusmarket.mapper.UserMapper;
 import com.campusmarket.security.jwt.JwtTokenProvider;
+import com.campusmarket.service.RateLimitPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,12 +35,17 @@ class UserServiceImplTest {
     private StringRedisTemplate redisTemplate;
     @Mock
     private ValueOperations<String, String> valueOperations;
+    @Mock
+    private UserProfileCache profileCache;
+    @Mock
+    private RedisRateLimiter rateLimiter;
 
     private UserServiceImpl userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserServiceImpl(userMapper, passwordEncoder, jwtTokenProvider, redisTemplate);
+        userService = new UserServiceImpl(userMapper, passwordEncoder, jwtTokenProvider, redisTemplate, profileCache,
+                rateLimiter);
         lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
     }
 
@@ -61,7 +67,7 @@ class UserServiceImplTest {
     }
 
     @Test
-    void loginShouldRecordFailureAndExpireCounter() {
+    void loginShouldRecordFailureAgainstTheFailureLimit() {
         String username = "demo";
         User user = new User();
         user.setId(1L);
@@ -74,7 +80,7 @@ class UserServiceImplTest {
         when(redisTemplate.hasKey("auth:lock:" + username)).thenReturn(false);
         when(userMapper.selectOne(any())).thenReturn(user);
         when(passwordEncoder.matches("bad", "hash")).thenReturn(false);
-        when(valueOperations.increment("auth:fail:" + username)).thenReturn(1L);
+        when(rateLimiter.tryAcquire(RateLimitPolicy.LOGIN_FAILURE, username)).thenReturn(0L);
 
         AuthRequest request = new AuthRequest();
         request.setUsername(username);
@@ -84,8 +90,7 @@ class UserServiceImplTest {
                 .isInstanceOf(BadCredentialsException.class)
                 .hasMessageContaining("用户名或密码错误");
 
-        verify(valueOperations).increment("auth:fail:" + username);
-        verify(redisTemplate).expire("auth:fail:" + username, 15, TimeUnit.MINUTES);
+        verify(rateLimiter).tryAcquire(RateLimitPolicy.LOGIN_FAILURE, username);
         verify(valueOperations, never()).set(eq("auth:lock:" + username), anyString(), anyLong(), any(TimeUnit.class));
     }
 
@@ -103,7 +108,7 @@ class UserServiceImplTest {
         when(redisTemplate.hasKey("auth:lock:" + username)).thenReturn(false);
         when(userMapper.selectOne(any())).thenReturn(user);
         when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
-        when(valueOperations.increment("auth:fail:" + username)).thenReturn(5L);
+        when(rateLimiter.tryAcquire(RateLimitPolicy.LOGIN_FAILURE, username)).thenReturn(180_000L);
 
         AuthRequest request = new AuthRequest();
         request.setUsername(username);
@@ -112,7 +117,7 @@ class UserServiceImplTest {
         assertThatThrownBy(() -> userService.login(request))
                 .isInstanceOf(BadCredentialsException.class);
 
-        verify(valueOperations).increment("auth:fail:" + username);
+        verify(rateLimiter).tryAcquire(RateLimitPolicy.LOGIN_FAILURE, username);
         verify(valueOperations).set("auth:lock:" + username, "1", 15, TimeUnit.MINUTES);
     }
 }
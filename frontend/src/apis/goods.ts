@@ -5,6 +5,8 @@ export interface GoodsFilterParams {
   minPrice?: number;
   maxPrice?: number;
   keyword?: string;
+  cursor?: string;
+  size?: number;
 }
 
 export type GoodsStatus = 'PENDING_REVIEW' | 'APPROVED' | 'REJECTED';
@@ -40,8 +42,33 @@ export interface GoodsUpdatePayload {
   coverImageUrl?: string;
 }
 
+export interface GoodsPage {
+  items: GoodsItem[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export const fetchGoods = (params?: GoodsFilterParams) =>
-  request.get<GoodsItem[]>('/goods', { params });
+  request.get<GoodsPage>('/goods', { params });
+
+export interface GoodsSearchHit {
+  goods: GoodsItem;
+  score: number;
+  titleHighlight: string;
+  descriptionHighlight: string | null;
+}
+
+export interface GoodsSearchPage {
+  items: GoodsSearchHit[];
+  nextOffset: number | null;
+  hasMore: boolean;
+}
+
+export const searchGoods = (params: GoodsFilterParams & { offset?: number }) =>
+  request.get<GoodsSearchPage>('/goods/search', { params });
+
+export const fetchGoodsSuggestions = (prefix: string, limit = 8) =>
+  request.get<string[]>('/goods/suggestions', { params: { prefix, limit } });
 
 export const fetchGoodsDetail = (id: number) =>
   request.get<GoodsItem>(`/goods/${id}`);
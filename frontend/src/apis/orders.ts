@@ -14,6 +14,20 @@ export interface OrderItem {
   buyerNickname: string;
 }
 
+export type OrderRole = 'BUYER' | 'SELLER';
+
+export interface OrderListParams {
+  role: OrderRole;
+  cursor?: string;
+  size?: number;
+}
+
+export interface OrderPage {
+  items: OrderItem[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export interface OrderCreatePayload {
   goodsId: number;
 }
@@ -25,7 +39,7 @@ export interface OrderUpdateStatusPayload {
 export const createOrder = (payload: OrderCreatePayload) =>
   request.post<OrderItem>('/orders', payload);
 
-export const listOrders = () => request.get<OrderItem[]>('/orders');
+export const listOrders = (params: OrderListParams) => request.get<OrderPage>('/orders', { params });
 
 export const updateOrderStatus = (orderId: number, payload: OrderUpdateStatusPayload) =>
   request.patch<OrderItem>(`/orders/${orderId}`, payload);
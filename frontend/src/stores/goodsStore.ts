@@ -19,17 +19,40 @@ export const useGoodsStore = defineStore('goodsStore', () => {
   const loading = ref(false);
   const selectedGoods = ref<GoodsItem | null>(null);
   const pendingLoading = ref(false);
+  const nextCursor = ref<string | null>(null);
+  const hasMore = ref(false);
+  const loadingMore = ref(false);
+  let lastFilter: GoodsFilterParams | undefined;
 
   const loadGoods = async (params?: GoodsFilterParams) => {
     loading.value = true;
     try {
       const { data } = await fetchGoods(params);
-      goods.value = data;
+      lastFilter = params;
+      goods.value = data.items;
+      nextCursor.value = data.nextCursor;
+      hasMore.value = data.hasMore;
     } finally {
       loading.value = false;
     }
   };
 
+  const loadMoreGoods = async () => {
+    if (!hasMore.value || !nextCursor.value || loading.value || loadingMore.value) {
+      return;
+    }
+    loadingMore.value = true;
+    try {
+      const { data } = await fetchGoods({ ...lastFilter, cursor: nextCursor.value });
+      const seen = new Set(goods.value.map((item) => item.id));
+      goods.value = [...goods.value, ...data.items.filter((item) => !seen.has(item.id))];
+      nextCursor.value = data.nextCursor;
+      hasMore.value = data.hasMore;
+    } finally {
+      loadingMore.value = false;
+    }
+  };
+
   const loadGoodsById = async (id: number) => {
     selectedGoods.value = null;
     const { data } = await fetchGoodsDetail(id);
@@ -115,7 +138,10 @@ export const useGoodsStore = defineStore('goodsStore', () => {
     loading,
     pendingLoading,
     selectedGoods,
+    hasMore,
+    loadingMore,
     loadGoods,
+    loadMoreGoods,
     loadGoodsById,
     createGoods,
     loadMyGoods,
@@ -1,26 +1,51 @@
 import { defineStore } from 'pinia';
 import { ref } from 'vue';
-import type { OrderCreatePayload, OrderItem, OrderUpdateStatusPayload } from '../apis/orders';
+import type { OrderCreatePayload, OrderItem, OrderRole, OrderUpdateStatusPayload } from '../apis/orders';
 import { createOrder, listOrders, updateOrderStatus } from '../apis/orders';
 import { useGoodsStore } from './goodsStore';
 
 export const useOrderStore = defineStore('orderStore', () => {
   const orders = ref<OrderItem[]>([]);
   const loading = ref(false);
+  const role = ref<OrderRole>('BUYER');
+  const nextCursor = ref<string | null>(null);
+  const hasMore = ref(false);
+  const loadingMore = ref(false);
 
-  const loadOrders = async () => {
+  const loadOrders = async (nextRole: OrderRole = role.value) => {
+    role.value = nextRole;
     loading.value = true;
     try {
-      const { data } = await listOrders();
-      orders.value = data;
+      const { data } = await listOrders({ role: nextRole });
+      orders.value = data.items;
+      nextCursor.value = data.nextCursor;
+      hasMore.value = data.hasMore;
     } finally {
       loading.value = false;
     }
   };
 
+  const loadMoreOrders = async () => {
+    if (!hasMore.value || !nextCursor.value || loading.value || loadingMore.value) {
+      return;
+    }
+    loadingMore.value = true;
+    try {
+      const { data } = await listOrders({ role: role.value, cursor: nextCursor.value });
+      const seen = new Set(orders.value.map((order) => order.id));
+      orders.value = [...orders.value, ...data.items.filter((order) => !seen.has(order.id))];
+      nextCursor.value = data.nextCursor;
+      hasMore.value = data.hasMore;
+    } finally {
+      loadingMore.value = false;
+    }
+  };
+
   const submitOrder = async (payload: OrderCreatePayload) => {
     const { data } = await createOrder(payload);
-    orders.value = [data, ...orders.value];
+    if (role.value === 'BUYER') {
+      orders.value = [data, ...orders.value];
+    }
     const goodsStore = useGoodsStore();
     goodsStore.loadGoods();
     goodsStore.loadMyGoods();
@@ -41,7 +66,11 @@ export const useOrderStore = defineStore('orderStore', () => {
   return {
     orders,
     loading,
+    role,
+    hasMore,
+    loadingMore,
     loadOrders,
+    loadMoreOrders,
     submitOrder,
     changeOrderStatus
   };
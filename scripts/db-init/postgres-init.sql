@@ -1,6 +1,7 @@
 -- Schema bootstrap for PostgreSQL migration draft.
 
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -31,6 +32,22 @@ CREATE TABLE IF NOT EXISTS goods (
 CREATE INDEX IF NOT EXISTS idx_goods_status_category_published
     ON goods (status, category, published_at);
 
+-- Keyset pagination for the public goods list: (published_at, id) DESC over listed rows only.
+CREATE INDEX IF NOT EXISTS idx_goods_listed_published_id
+    ON goods (published_at DESC, id DESC)
+    WHERE status = 'APPROVED' AND is_sold = FALSE AND is_deleted = FALSE;
+
+-- Keyword search: weighted tsvector maintained from goods events, plus trigram index on title
+-- for substring, fuzzy and prefix matches.
+ALTER TABLE goods ADD COLUMN IF NOT EXISTS search_document TSVECTOR;
+CREATE INDEX IF NOT EXISTS idx_goods_search_document
+    ON goods USING GIN (search_document);
+CREATE INDEX IF NOT EXISTS idx_goods_title_trgm
+    ON goods USING GIN (title gin_trgm_ops);
+
+-- Optimistic lock for whole-row edits (seller update, review, delete); stock changes bump it too.
+ALTER TABLE goods ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
+
 CREATE TABLE IF NOT EXISTS cart_items (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     user_id BIGINT NOT NULL REFERENCES users(id),
@@ -63,6 +80,7 @@ CREATE TABLE IF NOT EXISTS flash_sale_item (
     original_price NUMERIC(10, 2) NOT NULL,
     flash_price NUMERIC(10, 2) NOT NULL,
     total_stock INTEGER NOT NULL,
+    stock_shards INTEGER NOT NULL DEFAULT 1,
     start_time TIMESTAMP NOT NULL,
     end_time TIMESTAMP NOT NULL,
     status VARCHAR(32) NOT NULL DEFAULT 'SCHEDULED',
@@ -70,6 +88,10 @@ CREATE TABLE IF NOT EXISTS flash_sale_item (
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Databases created before stock sharding: re-run this file with psql -f to pick up the column.
+ALTER TABLE flash_sale_item
+    ADD COLUMN IF NOT EXISTS stock_shards INTEGER NOT NULL DEFAULT 1;
+
 CREATE TABLE IF NOT EXISTS flash_sale_order (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     flash_sale_item_id BIGINT NOT NULL REFERENCES flash_sale_item(id),
@@ -94,10 +116,68 @@ CREATE TABLE IF NOT EXISTS orders (
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
-CREATE INDEX IF NOT EXISTS idx_orders_buyer_created
-    ON orders (buyer_id, created_at);
+-- Order list read model: the seller id and a snapshot of goods title/cover and both nicknames are
+-- written with the order, so each role's list is one keyset query over its own index. Goods edits
+-- refresh the title/cover from goods events.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS seller_id BIGINT REFERENCES users(id);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS goods_title VARCHAR(128);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS goods_cover_image_url VARCHAR(255);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS buyer_nickname VARCHAR(64);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS seller_nickname VARCHAR(64);
+
+UPDATE orders o
+SET seller_id = g.seller_id,
+    goods_title = g.title,
+    goods_cover_image_url = g.cover_image_url
+FROM goods g
+WHERE g.id = o.goods_id AND o.seller_id IS NULL;
+
+UPDATE orders o
+SET buyer_nickname = b.nickname,
+    seller_nickname = s.nickname
+FROM users b, users s
+WHERE b.id = o.buyer_id AND s.id = o.seller_id AND o.buyer_nickname IS NULL;
+
+DROP INDEX IF EXISTS idx_orders_buyer_created;
+
+CREATE INDEX IF NOT EXISTS idx_orders_buyer_created_id
+    ON orders (buyer_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_orders_seller_created_id
+    ON orders (seller_id, created_at DESC, id DESC);
+
+-- Unpaid orders, for the startup backfill of payment deadlines into Redis.
+CREATE INDEX IF NOT EXISTS idx_orders_pending_payment
+    ON orders (id)
+    WHERE status = 'PENDING_PAYMENT';
 
 CREATE INDEX IF NOT EXISTS idx_orders_goods_id
     ON orders (goods_id);
 
+-- Transactional outbox: domain events are written here in the transaction that produces them and
+-- relayed to Kafka in id order by OutboxRelay, which deletes each row once Kafka has acknowledged it.
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    topic VARCHAR(128) NOT NULL,
+    message_key VARCHAR(64),
+    payload_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+-- Sends rejected for good (record too large, serialization, authorization); retriable errors do not count.
+ALTER TABLE event_outbox ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+
+-- Outbox events given up on after app.outbox.max-attempts permanent failures, kept for inspection and replay.
+CREATE TABLE IF NOT EXISTS event_outbox_dead (
+    id BIGINT PRIMARY KEY,
+    topic VARCHAR(128) NOT NULL,
+    message_key VARCHAR(64),
+    payload_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error TEXT,
+    dead_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Placeholder for seed data inserts; migrate from MySQL dump as needed.